@@ -1,10 +1,17 @@
 package main.java.com.socialmedia;
 
+import main.java.com.socialmedia.archive.MessageArchiver;
+import main.java.com.socialmedia.concurrent.BackgroundExecutor;
+import main.java.com.socialmedia.dao.MessageCommitQueue;
 import main.java.com.socialmedia.database.DatabaseManager;
 import main.java.com.socialmedia.gui.LoginFrame;
 import main.java.com.socialmedia.service.ChannelService;
 import main.java.com.socialmedia.service.MessageService;
+import main.java.com.socialmedia.service.TimelineFanout;
 import main.java.com.socialmedia.service.UserService;
+import main.java.com.socialmedia.store.LogMessageStore;
+import main.java.com.socialmedia.store.MessageStores;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
 
 import javax.swing.*;
 
@@ -23,6 +30,25 @@ public class SocialMediaApplication {
             DatabaseManager.getInstance().initializeDatabase();
             System.out.println("Database initialized successfully");
 
+            // Membership checks, subscriber counts and fan-out read subscriptions from memory
+            SubscriptionGraph.getInstance().ensureLoaded();
+
+            // Let background tasks finish, stop archiving, flush queued messages and their fan-out, then release pooled connections on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                BackgroundExecutor.getInstance().shutdown();
+                if (MessageArchiver.isEnabled()) {
+                    MessageArchiver.getInstance().shutdown();
+                }
+                if (MessageStores.isLog()) {
+                    LogMessageStore.getInstance().shutdown();
+                }
+                MessageCommitQueue.getInstance().shutdown();
+                if (TimelineFanout.isEnabled()) {
+                    TimelineFanout.getInstance().shutdown();
+                }
+                DatabaseManager.getInstance().shutdown();
+            }));
+
             // Initialize services
             UserService userService = new UserService();
             ChannelService channelService = new ChannelService();
@@ -32,6 +58,10 @@ public class SocialMediaApplication {
             channelService.createDefaultChannel();
             System.out.println("Default channel created");
 
+            if (MessageArchiver.isEnabled()) {
+                MessageArchiver.getInstance().start();
+            }
+
             // Start GUI on EDT
             SwingUtilities.invokeLater(() -> {
                 try {
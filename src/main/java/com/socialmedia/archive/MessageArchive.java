@@ -0,0 +1,227 @@
+package main.java.com.socialmedia.archive;
+
+import main.java.com.socialmedia.dao.ArchiveDAO;
+import main.java.com.socialmedia.dao.AuthorDirectory;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.ArchiveSegment;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the message archive: the catalog of segment files and paging through them.
+ * Segments of one channel cover disjoint months, so a page is read from at most a few
+ * consecutive files, newest month first.
+ */
+public class MessageArchive {
+    private static MessageArchive instance;
+
+    private static final Path ARCHIVE_DIR = Path.of(System.getProperty("socialmedia.archive.dir", "archive"));
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final ArchiveDAO archiveDAO;
+    // Segment indexes are loaded on first read and dropped when a file is replaced
+    private final ConcurrentHashMap<String, MessageSegment> openSegments = new ConcurrentHashMap<>();
+    private final Object catalogLock = new Object();
+    // Channel ID to segments, newest month first; replaced wholesale on change
+    private volatile Map<Integer, List<ArchiveSegment>> catalog;
+    private volatile long archivedThrough = Long.MIN_VALUE;
+
+    private MessageArchive() {
+        this.archiveDAO = new ArchiveDAO();
+    }
+
+    /**
+     * Gets the singleton instance of MessageArchive.
+     * @return MessageArchive instance
+     */
+    public static synchronized MessageArchive getInstance() {
+        if (instance == null) {
+            instance = new MessageArchive();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the directory segment files are stored in.
+     * @return Archive directory
+     */
+    public Path getDirectory() {
+        return ARCHIVE_DIR;
+    }
+
+    /**
+     * Gets a channel's archived segments.
+     * @param channelId Channel ID
+     * @return Segments, newest month first
+     * @throws DatabaseException if the catalog cannot be loaded
+     */
+    public List<ArchiveSegment> getSegments(int channelId) throws DatabaseException {
+        return loadCatalog().getOrDefault(channelId, List.of());
+    }
+
+    /**
+     * Gets the creation time of the newest archived message of any channel.
+     * @return Epoch milliseconds, or Long.MIN_VALUE if nothing has been archived
+     * @throws DatabaseException if the catalog cannot be loaded
+     */
+    public long getArchivedThrough() throws DatabaseException {
+        loadCatalog();
+        return archivedThrough;
+    }
+
+    /**
+     * Reads archived messages of a channel strictly older than a cursor.
+     * @param channelId Channel ID
+     * @param before Cursor, or null to start at the newest archived message
+     * @param limit Maximum number of messages
+     * @return Page of messages, newest first, with author emails filled in
+     * @throws DatabaseException if the catalog or a segment cannot be read
+     */
+    public MessagePage readBefore(int channelId, MessageCursor before, int limit) throws DatabaseException {
+        List<Message> messages = new ArrayList<>(limit);
+        boolean hasMore = false;
+        AuthorDirectory authors = AuthorDirectory.getInstance();
+
+        for (ArchiveSegment segment : getSegments(channelId)) {
+            if (before != null && !isOlder(segment.getOldest(), before)) {
+                continue;
+            }
+            // Ask for one extra message to learn whether more exist
+            for (Message message : readSegment(segment, before, limit + 1 - messages.size())) {
+                if (messages.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                message.setUserEmail(authors.resolve(message.getUserId()));
+                messages.add(message);
+            }
+            if (hasMore) {
+                break;
+            }
+        }
+        return new MessagePage(messages, hasMore);
+    }
+
+    /**
+     * Reads every message in a segment.
+     * @param segment Catalog entry
+     * @return Messages newest first, without author emails
+     * @throws DatabaseException if the segment cannot be read
+     */
+    List<Message> readAll(ArchiveSegment segment) throws DatabaseException {
+        return readSegment(segment, null, segment.getMessageCount());
+    }
+
+    /**
+     * Swaps a channel's segment for a month in the catalog after it has been committed.
+     * @param segment New catalog entry
+     * @param replaced Entry it replaces, or null
+     */
+    void segmentCommitted(ArchiveSegment segment, ArchiveSegment replaced) {
+        synchronized (catalogLock) {
+            if (catalog == null) {
+                return;
+            }
+            Map<Integer, List<ArchiveSegment>> updated = new HashMap<>(catalog);
+            List<ArchiveSegment> segments = new ArrayList<>(updated.getOrDefault(segment.getChannelId(), List.of()));
+            segments.removeIf(existing -> existing.getPeriod().equals(segment.getPeriod()));
+            segments.add(segment);
+            segments.sort(Comparator.comparing(ArchiveSegment::getPeriod).reversed());
+            updated.put(segment.getChannelId(), List.copyOf(segments));
+            catalog = updated;
+            archivedThrough = Math.max(archivedThrough, segment.getNewest().getCreatedAtMillis());
+        }
+        if (replaced != null) {
+            openSegments.remove(replaced.getFileName());
+        }
+    }
+
+    /**
+     * Deletes segment files that are not in the catalog, left behind by a crash before commit
+     * or replaced by a newer file for the same month.
+     * @return Number of files deleted
+     * @throws DatabaseException if the catalog cannot be loaded
+     */
+    int deleteOrphans() throws DatabaseException {
+        if (!Files.isDirectory(ARCHIVE_DIR)) {
+            return 0;
+        }
+        Set<Path> live = new HashSet<>();
+        for (List<ArchiveSegment> segments : loadCatalog().values()) {
+            for (ArchiveSegment segment : segments) {
+                live.add(ARCHIVE_DIR.resolve(segment.getFileName()).normalize());
+            }
+        }
+
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(ARCHIVE_DIR, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean segmentFile = name.endsWith(SEGMENT_SUFFIX) || name.endsWith(SEGMENT_SUFFIX + ".tmp");
+                if (segmentFile && Files.isRegularFile(file) && !live.contains(file.normalize())) {
+                    Files.delete(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to clean up archive directory: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    private List<Message> readSegment(ArchiveSegment segment, MessageCursor before, int limit) throws DatabaseException {
+        try {
+            MessageSegment file = openSegments.get(segment.getFileName());
+            if (file == null) {
+                file = MessageSegment.open(ARCHIVE_DIR.resolve(segment.getFileName()));
+                openSegments.put(segment.getFileName(), file);
+            }
+            return file.readBefore(before, limit);
+        } catch (IOException e) {
+            System.err.println("Failed to read archive segment " + segment.getFileName());
+            e.printStackTrace();
+            throw new DatabaseException("Failed to read archive segment " + segment.getFileName(), e);
+        }
+    }
+
+    private Map<Integer, List<ArchiveSegment>> loadCatalog() throws DatabaseException {
+        Map<Integer, List<ArchiveSegment>> current = catalog;
+        if (current != null) {
+            return current;
+        }
+        synchronized (catalogLock) {
+            if (catalog == null) {
+                Map<Integer, List<ArchiveSegment>> loaded = new HashMap<>();
+                long newest = Long.MIN_VALUE;
+                // Already ordered by channel, newest period first
+                for (ArchiveSegment segment : archiveDAO.getSegments()) {
+                    loaded.computeIfAbsent(segment.getChannelId(), id -> new ArrayList<>()).add(segment);
+                    newest = Math.max(newest, segment.getNewest().getCreatedAtMillis());
+                }
+                loaded.replaceAll((id, segments) -> List.copyOf(segments));
+                archivedThrough = newest;
+                catalog = loaded;
+            }
+            return catalog;
+        }
+    }
+
+    private static boolean isOlder(MessageCursor a, MessageCursor b) {
+        return a.getCreatedAtMillis() < b.getCreatedAtMillis()
+                || (a.getCreatedAtMillis() == b.getCreatedAtMillis() && a.getId() < b.getId());
+    }
+}
@@ -0,0 +1,217 @@
+package main.java.com.socialmedia.archive;
+
+import main.java.com.socialmedia.dao.ArchiveDAO;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.ArchiveSegment;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.store.MessageStores;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that moves messages older than a configurable age out of SQLite and into
+ * compressed per-channel month segments. A segment file and the directory entries naming it
+ * are forced to disk first; the messages are deleted in the same transaction that records the
+ * file in the catalog, so a crash at any point leaves each message either live or archived,
+ * never both or neither.
+ * Enable with -Dsocialmedia.archive.enabled=true.
+ */
+public class MessageArchiver {
+    private static MessageArchiver instance;
+
+    private static final boolean ENABLED = Boolean.getBoolean("socialmedia.archive.enabled");
+    private static final int MAX_AGE_DAYS = Integer.getInteger("socialmedia.archive.maxAgeDays", 90);
+    private static final long INTERVAL_MINUTES = Long.getLong("socialmedia.archive.intervalMinutes", 60);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    // Newest first, the order of every page and segment
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparingLong(Message::getCreatedAtMillis).reversed()
+            .thenComparing(Comparator.comparingInt(Message::getId).reversed());
+
+    private final ArchiveDAO archiveDAO;
+    private final MessageArchive archive;
+    private ScheduledExecutorService scheduler;
+
+    private MessageArchiver() {
+        this.archiveDAO = new ArchiveDAO();
+        this.archive = MessageArchive.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of MessageArchiver.
+     * @return MessageArchiver instance
+     */
+    public static synchronized MessageArchiver getInstance() {
+        if (instance == null) {
+            instance = new MessageArchiver();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether background archiving is switched on for this process. Only messages
+     * kept in SQLite are archived.
+     * @return true if {@link #start()} should be called
+     */
+    public static boolean isEnabled() {
+        return ENABLED && MessageStores.isSqlite();
+    }
+
+    /**
+     * Starts archiving in the background: shortly after startup, then every configured interval.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-archiver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled, 1, INTERVAL_MINUTES, TimeUnit.MINUTES);
+        System.out.println("Message archiver started: messages older than " + MAX_AGE_DAYS + " days go to " +
+                archive.getDirectory().toAbsolutePath());
+    }
+
+    /**
+     * Stops the background job, letting a run in progress finish its current segment.
+     */
+    public synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                System.err.println("Message archiver did not stop within " + SHUTDOWN_TIMEOUT_MS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Archives every message older than the configured age.
+     * @return Number of messages archived
+     * @throws DatabaseException if database operation fails
+     */
+    public int archiveOldMessages() throws DatabaseException {
+        return archiveOlderThan(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MAX_AGE_DAYS));
+    }
+
+    /**
+     * Archives every message created before a time.
+     * @param cutoff Exclusive upper bound in epoch milliseconds
+     * @return Number of messages archived
+     * @throws DatabaseException if database operation fails
+     */
+    public synchronized int archiveOlderThan(long cutoff) throws DatabaseException {
+        int orphans = archive.deleteOrphans();
+        if (orphans > 0) {
+            System.out.println("Deleted " + orphans + " stale archive files");
+        }
+
+        // Rows inserted from here on get larger IDs and are left for the next run
+        int maxId = archiveDAO.getMaxMessageId();
+        int archived = 0;
+        for (int channelId : archiveDAO.getChannelIdsWithMessagesBefore(cutoff)) {
+            archived += archiveChannel(channelId, cutoff, maxId);
+        }
+        if (archived > 0) {
+            int pruned = archiveDAO.pruneTimelines(cutoff);
+            System.out.println("Archived " + archived + " messages, pruned " + pruned + " timeline rows");
+        }
+        return archived;
+    }
+
+    private void runScheduled() {
+        try {
+            archiveOldMessages();
+        } catch (DatabaseException | RuntimeException e) {
+            System.err.println("Message archiving failed");
+            e.printStackTrace();
+        }
+    }
+
+    // Works backwards one month at a time, so only one month of a channel is held in memory
+    private int archiveChannel(int channelId, long cutoff, int maxId) throws DatabaseException {
+        int archived = 0;
+        long upper = cutoff;
+        Long newest;
+        while ((newest = archiveDAO.findNewestCreatedAtBefore(channelId, upper, maxId)) != null) {
+            YearMonth month = YearMonth.from(Instant.ofEpochMilli(newest).atZone(ZoneOffset.UTC));
+            long monthStart = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            archived += archiveMonth(channelId, month, monthStart, upper, maxId);
+            upper = monthStart;
+        }
+        return archived;
+    }
+
+    private int archiveMonth(int channelId, YearMonth month, long from, long to, int maxId) throws DatabaseException {
+        List<Message> live = archiveDAO.getMessagesInRange(channelId, from, to, maxId);
+        if (live.isEmpty()) {
+            return 0;
+        }
+        String period = month.toString();
+        ArchiveSegment existing = null;
+        for (ArchiveSegment segment : archive.getSegments(channelId)) {
+            if (segment.getPeriod().equals(period)) {
+                existing = segment;
+            }
+        }
+
+        // A month that was archived before is rewritten as one file, keeping segments disjoint
+        List<Message> messages = new ArrayList<>(live);
+        if (existing != null) {
+            messages.addAll(archive.readAll(existing));
+            messages.sort(NEWEST_FIRST);
+        }
+
+        String fileName = channelId + "/" + period + "-" + System.currentTimeMillis() + MessageArchive.SEGMENT_SUFFIX;
+        Path path = archive.getDirectory().resolve(fileName);
+        try {
+            MessageSegment.createDirectories(path.getParent());
+            MessageSegment.write(path, channelId, messages);
+        } catch (IOException e) {
+            System.err.println("Failed to write archive segment " + path);
+            e.printStackTrace();
+            throw new DatabaseException("Failed to write archive segment " + path, e);
+        }
+
+        ArchiveSegment segment = new ArchiveSegment(channelId, period, fileName, messages.size(),
+                MessageCursor.of(messages.get(messages.size() - 1)), MessageCursor.of(messages.get(0)));
+        try {
+            archiveDAO.commitSegment(segment, from, to, maxId, live.size());
+        } catch (DatabaseException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        // The replaced file is left for the next run's orphan sweep, so reads already in flight can finish
+        archive.segmentCommitted(segment, existing);
+        return live.size();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package main.java.com.socialmedia.archive;
+
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file holding one channel's archived messages, newest first.
+ * Messages are packed into deflate-compressed blocks; a sparse index in the footer records the
+ * newest (created_at, id) of each block, so a page read inflates only the blocks it needs.
+ * <pre>
+ * header:  magic, version, channel ID, message count
+ * blocks:  deflate(created_at, id, user_id, content length, content UTF-8)...
+ * index:   per block: newest created_at, newest id, offset, length, message count, CRC32
+ * trailer: index offset, block count, magic
+ * </pre>
+ */
+public final class MessageSegment {
+    static final int MAGIC = 0x534D5331;
+    static final int VERSION = 1;
+
+    private static final int BLOCK_SIZE = Integer.getInteger("socialmedia.archive.blockSize", 64);
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES * 3;
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path path;
+    private final int channelId;
+    private final int messageCount;
+    private final long[] blockCreatedAt;
+    private final int[] blockIds;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockCounts;
+    private final int[] blockChecksums;
+
+    private MessageSegment(Path path, int channelId, int messageCount, int blockCount) {
+        this.path = path;
+        this.channelId = channelId;
+        this.messageCount = messageCount;
+        this.blockCreatedAt = new long[blockCount];
+        this.blockIds = new int[blockCount];
+        this.blockOffsets = new long[blockCount];
+        this.blockLengths = new int[blockCount];
+        this.blockCounts = new int[blockCount];
+        this.blockChecksums = new int[blockCount];
+    }
+
+    /**
+     * Writes messages to a new segment file. The file is written under a temporary name,
+     * forced to disk and then moved into place, so a crash never leaves a partial segment.
+     * The directory is forced after the move, so once this returns the file survives a crash
+     * under its final name.
+     * @param path Destination file
+     * @param channelId Channel the messages belong to
+     * @param messages Messages in newest-first order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, int channelId, List<Message> messages) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int blockCount = (messages.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ByteArrayOutputStream index = new ByteArrayOutputStream(blockCount * INDEX_ENTRY_BYTES);
+        DataOutputStream indexOut = new DataOutputStream(index);
+        Deflater deflater = new Deflater();
+
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(channelId);
+            out.writeInt(messages.size());
+
+            for (int start = 0; start < messages.size(); start += BLOCK_SIZE) {
+                List<Message> block = messages.subList(start, Math.min(start + BLOCK_SIZE, messages.size()));
+                byte[] compressed = compress(deflater, encode(block));
+                CRC32 crc = new CRC32();
+                crc.update(compressed);
+
+                Message newest = block.get(0);
+                indexOut.writeLong(newest.getCreatedAtMillis());
+                indexOut.writeInt(newest.getId());
+                indexOut.writeLong(out.size());
+                indexOut.writeInt(compressed.length);
+                indexOut.writeInt(block.size());
+                indexOut.writeInt((int) crc.getValue());
+                out.write(compressed);
+            }
+
+            long indexOffset = out.size();
+            index.writeTo(out);
+            out.writeLong(indexOffset);
+            out.writeInt(blockCount);
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Creates a directory and any missing parents, forcing each new entry into its parent
+     * so a crash cannot lose the directory a committed segment lives in.
+     * @param directory Directory to create
+     * @throws IOException if a directory cannot be created or forced
+     */
+    public static void createDirectories(Path directory) throws IOException {
+        List<Path> missing = new ArrayList<>();
+        for (Path dir = directory.toAbsolutePath(); dir != null && Files.notExists(dir); dir = dir.getParent()) {
+            missing.add(dir);
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        for (int i = missing.size() - 1; i >= 0; i--) {
+            forceDirectory(missing.get(i).getParent());
+        }
+    }
+
+    // Windows cannot open a directory as a channel; NTFS journals the rename and the new entry itself
+    private static void forceDirectory(Path directory) throws IOException {
+        if (WINDOWS || directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Opens a segment file and loads its sparse index.
+     * @param path Segment file
+     * @return Open segment
+     * @throws IOException if the file is unreadable or not a segment
+     */
+    public static MessageSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 16 + TRAILER_BYTES) {
+                throw new IOException("Segment too short: " + path);
+            }
+            ByteBuffer header = readFully(channel, 0, 16);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a message segment: " + path);
+            }
+            int channelId = header.getInt();
+            int messageCount = header.getInt();
+
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            int blockCount = trailer.getInt();
+            if (trailer.getInt() != MAGIC || indexOffset + (long) blockCount * INDEX_ENTRY_BYTES != size - TRAILER_BYTES) {
+                throw new IOException("Corrupt segment trailer: " + path);
+            }
+
+            MessageSegment segment = new MessageSegment(path, channelId, messageCount, blockCount);
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_BYTES);
+            for (int i = 0; i < blockCount; i++) {
+                segment.blockCreatedAt[i] = index.getLong();
+                segment.blockIds[i] = index.getInt();
+                segment.blockOffsets[i] = index.getLong();
+                segment.blockLengths[i] = index.getInt();
+                segment.blockCounts[i] = index.getInt();
+                segment.blockChecksums[i] = index.getInt();
+            }
+            return segment;
+        }
+    }
+
+    public Path getPath() { return path; }
+    public int getChannelId() { return channelId; }
+    public int getMessageCount() { return messageCount; }
+
+    /**
+     * Reads messages strictly older than a cursor.
+     * @param before Cursor, or null to start at the newest message
+     * @param limit Maximum number of messages
+     * @return Messages newest first, without author emails
+     * @throws IOException if the file cannot be read or a block fails its checksum
+     */
+    public List<Message> readBefore(MessageCursor before, int limit) throws IOException {
+        List<Message> messages = new ArrayList<>(Math.min(limit, messageCount));
+        if (limit <= 0 || blockCounts.length == 0) {
+            return messages;
+        }
+        int block = before == null ? 0 : findStartBlock(before);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (; block < blockCounts.length && messages.size() < limit; block++) {
+                for (Message message : readBlock(channel, block)) {
+                    if (before != null && !isOlder(message, before)) {
+                        continue;
+                    }
+                    messages.add(message);
+                    if (messages.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Reads every message in the segment.
+     * @return Messages newest first, without author emails
+     * @throws IOException if the file cannot be read or a block fails its checksum
+     */
+    public List<Message> readAll() throws IOException {
+        return readBefore(null, messageCount);
+    }
+
+    // The last block whose newest message is not older than the cursor may still hold older ones
+    private int findStartBlock(MessageCursor before) {
+        int low = 0;
+        int high = blockCounts.length - 1;
+        int start = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            boolean older = blockCreatedAt[mid] < before.getCreatedAtMillis()
+                    || (blockCreatedAt[mid] == before.getCreatedAtMillis() && blockIds[mid] < before.getId());
+            if (older) {
+                high = mid - 1;
+            } else {
+                start = mid;
+                low = mid + 1;
+            }
+        }
+        return start;
+    }
+
+    private List<Message> readBlock(FileChannel channel, int block) throws IOException {
+        ByteBuffer compressed = readFully(channel, blockOffsets[block], blockLengths[block]);
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != blockChecksums[block]) {
+            throw new IOException("Checksum mismatch in block " + block + " of " + path);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockLengths[block] * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block " + block + " in " + path);
+                }
+                raw.write(buffer, 0, n);
+            }
+            return decode(new DataInputStream(new ByteArrayInputStream(raw.toByteArray())), blockCounts[block]);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<Message> decode(DataInputStream data, int count) throws IOException {
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setCreatedAtMillis(data.readLong());
+            message.setId(data.readInt());
+            message.setUserId(data.readInt());
+            byte[] content = new byte[data.readInt()];
+            data.readFully(content);
+            message.setContent(new String(content, StandardCharsets.UTF_8));
+            message.setChannelId(channelId);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static byte[] encode(List<Message> block) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(block.size() * 64);
+        DataOutputStream out = new DataOutputStream(raw);
+        for (Message message : block) {
+            byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+            out.writeLong(message.getCreatedAtMillis());
+            out.writeInt(message.getId());
+            out.writeInt(message.getUserId());
+            out.writeInt(content.length);
+            out.write(content);
+        }
+        return raw.toByteArray();
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean isOlder(Message message, MessageCursor cursor) {
+        return message.getCreatedAtMillis() < cursor.getCreatedAtMillis()
+                || (message.getCreatedAtMillis() == cursor.getCreatedAtMillis() && message.getId() < cursor.getId());
+    }
+}
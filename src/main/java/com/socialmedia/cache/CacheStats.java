@@ -0,0 +1,47 @@
+package main.java.com.socialmedia.cache;
+
+/**
+ * Point-in-time snapshot of cache counters.
+ */
+public class CacheStats {
+    private final String cacheName;
+    private final long size;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public CacheStats(String cacheName, long size, long hitCount, long missCount, long evictionCount) {
+        this.cacheName = cacheName;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getCacheName() { return cacheName; }
+    public long getSize() { return size; }
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getEvictionCount() { return evictionCount; }
+
+    /**
+     * Gets the fraction of lookups served from the cache.
+     * @return Hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "cache='" + cacheName + '\'' +
+                ", size=" + size +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                '}';
+    }
+}
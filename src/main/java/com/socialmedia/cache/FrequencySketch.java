@@ -0,0 +1,74 @@
+package main.java.com.socialmedia.cache;
+
+/**
+ * Count-min sketch of approximate access frequencies, used by {@link TinyLfuCache} for admission.
+ * Counters saturate at 15 and are halved periodically so old popularity fades.
+ * Not thread-safe; callers guard it with the cache's policy lock.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xe9b07f45, 0x5bd1e995, 0x7ed55d16};
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int resetThreshold;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for a cache of the given capacity.
+     * @param capacity Maximum number of cache entries
+     */
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.resetThreshold = 10 * width;
+    }
+
+    /**
+     * Records one access of the key.
+     * @param hash Key hash code
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            if (counters[i][index] < MAX_COUNT) {
+                counters[i][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= resetThreshold) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimates how often the key has been accessed recently.
+     * @param hash Key hash code
+     * @return Estimated frequency, 0 to 15
+     */
+    int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters[i][indexOf(hash, i)]);
+        }
+        return min;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Halves every counter so the sketch favours recent popularity
+    private void reset() {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions /= 2;
+    }
+}
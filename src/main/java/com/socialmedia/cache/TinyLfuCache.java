@@ -0,0 +1,309 @@
+package main.java.com.socialmedia.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with W-TinyLFU admission and eviction.
+ * New entries enter a small LRU window; entries leaving the window only displace an entry of the
+ * main segmented LRU if their estimated access frequency is higher. This keeps one-off lookups
+ * from flushing frequently used entries.
+ *
+ * Reads are lock-free. Access recording happens under a policy lock taken with tryLock, so under
+ * contention some accesses are not recorded rather than making readers wait.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class TinyLfuCache<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = -1;
+
+    private final String name;
+    private final int maximumSize;
+    private final int maxWindow;
+    private final int maxProtected;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     * @param name Cache name used in stats
+     * @param maximumSize Maximum number of entries
+     */
+    public TinyLfuCache(String name, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (int) ((maximumSize - maxWindow) * 0.8);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Looks up a value.
+     * @param key Key
+     * @return Cached value, or null on a miss
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.incrementAndGet();
+            recordMiss(key);
+            return null;
+        }
+        hits.incrementAndGet();
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Adds or replaces a value, evicting another entry if the cache is full.
+     * @param key Key
+     * @param value Value
+     */
+    public void put(K key, V value) {
+        policyLock.lock();
+        try {
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                existing.value = value;
+                onAccess(existing);
+                return;
+            }
+
+            Node<K, V> node = new Node<>(key, value);
+            sketch.increment(key.hashCode());
+            data.put(key, node);
+            node.queue = WINDOW;
+            window.addLast(node);
+            evictIfNeeded();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an entry.
+     * @param key Key
+     */
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries. Frequency history is kept.
+     */
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                unlink(node);
+            }
+            data.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Gets cache counters.
+     * @return Cache statistics
+     */
+    public CacheStats getStats() {
+        return new CacheStats(name, data.size(), hits.get(), misses.get(), evictions.get());
+    }
+
+    // Misses count toward frequency too, so a key that keeps missing earns admission
+    private void recordMiss(K key) {
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key.hashCode());
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case WINDOW -> window.moveToEnd(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                demoteProtectedOverflow();
+            }
+            case PROTECTED -> protectedQueue.moveToEnd(node);
+            default -> {
+                // Removed concurrently; nothing to reorder
+            }
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        while (protectedQueue.size() > maxProtected) {
+            Node<K, V> demoted = protectedQueue.pollFirst();
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    private void evictIfNeeded() {
+        // Entries leaving the window become candidates for the main space
+        while (window.size() > maxWindow) {
+            Node<K, V> candidate = window.pollFirst();
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+
+            if (data.size() <= maximumSize) {
+                continue;
+            }
+
+            Node<K, V> victim = probation.peekFirst();
+            if (victim == candidate) {
+                evict(candidate);
+                continue;
+            }
+            int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+            int victimFrequency = sketch.frequency(victim.key.hashCode());
+            evict(candidateFrequency > victimFrequency ? victim : candidate);
+        }
+
+        while (data.size() > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedQueue.peekFirst();
+            }
+            if (victim == null) {
+                victim = window.peekFirst();
+            }
+            evict(victim);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        data.remove(node.key, node);
+        evictions.incrementAndGet();
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedQueue.remove(node);
+            default -> {
+                return;
+            }
+        }
+        node.queue = REMOVED;
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private int queue = REMOVED;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list in access order, least recent first.
+     */
+    private static final class AccessQueue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        Node<K, V> peekFirst() {
+            return head;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void moveToEnd(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package main.java.com.socialmedia.cache;
+
+import main.java.com.socialmedia.model.User;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Process-wide cache of users by ID and by normalized email.
+ * Users are copied on the way in and out, so callers cannot change cached state.
+ */
+public class UserCache {
+    private static UserCache instance;
+
+    private static final int MAX_SIZE = Integer.getInteger("socialmedia.cache.users.maxSize", 10000);
+
+    private final TinyLfuCache<Integer, User> usersById;
+    private final TinyLfuCache<String, Integer> idsByEmail;
+
+    private UserCache() {
+        this.usersById = new TinyLfuCache<>("users-by-id", MAX_SIZE);
+        this.idsByEmail = new TinyLfuCache<>("users-by-email", MAX_SIZE);
+    }
+
+    /**
+     * Gets the singleton instance of UserCache.
+     * @return UserCache instance
+     */
+    public static synchronized UserCache getInstance() {
+        if (instance == null) {
+            instance = new UserCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up a user by ID.
+     * @param id User ID
+     * @return Copy of the cached user, or null on a miss
+     */
+    public User getById(int id) {
+        return copy(usersById.get(id));
+    }
+
+    /**
+     * Looks up a user by email, ignoring case and surrounding whitespace.
+     * @param email User email
+     * @return Copy of the cached user, or null on a miss
+     */
+    public User getByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String key = normalizeEmail(email);
+        Integer id = idsByEmail.get(key);
+        if (id == null) {
+            return null;
+        }
+        User user = usersById.get(id);
+        // The ID entry may have been evicted or replaced independently of the email entry
+        if (user == null || !key.equals(normalizeEmail(user.getEmail()))) {
+            return null;
+        }
+        return copy(user);
+    }
+
+    /**
+     * Adds or refreshes a user loaded from or written to the database.
+     * @param user User with ID and email set
+     */
+    public void put(User user) {
+        if (user == null || user.getId() <= 0 || user.getEmail() == null) {
+            return;
+        }
+        usersById.put(user.getId(), copy(user));
+        idsByEmail.put(normalizeEmail(user.getEmail()), user.getId());
+    }
+
+    /**
+     * Drops a user from the cache after it has been changed in the database.
+     * @param user User to drop
+     */
+    public void invalidate(User user) {
+        if (user == null) {
+            return;
+        }
+        usersById.invalidate(user.getId());
+        if (user.getEmail() != null) {
+            idsByEmail.invalidate(normalizeEmail(user.getEmail()));
+        }
+    }
+
+    /**
+     * Drops every cached user.
+     */
+    public void invalidateAll() {
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    /**
+     * Gets counters for the ID and email caches.
+     * @return Cache statistics
+     */
+    public List<CacheStats> getStats() {
+        return List.of(usersById.getStats(), idsByEmail.getStats());
+    }
+
+    /**
+     * Normalizes an email the same way registration does.
+     * @param email Email address
+     * @return Trimmed, lower-cased email
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        if (user == null) {
+            return null;
+        }
+        User copy = new User(user.getEmail(), user.getPassword());
+        copy.setId(user.getId());
+        copy.setCreatedAtMillis(user.getCreatedAtMillis());
+        return copy;
+    }
+}
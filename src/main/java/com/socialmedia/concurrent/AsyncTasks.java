@@ -0,0 +1,45 @@
+package main.java.com.socialmedia.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Turns blocking calls into {@link CompletableFuture}s. Unlike
+ * {@link CompletableFuture#supplyAsync}, the task may throw checked exceptions; the future
+ * then completes exceptionally with that exception itself, so callers can still tell a
+ * {@code DatabaseException} from a validation failure.
+ */
+public final class AsyncTasks {
+
+    private AsyncTasks() {
+    }
+
+    /**
+     * Runs a task on an executor.
+     * @param taskName Name used when the executor logs task timing
+     * @param task Task to run
+     * @param executor Executor to run it on
+     * @param <T> Result type
+     * @return Future completed with the task's result, or exceptionally with the exception it threw
+     */
+    public static <T> CompletableFuture<T> call(String taskName, Callable<T> task, Executor executor) {
+        if (executor instanceof BackgroundExecutor background) {
+            return background.submit(taskName, task);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,124 @@
+package main.java.com.socialmedia.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs blocking work, mostly database calls started from the GUI, one virtual thread per
+ * task. Unlike SwingWorker's shared pool of ten threads, tasks never queue behind each
+ * other here; how many reach the database at once is bounded by the connection pools.
+ * Every task is timed, and those slower than -Dsocialmedia.tasks.slowMillis are logged.
+ */
+public class BackgroundExecutor implements Executor {
+    private static BackgroundExecutor instance;
+
+    private static final long SLOW_MILLIS = Long.getLong("socialmedia.tasks.slowMillis", 250);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("background-task-", 0).factory());
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong failedTasks = new AtomicLong();
+    private final AtomicLong totalTaskNanos = new AtomicLong();
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * Gets the singleton instance of BackgroundExecutor.
+     * @return BackgroundExecutor instance
+     */
+    public static synchronized BackgroundExecutor getInstance() {
+        if (instance == null) {
+            instance = new BackgroundExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a task on its own virtual thread.
+     * @param taskName Name used when logging the task's timing
+     * @param task Task to run
+     * @param <T> Result type
+     * @return Future completed with the task's result, or exceptionally with the exception it threw,
+     *         or with RejectedExecutionException once the executor has been shut down
+     */
+    public <T> CompletableFuture<T> submit(String taskName, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    T result = task.call();
+                    record(taskName, startedAt, null);
+                    future.complete(result);
+                } catch (Throwable t) {
+                    record(taskName, startedAt, t);
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down while the EDT can still start tasks; callers only expect a failed future
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a command on its own virtual thread, untimed. Lets the executor back
+     * {@link CompletableFuture} stages.
+     * @param command Command to run
+     */
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    public long getFailedTasks() {
+        return failedTasks.get();
+    }
+
+    /**
+     * Gets the mean run time of finished tasks.
+     * @return Average in milliseconds, 0 before any task finished
+     */
+    public double getAverageTaskMillis() {
+        long finished = completedTasks.get() + failedTasks.get();
+        return finished == 0 ? 0.0 : totalTaskNanos.get() / 1_000_000.0 / finished;
+    }
+
+    /**
+     * Stops accepting tasks and gives running ones a moment to finish, so a post in flight
+     * reaches the database before it shuts down.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                System.err.println("Background tasks still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(String taskName, long startedAt, Throwable failure) {
+        long elapsed = System.nanoTime() - startedAt;
+        totalTaskNanos.addAndGet(elapsed);
+        (failure == null ? completedTasks : failedTasks).incrementAndGet();
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        if (millis >= SLOW_MILLIS) {
+            System.out.println("Slow background task: " + taskName + " took " + millis + " ms" +
+                    (failure != null ? " and failed" : ""));
+        }
+    }
+}
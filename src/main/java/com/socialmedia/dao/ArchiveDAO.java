@@ -0,0 +1,324 @@
+package main.java.com.socialmedia.dao;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.ArchiveSegment;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the message archive catalog and for moving rows out of the messages table.
+ */
+public class ArchiveDAO {
+    // Timeline rows deleted per write transaction while pruning
+    private static final int PRUNE_BATCH_SIZE = Integer.getInteger("socialmedia.archive.pruneBatch", 1000);
+    private static final int NO_USER = -1;
+
+    private static final String UPSERT_SEGMENT_SQL = """
+        INSERT OR REPLACE INTO archive_segments
+            (channel_id, period, file_name, message_count,
+             oldest_created_at, oldest_id, newest_created_at, newest_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private final DatabaseManager databaseManager;
+
+    public ArchiveDAO() {
+        this.databaseManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Gets every archived segment.
+     * @return Catalog entries ordered by channel, newest period first
+     * @throws DatabaseException if database operation fails
+     */
+    public List<ArchiveSegment> getSegments() throws DatabaseException {
+        String sql = """
+            SELECT channel_id, period, file_name, message_count,
+                   oldest_created_at, oldest_id, newest_created_at, newest_id
+            FROM archive_segments
+            ORDER BY channel_id, period DESC
+        """;
+        List<ArchiveSegment> segments = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                segments.add(new ArchiveSegment(
+                        rs.getInt("channel_id"),
+                        rs.getString("period"),
+                        rs.getString("file_name"),
+                        rs.getInt("message_count"),
+                        new MessageCursor(rs.getLong("oldest_created_at"), rs.getInt("oldest_id")),
+                        new MessageCursor(rs.getLong("newest_created_at"), rs.getInt("newest_id"))));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get archive segments");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get archive segments", e);
+        }
+
+        return segments;
+    }
+
+    /**
+     * Gets the highest message ID assigned so far. Rows inserted later always have larger IDs.
+     * @return Highest message ID, or 0 if there are no messages
+     * @throws DatabaseException if database operation fails
+     */
+    public int getMaxMessageId() throws DatabaseException {
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM messages");
+             ResultSet rs = stmt.executeQuery()) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get highest message ID");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get highest message ID", e);
+        }
+    }
+
+    /**
+     * Gets the creation time of a channel's newest message before a time.
+     * @param channelId Channel ID
+     * @param before Exclusive upper bound in epoch milliseconds
+     * @param maxId Highest message ID to consider
+     * @return Epoch milliseconds, or null if the channel has no such message
+     * @throws DatabaseException if database operation fails
+     */
+    public Long findNewestCreatedAtBefore(int channelId, long before, int maxId) throws DatabaseException {
+        String sql = "SELECT MAX(created_at) FROM messages WHERE channel_id = ? AND created_at < ? AND id <= ?";
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, channelId);
+            stmt.setLong(2, before);
+            stmt.setInt(3, maxId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long createdAt = rs.getLong(1);
+                    return rs.wasNull() ? null : createdAt;
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to find messages to archive");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to find messages to archive", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets a channel's messages in a time range, for archiving. Author emails are not filled in.
+     * @param channelId Channel ID
+     * @param from Inclusive lower bound in epoch milliseconds
+     * @param to Exclusive upper bound in epoch milliseconds
+     * @param maxId Highest message ID to include
+     * @return Messages newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public List<Message> getMessagesInRange(int channelId, long from, long to, int maxId) throws DatabaseException {
+        String sql = """
+            SELECT id, channel_id, user_id, content, created_at
+            FROM messages
+            WHERE channel_id = ? AND created_at >= ? AND created_at < ? AND id <= ?
+            ORDER BY created_at DESC, id DESC
+        """;
+        List<Message> messages = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, channelId);
+            stmt.setLong(2, from);
+            stmt.setLong(3, to);
+            stmt.setInt(4, maxId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Message message = new Message();
+                    message.setId(rs.getInt("id"));
+                    message.setChannelId(rs.getInt("channel_id"));
+                    message.setUserId(rs.getInt("user_id"));
+                    message.setContent(rs.getString("content"));
+                    message.setCreatedAtMillis(rs.getLong("created_at"));
+                    messages.add(message);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to read messages to archive");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to read messages to archive", e);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Records a written segment and deletes the messages it holds in one transaction.
+     * Rolls back if the range no longer holds exactly the archived messages.
+     * @param segment Catalog entry for the new file; replaces any entry for the same channel and month
+     * @param from Inclusive lower bound of the archived range in epoch milliseconds
+     * @param to Exclusive upper bound of the archived range in epoch milliseconds
+     * @param maxId Highest message ID that was read
+     * @param expectedCount Number of live messages written to the segment
+     * @throws DatabaseException if database operation fails or the range changed
+     */
+    public void commitSegment(ArchiveSegment segment, long from, long to, int maxId, int expectedCount)
+            throws DatabaseException {
+        String deleteSql = "DELETE FROM messages WHERE channel_id = ? AND created_at >= ? AND created_at < ? AND id <= ?";
+
+        try (Connection conn = databaseManager.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement upsert = conn.prepareStatement(UPSERT_SEGMENT_SQL)) {
+
+                delete.setInt(1, segment.getChannelId());
+                delete.setLong(2, from);
+                delete.setLong(3, to);
+                delete.setInt(4, maxId);
+                int deleted = delete.executeUpdate();
+                if (deleted != expectedCount) {
+                    throw new DatabaseException("Messages changed while archiving channel " + segment.getChannelId() +
+                            ": expected " + expectedCount + ", found " + deleted);
+                }
+
+                upsert.setInt(1, segment.getChannelId());
+                upsert.setString(2, segment.getPeriod());
+                upsert.setString(3, segment.getFileName());
+                upsert.setInt(4, segment.getMessageCount());
+                upsert.setLong(5, segment.getOldest().getCreatedAtMillis());
+                upsert.setInt(6, segment.getOldest().getId());
+                upsert.setLong(7, segment.getNewest().getCreatedAtMillis());
+                upsert.setInt(8, segment.getNewest().getId());
+                upsert.executeUpdate();
+
+                conn.commit();
+            } catch (DatabaseException | SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to commit archive segment");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to commit archive segment", e);
+        }
+    }
+
+    /**
+     * Gets the channels that still hold messages older than a time.
+     * @param before Exclusive upper bound in epoch milliseconds
+     * @return Channel IDs
+     * @throws DatabaseException if database operation fails
+     */
+    public List<Integer> getChannelIdsWithMessagesBefore(long before) throws DatabaseException {
+        // One index seek per channel instead of a scan of messages
+        String sql = """
+            SELECT c.id FROM channels c
+            WHERE EXISTS (SELECT 1 FROM messages m WHERE m.channel_id = c.id AND m.created_at < ?)
+            ORDER BY c.id
+        """;
+        List<Integer> channelIds = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, before);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    channelIds.add(rs.getInt(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to find channels to archive");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to find channels to archive", e);
+        }
+
+        return channelIds;
+    }
+
+    /**
+     * Deletes materialized timeline rows older than a time, whose messages have been archived.
+     * Works one user at a time on the primary key prefix, in small transactions, so posts and
+     * fan-out waiting for the write connection get it between batches. Users are found by
+     * seeking to the next user_id in the table, since fan-out writes rows for every
+     * subscriber, not only those listed in timeline_users.
+     * @param before Exclusive upper bound in epoch milliseconds
+     * @return Number of rows deleted
+     * @throws DatabaseException if database operation fails
+     */
+    public int pruneTimelines(long before) throws DatabaseException {
+        String sql = """
+            DELETE FROM timelines
+            WHERE user_id = ?
+              AND (created_at, message_id) IN (
+                  SELECT created_at, message_id FROM timelines
+                  WHERE user_id = ? AND created_at < ?
+                  LIMIT ?)
+        """;
+        int deleted = 0;
+
+        for (int userId = nextTimelineUser(0); userId != NO_USER; userId = nextTimelineUser(userId)) {
+            int batchDeleted;
+            do {
+                try (Connection conn = databaseManager.getWriteConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, userId);
+                    stmt.setLong(3, before);
+                    stmt.setInt(4, PRUNE_BATCH_SIZE);
+                    batchDeleted = stmt.executeUpdate();
+
+                } catch (SQLException e) {
+                    System.err.println("Failed to prune timelines");
+                    e.printStackTrace();
+                    throw new DatabaseException("Failed to prune timelines", e);
+                }
+                deleted += batchDeleted;
+            } while (batchDeleted == PRUNE_BATCH_SIZE);
+        }
+
+        return deleted;
+    }
+
+    // One primary key seek per user instead of a scan of every timeline row
+    private int nextTimelineUser(int afterUserId) throws DatabaseException {
+        String sql = "SELECT user_id FROM timelines WHERE user_id > ? ORDER BY user_id LIMIT 1";
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterUserId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : NO_USER;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to find timeline users");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to find timeline users", e);
+        }
+    }
+}
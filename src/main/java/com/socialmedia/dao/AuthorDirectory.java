@@ -0,0 +1,120 @@
+package main.java.com.socialmedia.dao;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process dictionary of user ID to email, used to label messages without joining users.
+ * Every message by the same author shares one email string. Loaded on first use and kept
+ * current on registration; authors added behind its back are looked up one row at a time.
+ */
+public class AuthorDirectory {
+    private static AuthorDirectory instance;
+
+    private final ConcurrentHashMap<Integer, String> emailsById = new ConcurrentHashMap<>();
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    private AuthorDirectory() {
+    }
+
+    /**
+     * Gets the singleton instance of AuthorDirectory.
+     * @return AuthorDirectory instance
+     */
+    public static synchronized AuthorDirectory getInstance() {
+        if (instance == null) {
+            instance = new AuthorDirectory();
+        }
+        return instance;
+    }
+
+    /**
+     * Records the email of a newly created user.
+     * @param userId User ID
+     * @param email User email
+     */
+    public void register(int userId, String email) {
+        if (email != null) {
+            emailsById.put(userId, email);
+        }
+    }
+
+    /**
+     * Gets the email of a message author, using the caller's connection to load what is missing.
+     * @param userId User ID
+     * @param conn Open connection the caller is already reading on
+     * @return Author email, or null if the user does not exist
+     * @throws SQLException if loading fails
+     */
+    String resolve(int userId, Connection conn) throws SQLException {
+        if (!loaded) {
+            loadAll(conn);
+        }
+        String email = emailsById.get(userId);
+        if (email == null) {
+            email = loadOne(userId, conn);
+        }
+        return email;
+    }
+
+    /**
+     * Gets the email of a message author, borrowing a read connection only if it is not known yet.
+     * @param userId User ID
+     * @return Author email, or null if the user does not exist
+     * @throws DatabaseException if loading fails
+     */
+    public String resolve(int userId) throws DatabaseException {
+        String email = loaded ? emailsById.get(userId) : null;
+        if (email != null) {
+            return email;
+        }
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            return resolve(userId, conn);
+        } catch (SQLException e) {
+            System.err.println("Failed to resolve message author");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to resolve message author", e);
+        }
+    }
+
+    public int size() {
+        return emailsById.size();
+    }
+
+    private void loadAll(Connection conn) throws SQLException {
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id, email FROM users");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    emailsById.putIfAbsent(rs.getInt("id"), rs.getString("email"));
+                }
+            }
+            loaded = true;
+            System.out.println("Author directory loaded with " + emailsById.size() + " users");
+        }
+    }
+
+    private String loadOne(int userId, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT email FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                String email = rs.getString("email");
+                String existing = emailsById.putIfAbsent(userId, email);
+                return existing != null ? existing : email;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package main.java.com.socialmedia.dao;
 import main.java.com.socialmedia.database.DatabaseManager;
 import com.socialmedia.exception.DatabaseException;
 import  main.java.com.socialmedia.model.Channel;
+import main.java.com.socialmedia.model.ChannelSummary;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -27,13 +28,14 @@ public class ChannelDAO {
      * @throws DatabaseException if database operation fails
      */
     public Channel createChannel(Channel channel) throws DatabaseException {
-        String sql = "INSERT INTO channels (name, description) VALUES (?, ?)";
+        String sql = "INSERT INTO channels (name, description, created_at) VALUES (?, ?, ?)";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getWriteConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, channel.getName());
             stmt.setString(2, channel.getDescription());
+            stmt.setLong(3, channel.getCreatedAtMillis());
 
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected == 0) {
@@ -65,7 +67,7 @@ public class ChannelDAO {
     public Optional<Channel> findChannelByName(String name) throws DatabaseException {
         String sql = "SELECT id, name, description, created_at FROM channels WHERE name = ?";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, name);
@@ -76,7 +78,7 @@ public class ChannelDAO {
                     channel.setId(rs.getInt("id"));
                     channel.setName(rs.getString("name"));
                     channel.setDescription(rs.getString("description"));
-                    channel.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    channel.setCreatedAtMillis(rs.getLong("created_at"));
                     return Optional.of(channel);
                 }
             }
@@ -99,7 +101,7 @@ public class ChannelDAO {
         String sql = "SELECT id, name, description, created_at FROM channels ORDER BY name";
         List<Channel> channels = new ArrayList<>();
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -108,7 +110,7 @@ public class ChannelDAO {
                 channel.setId(rs.getInt("id"));
                 channel.setName(rs.getString("name"));
                 channel.setDescription(rs.getString("description"));
-                channel.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                channel.setCreatedAtMillis(rs.getLong("created_at"));
                 channels.add(channel);
             }
 
@@ -121,22 +123,69 @@ public class ChannelDAO {
         return channels;
     }
 
+    /**
+     * Gets all channels with the user's subscription flag and each channel's subscriber count
+     * in a single query.
+     * @param userId User ID whose subscription state is reported
+     * @return Channel summaries ordered by name
+     * @throws DatabaseException if database operation fails
+     */
+    public List<ChannelSummary> getChannelDirectory(int userId) throws DatabaseException {
+        String sql = """
+            SELECT c.id, c.name, c.description, c.created_at,
+                   COUNT(s.user_id) AS subscriber_count,
+                   COALESCE(MAX(s.user_id = ?), 0) AS subscribed
+            FROM channels c
+            LEFT JOIN subscriptions s ON s.channel_id = c.id
+            GROUP BY c.id
+            ORDER BY c.name
+        """;
+        List<ChannelSummary> directory = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Channel channel = new Channel();
+                    channel.setId(rs.getInt("id"));
+                    channel.setName(rs.getString("name"));
+                    channel.setDescription(rs.getString("description"));
+                    channel.setCreatedAtMillis(rs.getLong("created_at"));
+                    directory.add(new ChannelSummary(channel, rs.getInt("subscribed") > 0, rs.getInt("subscriber_count")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get channel directory");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get channel directory", e);
+        }
+
+        return directory;
+    }
+
     /**
      * Subscribes a user to a channel.
      * @param userId User ID
      * @param channelId Channel ID
+     * @param onCommitted Run after the insert commits, while the single writer connection is still
+     *                    held, so in-memory copies are updated in the same order as the table
      * @throws DatabaseException if database operation fails
      */
-    public void subscribeUser(int userId, int channelId) throws DatabaseException {
+    public void subscribeUser(int userId, int channelId, Runnable onCommitted) throws DatabaseException {
         String sql = "INSERT OR IGNORE INTO subscriptions (user_id, channel_id) VALUES (?, ?)";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getWriteConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             stmt.setInt(2, channelId);
 
             stmt.executeUpdate();
+            onCommitted.run();
             System.out.println("User " + userId + " subscribed to channel " + channelId);
 
         } catch (SQLException e) {
@@ -150,18 +199,20 @@ public class ChannelDAO {
      * Unsubscribes a user from a channel.
      * @param userId User ID
      * @param channelId Channel ID
+     * @param onCommitted Run after the delete commits, while the single writer connection is still held
      * @throws DatabaseException if database operation fails
      */
-    public void unsubscribeUser(int userId, int channelId) throws DatabaseException {
+    public void unsubscribeUser(int userId, int channelId, Runnable onCommitted) throws DatabaseException {
         String sql = "DELETE FROM subscriptions WHERE user_id = ? AND channel_id = ?";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getWriteConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             stmt.setInt(2, channelId);
 
             stmt.executeUpdate();
+            onCommitted.run();
             System.out.println("User " + userId + " unsubscribed from channel " + channelId);
 
         } catch (SQLException e) {
@@ -171,6 +222,97 @@ public class ChannelDAO {
         }
     }
 
+    /**
+     * Gets the IDs of the channels a user is subscribed to.
+     * @param userId User ID
+     * @return Channel IDs in ascending order
+     * @throws DatabaseException if database operation fails
+     */
+    public List<Integer> getSubscribedChannelIds(int userId) throws DatabaseException {
+        String sql = "SELECT channel_id FROM subscriptions WHERE user_id = ? ORDER BY channel_id";
+        List<Integer> channelIds = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    channelIds.add(rs.getInt(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get subscribed channels");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get subscribed channels", e);
+        }
+
+        return channelIds;
+    }
+
+    /**
+     * Gets the IDs of a channel's subscribers.
+     * @param channelId Channel ID
+     * @return User IDs in ascending order
+     * @throws DatabaseException if database operation fails
+     */
+    public List<Integer> getSubscriberIds(int channelId) throws DatabaseException {
+        String sql = "SELECT user_id FROM subscriptions WHERE channel_id = ? ORDER BY user_id";
+        List<Integer> userIds = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, channelId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    userIds.add(rs.getInt(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get channel subscribers");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get channel subscribers", e);
+        }
+
+        return userIds;
+    }
+
+    /**
+     * Pushes every subscription to a callback as it is read, without materializing a list.
+     * @param handler Callback invoked once per subscription
+     * @return Number of subscriptions read
+     * @throws DatabaseException if database operation fails
+     */
+    public int forEachSubscription(SubscriptionHandler handler) throws DatabaseException {
+        String sql = "SELECT user_id, channel_id FROM subscriptions";
+        int count = 0;
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setFetchSize(1000);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getInt(1), rs.getInt(2));
+                    count++;
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to read subscriptions");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to read subscriptions", e);
+        }
+
+        return count;
+    }
+
     /**
      * Checks if a user is subscribed to a channel.
      * @param userId User ID
@@ -181,7 +323,7 @@ public class ChannelDAO {
     public boolean isUserSubscribed(int userId, int channelId) throws DatabaseException {
         String sql = "SELECT COUNT(*) FROM subscriptions WHERE user_id = ? AND channel_id = ?";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -201,4 +343,12 @@ public class ChannelDAO {
 
         return false;
     }
+
+    /**
+     * Receives subscriptions from {@link #forEachSubscription(SubscriptionHandler)}.
+     */
+    @FunctionalInterface
+    public interface SubscriptionHandler {
+        void accept(int userId, int channelId);
+    }
 }
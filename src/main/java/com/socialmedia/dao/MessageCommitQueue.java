@@ -0,0 +1,267 @@
+package main.java.com.socialmedia.dao;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.Message;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Single-writer group commit queue for message inserts.
+ * Concurrently submitted messages are collected for a short window and inserted in one transaction,
+ * so many posts share one fsync instead of paying one each.
+ */
+public class MessageCommitQueue {
+    private static MessageCommitQueue instance;
+
+    private static final String INSERT_SQL = "INSERT INTO messages (channel_id, user_id, content, created_at) VALUES (?, ?, ?, ?)";
+    private static final int MAX_BATCH_SIZE = Integer.getInteger("socialmedia.messages.groupCommit.maxBatch", 256);
+    private static final long MAX_DELAY_MICROS = Long.getLong("socialmedia.messages.groupCommit.maxDelayMicros", 500);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    // SQLite primary result codes that blame a row rather than the database
+    private static final int SQLITE_TOOBIG = 18;
+    private static final int SQLITE_CONSTRAINT = 19;
+    private static final int SQLITE_MISMATCH = 20;
+
+    private final DatabaseManager databaseManager;
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+    // Submitters hold the read lock so shutdown cannot slip in between the running check and the enqueue
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private MessageCommitQueue() {
+        this.databaseManager = DatabaseManager.getInstance();
+        this.writerThread = new Thread(this::runWriter, "message-commit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Gets the singleton instance of MessageCommitQueue.
+     * @return MessageCommitQueue instance
+     */
+    public static synchronized MessageCommitQueue getInstance() {
+        if (instance == null) {
+            instance = new MessageCommitQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a message for insertion. The future completes with the message, its ID set,
+     * once the transaction containing it has committed.
+     * @param message Message to insert
+     * @return Future for the committed message
+     * @throws DatabaseException if the queue has been shut down
+     */
+    public CompletableFuture<Message> submit(Message message) throws DatabaseException {
+        PendingWrite write = new PendingWrite(message);
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new DatabaseException("Message writer has been shut down");
+            }
+            pendingWrites.add(write);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        return write.future;
+    }
+
+    /**
+     * Stops accepting messages, commits everything already queued and stops the writer thread.
+     */
+    public void shutdown() {
+        stateLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            System.err.println("Message writer did not drain within " + SHUTDOWN_TIMEOUT_MS + " ms");
+        } else {
+            System.out.println("Message writer drained and stopped");
+        }
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                try {
+                    PendingWrite first = pendingWrites.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collectBatch(batch);
+                } catch (InterruptedException e) {
+                    // Shutdown is signalled through the running flag; commit what was already taken
+                }
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+            } catch (Throwable t) {
+                System.err.println("Unexpected error in message writer");
+                t.printStackTrace();
+                failAll(batch, new DatabaseException("Failed to create message", t));
+                if (t instanceof Error) {
+                    stopAfterError(t);
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // The writer cannot go on, so refuse new posts and fail queued ones instead of leaving them waiting
+    private void stopAfterError(Throwable cause) {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        List<PendingWrite> stranded = new ArrayList<>();
+        pendingWrites.drainTo(stranded);
+        failAll(stranded, new DatabaseException("Message writer stopped after an unexpected error", cause));
+    }
+
+    private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(MAX_DELAY_MICROS);
+        while (batch.size() < MAX_BATCH_SIZE) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                pendingWrites.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+                return;
+            }
+            PendingWrite next = pendingWrites.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        try (Connection conn = databaseManager.getWriteConnection()) {
+            try {
+                insertInTransaction(conn, batch);
+            } catch (DatabaseException | SQLException e) {
+                if (batch.size() == 1 || !isRowError(e)) {
+                    // A busy or failing database would fail every row again, each after its own wait
+                    failAll(batch, e);
+                    return;
+                }
+                // Retry one by one on the same connection so a single bad row does not fail every post
+                System.err.println("Batch insert of " + batch.size() + " messages failed, retrying individually");
+                for (PendingWrite write : batch) {
+                    try {
+                        insertInTransaction(conn, List.of(write));
+                        complete(write);
+                    } catch (DatabaseException | SQLException retryFailure) {
+                        fail(write, retryFailure);
+                    }
+                }
+                return;
+            }
+            for (PendingWrite write : batch) {
+                complete(write);
+            }
+        } catch (DatabaseException | SQLException e) {
+            // The writer connection could not be borrowed or returned; completed futures ignore this
+            failAll(batch, e);
+        }
+    }
+
+    // Only a constraint or data error on a working connection is worth retrying row by row
+    private static boolean isRowError(Exception e) {
+        if (e instanceof DatabaseException) {
+            // Thrown by insertInTransaction itself when a row was not inserted
+            return true;
+        }
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return true;
+        }
+        int resultCode = ((SQLException) e).getErrorCode() & 0xFF;
+        return resultCode == SQLITE_CONSTRAINT || resultCode == SQLITE_TOOBIG || resultCode == SQLITE_MISMATCH;
+    }
+
+    private void insertInTransaction(Connection conn, List<PendingWrite> batch) throws DatabaseException, SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (PendingWrite write : batch) {
+                Message message = write.message;
+                stmt.setInt(1, message.getChannelId());
+                stmt.setInt(2, message.getUserId());
+                stmt.setString(3, message.getContent());
+                stmt.setLong(4, message.getCreatedAtMillis());
+
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new DatabaseException("Failed to create message, no rows affected");
+                }
+
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        message.setId(rs.getInt(1));
+                    }
+                }
+            }
+            conn.commit();
+        } catch (DatabaseException | SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void complete(PendingWrite write) {
+        System.out.println("Message created successfully with ID: " + write.message.getId());
+        write.future.complete(write.message);
+    }
+
+    private void failAll(List<PendingWrite> batch, Exception cause) {
+        for (PendingWrite write : batch) {
+            fail(write, cause);
+        }
+    }
+
+    private void fail(PendingWrite write, Exception cause) {
+        System.err.println("Failed to create message");
+        cause.printStackTrace();
+        write.future.completeExceptionally(cause instanceof DatabaseException
+                ? cause
+                : new DatabaseException("Failed to create message", cause));
+    }
+
+    private static class PendingWrite {
+        private final Message message;
+        private final CompletableFuture<Message> future = new CompletableFuture<>();
+
+        PendingWrite(Message message) {
+            this.message = message;
+        }
+    }
+}
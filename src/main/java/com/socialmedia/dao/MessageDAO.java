@@ -2,60 +2,113 @@ package main.java.com.socialmedia.dao;
 
 import main.java.com.socialmedia.database.DatabaseManager;
 import com.socialmedia.exception.DatabaseException;
+import com.socialmedia.exception.UncheckedDatabaseException;
 import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.model.SearchCursor;
+import main.java.com.socialmedia.model.SearchHit;
+import main.java.com.socialmedia.model.SearchResults;
+import main.java.com.socialmedia.store.MessageStore;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object for Message operations.
- * Handles all database operations related to messages.
+ * Handles all database operations related to messages; the SQLite {@link MessageStore}.
  */
-public class MessageDAO {
+public class MessageDAO implements MessageStore {
+    private static final String CHANNEL_MESSAGES_SQL = """
+        SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at
+        FROM messages m
+        WHERE m.channel_id = ?
+        ORDER BY m.created_at DESC
+    """;
+
+    private static final String USER_MESSAGES_SQL = """
+        SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at
+        FROM messages m
+        JOIN subscriptions s ON m.channel_id = s.channel_id
+        WHERE s.user_id = ?
+        ORDER BY m.created_at DESC
+    """;
+
+    // Ordering by rank alone (bm25 by default) lets FTS5 sort the matches itself instead of a temp b-tree
+    private static final String SEARCH_SQL = """
+        SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at,
+               snippet(messages_fts, 0, char(2), char(3), '…', 16) AS snippet,
+               rank AS score
+        FROM messages_fts
+        JOIN messages m ON m.id = messages_fts.rowid
+        WHERE messages_fts MATCH ?
+        %s
+        ORDER BY rank
+        LIMIT ? OFFSET ?
+    """;
+
+    // Pull channels are excluded because their rows stop being written once they are marked
+    private static final String TIMELINE_SQL = """
+        SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at
+        FROM timelines t
+        JOIN messages m ON m.id = t.message_id
+        WHERE t.user_id = ?
+          AND t.created_at >= ?
+          AND (t.created_at < ? OR (t.created_at = ? AND t.message_id < ?))
+          AND t.channel_id NOT IN (SELECT channel_id FROM pull_channels)
+        ORDER BY t.created_at DESC, t.message_id DESC
+        LIMIT ?
+    """;
+
     private final DatabaseManager databaseManager;
+    private final MessageCommitQueue commitQueue;
+    private final AuthorDirectory authorDirectory;
 
     public MessageDAO() {
         this.databaseManager = DatabaseManager.getInstance();
+        this.commitQueue = MessageCommitQueue.getInstance();
+        this.authorDirectory = AuthorDirectory.getInstance();
     }
 
     /**
      * Creates a new message in the database.
+     * Inserts go through the shared group commit queue and this call returns once the message is committed.
      * @param message Message to create
      * @return Created message with ID
      * @throws DatabaseException if database operation fails
      */
     public Message createMessage(Message message) throws DatabaseException {
-        String sql = "INSERT INTO messages (channel_id, user_id, content) VALUES (?, ?, ?)";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setInt(1, message.getChannelId());
-            stmt.setInt(2, message.getUserId());
-            stmt.setString(3, message.getContent());
-
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new DatabaseException("Failed to create message, no rows affected");
+        try {
+            return createMessageAsync(message).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for message to be saved", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseException) {
+                throw (DatabaseException) e.getCause();
             }
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    message.setId(rs.getInt(1));
-                }
-            }
-
-            System.out.println("Message created successfully with ID: " + message.getId());
-            return message;
-
-        } catch (SQLException e) {
-            System.err.println("Failed to create message");
-            e.printStackTrace();
-            throw new DatabaseException("Failed to create message", e);
+            throw new DatabaseException("Failed to create message", e.getCause());
         }
     }
 
+    /**
+     * Queues a message for insertion without waiting for the commit.
+     * @param message Message to create
+     * @return Future completed with the message, ID set, once it is committed
+     * @throws DatabaseException if the message writer has been shut down
+     */
+    public CompletableFuture<Message> createMessageAsync(Message message) throws DatabaseException {
+        return commitQueue.submit(message);
+    }
+
     /**
      * Gets all messages for a channel.
      * @param channelId Channel ID
@@ -63,31 +116,16 @@ public class MessageDAO {
      * @throws DatabaseException if database operation fails
      */
     public List<Message> getMessagesForChannel(int channelId) throws DatabaseException {
-        String sql = """
-            SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at, u.email
-            FROM messages m
-            JOIN users u ON m.user_id = u.id
-            WHERE m.channel_id = ?
-            ORDER BY m.created_at DESC
-        """;
-
         List<Message> messages = new ArrayList<>();
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(CHANNEL_MESSAGES_SQL)) {
 
             stmt.setInt(1, channelId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Message message = new Message();
-                    message.setId(rs.getInt("id"));
-                    message.setChannelId(rs.getInt("channel_id"));
-                    message.setUserId(rs.getInt("user_id"));
-                    message.setContent(rs.getString("content"));
-                    message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    message.setUserEmail(rs.getString("email"));
-                    messages.add(message);
+                    messages.add(mapMessage(rs, conn));
                 }
             }
 
@@ -107,41 +145,341 @@ public class MessageDAO {
      * @throws DatabaseException if database operation fails
      */
     public List<Message> getMessagesForUser(int userId) throws DatabaseException {
+        List<Message> messages = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(USER_MESSAGES_SQL)) {
+
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(mapMessage(rs, conn));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get messages for user");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get messages for user", e);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Streams all messages for a channel, newest first, reading rows as the stream is consumed.
+     * The stream holds a read connection until it is closed, so use it in try-with-resources.
+     * @param channelId Channel ID
+     * @param fetchSize Rows the driver fetches per round trip
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForChannel(int channelId, int fetchSize) throws DatabaseException {
+        return streamMessages(CHANNEL_MESSAGES_SQL, channelId, fetchSize, "Failed to stream messages for channel");
+    }
+
+    /**
+     * Streams all messages for channels that a user is subscribed to, newest first.
+     * The stream holds a read connection until it is closed, so use it in try-with-resources.
+     * @param userId User ID
+     * @param fetchSize Rows the driver fetches per round trip
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForUser(int userId, int fetchSize) throws DatabaseException {
+        return streamMessages(USER_MESSAGES_SQL, userId, fetchSize, "Failed to stream messages for user");
+    }
+
+    /**
+     * Pushes every message for a channel to a callback as rows are read, newest first.
+     * @param channelId Channel ID
+     * @param fetchSize Rows the driver fetches per round trip
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if database operation fails
+     */
+    public long forEachMessageForChannel(int channelId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return forEachMessage(CHANNEL_MESSAGES_SQL, channelId, fetchSize, handler, "Failed to read messages for channel");
+    }
+
+    /**
+     * Pushes every message for a user's subscribed channels to a callback as rows are read, newest first.
+     * @param userId User ID
+     * @param fetchSize Rows the driver fetches per round trip
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if database operation fails
+     */
+    public long forEachMessageForUser(int userId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return forEachMessage(USER_MESSAGES_SQL, userId, fetchSize, handler, "Failed to read messages for user");
+    }
+
+    /**
+     * Gets the newest messages of a channel.
+     * @param channelId Channel ID
+     * @param limit Maximum number of messages
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getLatestMessagesForChannel(int channelId, int limit) throws DatabaseException {
         String sql = """
-            SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at, u.email
+            SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at
             FROM messages m
-            JOIN users u ON m.user_id = u.id
-            JOIN subscriptions s ON m.channel_id = s.channel_id
-            WHERE s.user_id = ?
-            ORDER BY m.created_at DESC
+            WHERE m.channel_id = ?
+            ORDER BY m.created_at DESC, m.id DESC
+            LIMIT ?
         """;
 
-        List<Message> messages = new ArrayList<>();
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, channelId);
+            stmt.setInt(2, limit + 1);
+            return readPage(conn, stmt, limit);
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get latest messages for channel");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get latest messages for channel", e);
+        }
+    }
 
-        try (Connection conn = databaseManager.getConnection();
+    /**
+     * Gets the messages of a channel that are older than a cursor.
+     * @param channelId Channel ID
+     * @param before Cursor of the oldest message already loaded
+     * @param limit Maximum number of messages
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getMessagesBeforeForChannel(int channelId, MessageCursor before, int limit) throws DatabaseException {
+        String sql = """
+            SELECT m.id, m.channel_id, m.user_id, m.content, m.created_at
+            FROM messages m
+            WHERE m.channel_id = ?
+              AND (m.created_at < ? OR (m.created_at = ? AND m.id < ?))
+            ORDER BY m.created_at DESC, m.id DESC
+            LIMIT ?
+        """;
+
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            stmt.setInt(1, channelId);
+            stmt.setLong(2, before.getCreatedAtMillis());
+            stmt.setLong(3, before.getCreatedAtMillis());
+            stmt.setInt(4, before.getId());
+            stmt.setInt(5, limit + 1);
+            return readPage(conn, stmt, limit);
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get older messages for channel");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get older messages for channel", e);
+        }
+    }
+
+    /**
+     * Gets a page of a user's materialized timeline.
+     * @param userId User ID
+     * @param since Oldest creation time to read, in epoch milliseconds
+     * @param before Cursor of the oldest message already loaded, or null for the newest page
+     * @param limit Maximum number of messages
+     * @return Page of messages, newest first; hasMore refers to timeline rows no older than since
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getTimelinePage(int userId, long since, MessageCursor before, int limit) throws DatabaseException {
+        long beforeMillis = before != null ? before.getCreatedAtMillis() : Long.MAX_VALUE;
+        int beforeId = before != null ? before.getId() : Integer.MAX_VALUE;
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(TIMELINE_SQL)) {
+
             stmt.setInt(1, userId);
+            stmt.setLong(2, since);
+            stmt.setLong(3, beforeMillis);
+            stmt.setLong(4, beforeMillis);
+            stmt.setInt(5, beforeId);
+            stmt.setInt(6, limit + 1);
+            return readPage(conn, stmt, limit);
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get timeline for user");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get timeline for user", e);
+        }
+    }
+
+    /**
+     * Runs a full-text search over message content.
+     * @param terms Search terms; every term must match and the last also matches as a prefix
+     * @param channelId Channel to search in, or null for all channels
+     * @param limit Maximum number of hits
+     * @param cursor Position to continue from, or null for the first page
+     * @return Hits, most relevant first
+     * @throws DatabaseException if database operation fails
+     */
+    public SearchResults searchMessages(List<String> terms, Integer channelId, int limit, SearchCursor cursor)
+            throws DatabaseException {
+        String ftsQuery = toFtsQuery(terms);
+        String sql = SEARCH_SQL.formatted(channelId != null ? "AND m.channel_id = ?" : "");
+        int offset = cursor != null ? cursor.getOffset() : 0;
 
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setString(index++, ftsQuery);
+            if (channelId != null) {
+                stmt.setInt(index++, channelId);
+            }
+            stmt.setInt(index++, limit + 1);
+            stmt.setInt(index, offset);
+
+            List<SearchHit> hits = new ArrayList<>(limit);
+            boolean hasMore = false;
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Message message = new Message();
-                    message.setId(rs.getInt("id"));
-                    message.setChannelId(rs.getInt("channel_id"));
-                    message.setUserId(rs.getInt("user_id"));
-                    message.setContent(rs.getString("content"));
-                    message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    message.setUserEmail(rs.getString("email"));
-                    messages.add(message);
+                    if (hits.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    hits.add(new SearchHit(mapMessage(rs, conn), rs.getString("snippet"), rs.getDouble("score")));
                 }
             }
+            return new SearchResults(hits, hasMore ? new SearchCursor(offset + limit) : null);
 
         } catch (SQLException e) {
-            System.err.println("Failed to get messages for user");
+            System.err.println("Failed to search messages");
             e.printStackTrace();
-            throw new DatabaseException("Failed to get messages for user", e);
+            throw new DatabaseException("Failed to search messages", e);
         }
+    }
 
-        return messages;
+    // Terms are quoted one by one so FTS5 operators and punctuation in them are never interpreted
+    private static String toFtsQuery(List<String> terms) {
+        StringBuilder ftsQuery = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (ftsQuery.length() > 0) {
+                ftsQuery.append(' ');
+            }
+            ftsQuery.append('"').append(terms.get(i).replace("\"", "\"\"")).append('"');
+            if (i == terms.size() - 1) {
+                ftsQuery.append('*');
+            }
+        }
+        return ftsQuery.toString();
+    }
+
+    private long forEachMessage(String sql, int key, int fetchSize, Consumer<Message> handler, String errorMessage)
+            throws DatabaseException {
+        long count = 0;
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, key);
+            stmt.setFetchSize(fetchSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(mapMessage(rs, conn));
+                    count++;
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println(errorMessage);
+            e.printStackTrace();
+            throw new DatabaseException(errorMessage, e);
+        }
+
+        return count;
+    }
+
+    private Stream<Message> streamMessages(String sql, int key, int fetchSize, String errorMessage) throws DatabaseException {
+        Connection conn = databaseManager.getReadConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, key);
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(stmt, conn);
+            System.err.println(errorMessage);
+            e.printStackTrace();
+            throw new DatabaseException(errorMessage, e);
+        }
+
+        PreparedStatement openStmt = stmt;
+        Spliterator<Message> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Message> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapMessage(rs, conn));
+                    return true;
+                } catch (SQLException e) {
+                    throw new UncheckedDatabaseException(new DatabaseException(errorMessage, e));
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close streamed result set: " + e.getMessage());
+            }
+            closeQuietly(openStmt, conn);
+        });
+    }
+
+    private static void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to close statement: " + e.getMessage());
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close connection: " + e.getMessage());
+        }
+    }
+
+    // Reads up to limit rows; the query asks for one extra row to learn whether more exist
+    private MessagePage readPage(Connection conn, PreparedStatement stmt, int limit) throws SQLException {
+        List<Message> messages = new ArrayList<>(limit);
+        boolean hasMore = false;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (messages.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                messages.add(mapMessage(rs, conn));
+            }
+        }
+        return new MessagePage(messages, hasMore);
+    }
+
+    private Message mapMessage(ResultSet rs, Connection conn) throws SQLException {
+        Message message = new Message();
+        message.setId(rs.getInt("id"));
+        message.setChannelId(rs.getInt("channel_id"));
+        message.setUserId(rs.getInt("user_id"));
+        message.setContent(rs.getString("content"));
+        message.setCreatedAtMillis(rs.getLong("created_at"));
+        message.setUserEmail(authorDirectory.resolve(message.getUserId(), conn));
+        return message;
     }
 }
@@ -0,0 +1,307 @@
+package main.java.com.socialmedia.dao;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.Message;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data Access Object for the materialized timelines written by fan-out on post.
+ * Reads of timeline pages live in {@link MessageDAO#getTimelinePage}.
+ */
+public class TimelineDAO {
+    private static final String FAN_OUT_SQL =
+            "INSERT OR IGNORE INTO timelines (user_id, created_at, message_id, channel_id) VALUES (?, ?, ?, ?)";
+
+    private static final String BACKFILL_USER_SQL = """
+        INSERT OR IGNORE INTO timelines (user_id, created_at, message_id, channel_id)
+        SELECT s.user_id, m.created_at, m.id, m.channel_id
+        FROM subscriptions s
+        JOIN messages m ON m.channel_id = s.channel_id
+        WHERE s.user_id = ?
+          AND m.created_at >= ?
+          AND s.channel_id NOT IN (SELECT channel_id FROM pull_channels)
+    """;
+
+    private static final String BACKFILL_CHANNEL_SQL = """
+        INSERT OR IGNORE INTO timelines (user_id, created_at, message_id, channel_id)
+        SELECT ?, m.created_at, m.id, m.channel_id
+        FROM messages m
+        WHERE m.channel_id = ?
+          AND m.created_at >= ?
+          AND m.channel_id NOT IN (SELECT channel_id FROM pull_channels)
+    """;
+
+    private static final String MARK_FANNED_OUT_SQL = """
+        INSERT INTO fanout_state (id, fanned_out_through) VALUES (1, ?)
+        ON CONFLICT(id) DO UPDATE SET fanned_out_through = MAX(fanned_out_through, excluded.fanned_out_through)
+    """;
+
+    private final DatabaseManager databaseManager;
+
+    public TimelineDAO() {
+        this.databaseManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Appends committed messages to the timelines of their channels' subscribers in one transaction.
+     * Channels with more subscribers than the threshold are marked as pull channels and skipped.
+     * Subscribers are looked up while the write connection is held, so an unsubscribe that is
+     * still between its delete and its timeline cleanup is cleaned up after this batch.
+     * The fan-out watermark is advanced in the same transaction.
+     * @param messages Committed messages with IDs set
+     * @param subscribers Source of each channel's subscriber IDs
+     * @param maxSubscribers Largest channel that is still fanned out
+     * @param fannedOutThrough Creation time up to which every committed message is now fanned out
+     * @return Number of timeline rows written
+     * @throws DatabaseException if database operation fails
+     */
+    public int fanOut(List<Message> messages, SubscriberLookup subscribers, int maxSubscribers,
+                      long fannedOutThrough) throws DatabaseException {
+        int rows = 0;
+
+        try (Connection conn = databaseManager.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement isPull = conn.prepareStatement("SELECT 1 FROM pull_channels WHERE channel_id = ?");
+                 PreparedStatement markPull = conn.prepareStatement(
+                         "INSERT OR IGNORE INTO pull_channels (channel_id) VALUES (?)");
+                 PreparedStatement insert = conn.prepareStatement(FAN_OUT_SQL);
+                 PreparedStatement mark = conn.prepareStatement(MARK_FANNED_OUT_SQL)) {
+
+                Map<Integer, int[]> subscribersByChannel = new HashMap<>();
+                for (Message message : messages) {
+                    int channelId = message.getChannelId();
+                    if (exists(isPull, channelId)) {
+                        continue;
+                    }
+                    int[] targets = subscribersByChannel.get(channelId);
+                    if (targets == null) {
+                        targets = subscribers.getSubscriberIds(channelId);
+                        subscribersByChannel.put(channelId, targets);
+                    }
+                    if (targets.length > maxSubscribers) {
+                        markPull.setInt(1, channelId);
+                        markPull.executeUpdate();
+                        System.out.println("Channel " + channelId + " switched to pull timelines");
+                        continue;
+                    }
+                    for (int userId : targets) {
+                        insert.setInt(1, userId);
+                        insert.setLong(2, message.getCreatedAtMillis());
+                        insert.setInt(3, message.getId());
+                        insert.setInt(4, channelId);
+                        insert.addBatch();
+                    }
+                    for (int updated : insert.executeBatch()) {
+                        rows += Math.max(updated, 0);
+                    }
+                }
+                mark.setLong(1, fannedOutThrough);
+                mark.executeUpdate();
+                conn.commit();
+            } catch (SQLException | DatabaseException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to fan out messages");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to fan out messages", e);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Gets the time from which a user's timeline is complete.
+     * @param userId User ID
+     * @return Epoch milliseconds, or null if the timeline has never been built
+     * @throws DatabaseException if database operation fails
+     */
+    public Long getCompleteSince(int userId) throws DatabaseException {
+        String sql = "SELECT complete_since FROM timeline_users WHERE user_id = ?";
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get timeline state");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get timeline state", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the creation time up to which every committed message has been fanned out.
+     * @return Epoch milliseconds, or null if nothing has been fanned out yet
+     * @throws DatabaseException if database operation fails
+     */
+    public Long getFannedOutThrough() throws DatabaseException {
+        String sql = "SELECT fanned_out_through FROM fanout_state WHERE id = 1";
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get fan-out progress");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get fan-out progress", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Copies every message of a user's push channels since a time into the user's timeline
+     * and records the timeline as complete from {@code completeSince} on, unless it already is.
+     * Safe to repeat.
+     * @param userId User ID
+     * @param completeSince Time the timeline is complete from, in epoch milliseconds
+     * @param since Oldest creation time to copy, no earlier than {@code completeSince}
+     * @return Number of timeline rows written
+     * @throws DatabaseException if database operation fails
+     */
+    public int materialize(int userId, long completeSince, long since) throws DatabaseException {
+        try (Connection conn = databaseManager.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement backfill = conn.prepareStatement(BACKFILL_USER_SQL);
+                 PreparedStatement mark = conn.prepareStatement(
+                         "INSERT OR IGNORE INTO timeline_users (user_id, complete_since) VALUES (?, ?)")) {
+
+                backfill.setInt(1, userId);
+                backfill.setLong(2, since);
+                int rows = backfill.executeUpdate();
+
+                mark.setInt(1, userId);
+                mark.setLong(2, completeSince);
+                mark.executeUpdate();
+
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to build timeline for user");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to build timeline for user", e);
+        }
+    }
+
+    /**
+     * Copies a channel's messages since a time into one user's timeline, after the user subscribes.
+     * Does nothing for pull channels.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @param since Oldest creation time to copy, in epoch milliseconds
+     * @return Number of timeline rows written
+     * @throws DatabaseException if database operation fails
+     */
+    public int backfillChannel(int userId, int channelId, long since) throws DatabaseException {
+        try (Connection conn = databaseManager.getWriteConnection();
+             PreparedStatement stmt = conn.prepareStatement(BACKFILL_CHANNEL_SQL)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, channelId);
+            stmt.setLong(3, since);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Failed to backfill timeline");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to backfill timeline", e);
+        }
+    }
+
+    /**
+     * Removes a channel's messages from one user's timeline, after the user unsubscribes.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @return Number of timeline rows removed
+     * @throws DatabaseException if database operation fails
+     */
+    public int removeChannel(int userId, int channelId) throws DatabaseException {
+        String sql = "DELETE FROM timelines WHERE user_id = ? AND channel_id = ?";
+
+        try (Connection conn = databaseManager.getWriteConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, channelId);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Failed to remove channel from timeline");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to remove channel from timeline", e);
+        }
+    }
+
+    /**
+     * Gets the channels that are read on demand instead of fanned out.
+     * @return Pull channel IDs
+     * @throws DatabaseException if database operation fails
+     */
+    public Set<Integer> getPullChannelIds() throws DatabaseException {
+        Set<Integer> channelIds = new HashSet<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT channel_id FROM pull_channels");
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                channelIds.add(rs.getInt(1));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get pull channels");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get pull channels", e);
+        }
+
+        return channelIds;
+    }
+
+    private static boolean exists(PreparedStatement stmt, int key) throws SQLException {
+        stmt.setInt(1, key);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Supplies fan-out targets to {@link #fanOut(List, SubscriberLookup, int, long)}.
+     */
+    @FunctionalInterface
+    public interface SubscriberLookup {
+        int[] getSubscriberIds(int channelId) throws DatabaseException;
+    }
+}
@@ -1,11 +1,14 @@
 package main.java.com.socialmedia.dao;
 
+import main.java.com.socialmedia.cache.UserCache;
 import main.java.com.socialmedia.database.DatabaseManager;
 import com.socialmedia.exception.DatabaseException;
 import main.java.com.socialmedia.exception.UserAlreadyExistsException;
 import main.java.com.socialmedia.model.User;
 
 import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,9 +17,13 @@ import java.util.Optional;
  */
 public class UserDAO {
     private final DatabaseManager databaseManager;
+    private final UserCache userCache;
+    private final AuthorDirectory authorDirectory;
 
     public UserDAO() {
         this.databaseManager = DatabaseManager.getInstance();
+        this.userCache = UserCache.getInstance();
+        this.authorDirectory = AuthorDirectory.getInstance();
     }
 
     /**
@@ -27,13 +34,14 @@ public class UserDAO {
      * @throws DatabaseException if database operation fails
      */
     public User createUser(User user) throws UserAlreadyExistsException, DatabaseException {
-        String sql = "INSERT INTO users (email, password) VALUES (?, ?)";
+        String sql = "INSERT INTO users (email, password, created_at) VALUES (?, ?, ?)";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getWriteConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, user.getEmail());
             stmt.setString(2, user.getPassword());
+            stmt.setLong(3, user.getCreatedAtMillis());
 
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected == 0) {
@@ -46,6 +54,8 @@ public class UserDAO {
                 }
             }
 
+            userCache.put(user);
+            authorDirectory.register(user.getId(), user.getEmail());
             System.out.println("User created successfully with ID: " + user.getId());
             return user;
 
@@ -66,9 +76,14 @@ public class UserDAO {
      * @throws DatabaseException if database operation fails
      */
     public Optional<User> findUserByEmail(String email) throws DatabaseException {
+        User cached = userCache.getByEmail(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         String sql = "SELECT id, email, password, created_at FROM users WHERE email = ?";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
@@ -79,7 +94,8 @@ public class UserDAO {
                     user.setId(rs.getInt("id"));
                     user.setEmail(rs.getString("email"));
                     user.setPassword(rs.getString("password"));
-                    user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    user.setCreatedAtMillis(rs.getLong("created_at"));
+                    userCache.put(user);
                     return Optional.of(user);
                 }
             }
@@ -100,9 +116,14 @@ public class UserDAO {
      * @throws DatabaseException if database operation fails
      */
     public Optional<User> findUserById(int id) throws DatabaseException {
+        User cached = userCache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         String sql = "SELECT id, email, password, created_at FROM users WHERE id = ?";
 
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -113,7 +134,8 @@ public class UserDAO {
                     user.setId(rs.getInt("id"));
                     user.setEmail(rs.getString("email"));
                     user.setPassword(rs.getString("password"));
-                    user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    user.setCreatedAtMillis(rs.getLong("created_at"));
+                    userCache.put(user);
                     return Optional.of(user);
                 }
             }
@@ -127,6 +149,32 @@ public class UserDAO {
         return Optional.empty();
     }
 
+    /**
+     * Gets the email of every user.
+     * @return Map of user ID to email, ordered by ID
+     * @throws DatabaseException if database operation fails
+     */
+    public Map<Integer, String> getUserEmails() throws DatabaseException {
+        String sql = "SELECT id, email FROM users ORDER BY id";
+        Map<Integer, String> emails = new LinkedHashMap<>();
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                emails.put(rs.getInt("id"), rs.getString("email"));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to get user emails");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get user emails", e);
+        }
+
+        return emails;
+    }
+
     /**
      * Checks if a user exists by email.
      * @param email User's email
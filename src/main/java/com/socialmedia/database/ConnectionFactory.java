@@ -0,0 +1,17 @@
+package main.java.com.socialmedia.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Creates physical database connections for a {@link ConnectionPool}.
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+    /**
+     * Opens a new physical connection.
+     * @return Newly opened connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    Connection createConnection() throws SQLException;
+}
@@ -0,0 +1,243 @@
+package main.java.com.socialmedia.database;
+
+import com.socialmedia.exception.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of reusable JDBC connections.
+ * Validates connections on borrow, times out waiting borrowers and reports connections held for too long.
+ */
+public class ConnectionPool {
+    private final String name;
+    private final ConnectionFactory connectionFactory;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final ScheduledExecutorService leakDetector;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a connection pool. Connections are opened lazily on first borrow.
+     * @param name Pool name used in logs and stats
+     * @param connectionFactory Factory for physical connections
+     * @param maxSize Maximum number of open connections
+     * @param borrowTimeoutMillis How long a borrower waits for a free connection
+     * @param leakThresholdMillis How long a connection may be held before it is reported, 0 to disable
+     * @param validationTimeoutSeconds Timeout for the validation check on borrow
+     * @param statementCacheSize Prepared statements cached per connection, 0 to disable
+     */
+    public ConnectionPool(String name, ConnectionFactory connectionFactory, int maxSize,
+                          long borrowTimeoutMillis, long leakThresholdMillis, int validationTimeoutSeconds,
+                          int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        if (leakThresholdMillis > 0) {
+            this.leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, name + "-leak-detector");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1000, leakThresholdMillis / 2);
+            leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.leakDetector = null;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the returned connection gives it back.
+     * @return Pooled connection
+     * @throws DatabaseException if no connection becomes available in time or one cannot be opened
+     */
+    public Connection borrow() throws DatabaseException {
+        if (closed) {
+            throw new DatabaseException("Connection pool '" + name + "' has been shut down");
+        }
+
+        boolean acquired;
+        waitingThreads.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new DatabaseException("Timed out after " + borrowTimeoutMillis +
+                    " ms waiting for a database connection: " + getStats());
+        }
+
+        try {
+            PooledConnection pooledConnection = takeIdleConnection();
+            if (pooledConnection == null) {
+                pooledConnection = openConnection();
+            }
+            activeConnections.add(pooledConnection);
+            borrowCount.incrementAndGet();
+            return pooledConnection.lease();
+        } catch (SQLException e) {
+            permits.release();
+            System.err.println("Failed to open pooled database connection");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to get database connection", e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a connection to the pool. Called when the borrowed proxy is closed.
+     * @param pooledConnection Connection being returned
+     */
+    void release(PooledConnection pooledConnection) {
+        if (!activeConnections.remove(pooledConnection)) {
+            return;
+        }
+        pooledConnection.clearLease();
+
+        boolean reusable = !closed && resetConnection(pooledConnection);
+        if (reusable) {
+            idleConnections.offerFirst(pooledConnection);
+        } else {
+            discard(pooledConnection);
+        }
+        permits.release();
+    }
+
+    /**
+     * Gets a snapshot of pool occupancy and counters.
+     * @return Pool statistics
+     */
+    public PoolStats getStats() {
+        return new PoolStats(name, maxSize, totalConnections.get(), activeConnections.size(),
+                idleConnections.size(), waitingThreads.get(), borrowCount.get(), timeoutCount.get(),
+                createdCount.get(), discardedCount.get(), leakCount.get(),
+                statementCounters.hits.get(), statementCounters.misses.get(), statementCounters.evictions.get());
+    }
+
+    /**
+     * Closes all idle connections and rejects further borrows.
+     * Connections still in use are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            discard(pooledConnection);
+        }
+        System.out.println("Connection pool '" + name + "' shut down: " + getStats());
+    }
+
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            if (pooledConnection.isUsable(validationTimeoutSeconds)) {
+                return pooledConnection;
+            }
+            System.err.println("Discarding invalid connection from pool '" + name + "'");
+            discard(pooledConnection);
+        }
+        return null;
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection connection = connectionFactory.createConnection();
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(this, connection, statementCacheSize, statementCounters);
+    }
+
+    private boolean resetConnection(PooledConnection pooledConnection) {
+        Connection connection = pooledConnection.getPhysicalConnection();
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Failed to reset pooled connection: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pooledConnection) {
+        pooledConnection.closePhysically();
+        totalConnections.decrementAndGet();
+        discardedCount.incrementAndGet();
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooledConnection : activeConnections) {
+            long heldFor = now - pooledConnection.getBorrowedAt();
+            if (heldFor < leakThresholdMillis || pooledConnection.isLeakReported()) {
+                continue;
+            }
+            pooledConnection.markLeakReported();
+            leakCount.incrementAndGet();
+
+            Thread holder = pooledConnection.getBorrowingThread();
+            System.err.println("Possible connection leak in pool '" + name + "': connection held for " +
+                    heldFor + " ms by thread " + (holder != null ? holder.getName() : "unknown"));
+            if (holder != null && holder.isAlive()) {
+                for (StackTraceElement element : holder.getStackTrace()) {
+                    System.err.println("\tat " + element);
+                }
+            }
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.socialmedia.exception.DatabaseException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * Singleton class for managing database connections and initialization.
@@ -15,6 +14,18 @@ public class DatabaseManager {
     private static DatabaseManager instance;
     private static final String DB_URL = "jdbc:sqlite:social_media.db";
 
+    // Pool settings, overridable with -D system properties
+    private static final int READER_POOL_SIZE = Integer.getInteger("socialmedia.db.pool.size", 8);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("socialmedia.db.pool.borrowTimeoutMs", 5000);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("socialmedia.db.pool.leakThresholdMs", 30000);
+    private static final int VALIDATION_TIMEOUT_SECONDS = Integer.getInteger("socialmedia.db.pool.validationTimeoutSec", 2);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("socialmedia.db.statementCacheSize", 64);
+
+    private final PragmaProfile pragmaProfile;
+    // SQLite allows one writer at a time, so writes share a single connection instead of racing for the lock
+    private final ConnectionPool writerPool;
+    private final ConnectionPool readerPool;
+
     private DatabaseManager() {
         try {
             Class.forName("org.sqlite.JDBC");
@@ -23,6 +34,13 @@ public class DatabaseManager {
             e.printStackTrace();
             throw new RuntimeException("SQLite JDBC driver not found", e);
         }
+
+        this.pragmaProfile = PragmaProfile.fromSystemProperties();
+        this.writerPool = new ConnectionPool("sqlite-writer", () -> openConnection(true),
+                1, BORROW_TIMEOUT_MS, LEAK_THRESHOLD_MS, VALIDATION_TIMEOUT_SECONDS, STATEMENT_CACHE_SIZE);
+        this.readerPool = new ConnectionPool("sqlite-reader", () -> openConnection(false),
+                READER_POOL_SIZE, BORROW_TIMEOUT_MS, LEAK_THRESHOLD_MS, VALIDATION_TIMEOUT_SECONDS, STATEMENT_CACHE_SIZE);
+        System.out.println("Database configured with " + pragmaProfile);
     }
 
     /**
@@ -37,80 +55,79 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets a database connection.
+     * Gets a database connection that may write. Same as {@link #getWriteConnection()}.
      * @return Database connection
      * @throws DatabaseException if connection fails
      */
     public Connection getConnection() throws DatabaseException {
+        return getWriteConnection();
+    }
+
+    /**
+     * Gets the single writer connection. Closing it returns it to the pool.
+     * @return Database connection for inserts, updates and DDL
+     * @throws DatabaseException if connection fails
+     */
+    public Connection getWriteConnection() throws DatabaseException {
+        return writerPool.borrow();
+    }
+
+    /**
+     * Gets a read-only connection. In WAL mode readers never wait for the writer.
+     * @return Read-only database connection
+     * @throws DatabaseException if connection fails
+     */
+    public Connection getReadConnection() throws DatabaseException {
+        return readerPool.borrow();
+    }
+
+    /**
+     * Gets writer pool occupancy and counters.
+     * @return Pool statistics
+     */
+    public PoolStats getWriterPoolStats() {
+        return writerPool.getStats();
+    }
+
+    /**
+     * Gets reader pool occupancy and counters.
+     * @return Pool statistics
+     */
+    public PoolStats getReaderPoolStats() {
+        return readerPool.getStats();
+    }
+
+    public PragmaProfile getPragmaProfile() {
+        return pragmaProfile;
+    }
+
+    /**
+     * Closes pooled connections. Called on application exit.
+     */
+    public void shutdown() {
+        readerPool.shutdown();
+        writerPool.shutdown();
+    }
+
+    private Connection openConnection(boolean writer) throws SQLException {
+        Connection conn = DriverManager.getConnection(DB_URL);
         try {
-            return DriverManager.getConnection(DB_URL);
+            pragmaProfile.apply(conn, writer);
+            return conn;
         } catch (SQLException e) {
-            System.err.println("Failed to get database connection");
-            e.printStackTrace();
-            throw new DatabaseException("Failed to get database connection", e);
+            conn.close();
+            throw e;
         }
     }
 
     /**
-     * Initializes the database with required tables.
+     * Initializes the database by applying any pending schema migrations.
      * @throws DatabaseException if initialization fails
      */
     public void initializeDatabase() throws DatabaseException {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // Create users table
-            String createUsersTable = """
-                CREATE TABLE IF NOT EXISTS users (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    email TEXT UNIQUE NOT NULL,
-                    password TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """;
-            stmt.execute(createUsersTable);
-
-            // Create channels table
-            String createChannelsTable = """
-                CREATE TABLE IF NOT EXISTS channels (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    name TEXT UNIQUE NOT NULL,
-                    description TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """;
-            stmt.execute(createChannelsTable);
-
-            // Create messages table
-            String createMessagesTable = """
-                CREATE TABLE IF NOT EXISTS messages (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    channel_id INTEGER NOT NULL,
-                    user_id INTEGER NOT NULL,
-                    content TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (channel_id) REFERENCES channels(id),
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """;
-            stmt.execute(createMessagesTable);
-
-            // Create subscriptions table
-            String createSubscriptionsTable = """
-                CREATE TABLE IF NOT EXISTS subscriptions (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    user_id INTEGER NOT NULL,
-                    channel_id INTEGER NOT NULL,
-                    subscribed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (user_id) REFERENCES users(id),
-                    FOREIGN KEY (channel_id) REFERENCES channels(id),
-                    UNIQUE(user_id, channel_id)
-                )
-            """;
-            stmt.execute(createSubscriptionsTable);
-
+        try (Connection conn = getWriteConnection()) {
+            new SchemaMigrator(SchemaMigrations.all()).migrate(conn);
             System.out.println("Database initialized successfully");
-
         } catch (SQLException e) {
             System.err.println("Failed to initialize database");
             e.printStackTrace();
@@ -0,0 +1,52 @@
+package main.java.com.socialmedia.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * A single versioned schema change, applied once by {@link SchemaMigrator}.
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    /**
+     * Creates a migration.
+     * @param version Schema version this migration upgrades to
+     * @param description Short description for logs
+     * @param statements SQL statements to run, in order
+     */
+    public Migration(int version, String description, String... statements) {
+        if (version < 1) {
+            throw new IllegalArgumentException("Migration version must be positive");
+        }
+        this.version = version;
+        this.description = description;
+        this.statements = List.of(statements);
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+
+    /**
+     * Runs the migration statements on the given connection.
+     * The caller is responsible for the surrounding transaction.
+     * @param conn Connection to migrate
+     * @throws SQLException if a statement fails
+     */
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
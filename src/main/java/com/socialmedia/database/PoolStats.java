@@ -0,0 +1,85 @@
+package main.java.com.socialmedia.database;
+
+/**
+ * Point-in-time snapshot of connection pool occupancy and counters.
+ */
+public class PoolStats {
+    private final String poolName;
+    private final int maxSize;
+    private final int totalConnections;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long discardedCount;
+    private final long leakCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(String poolName, int maxSize, int totalConnections, int activeConnections,
+                     int idleConnections, int waitingThreads, long borrowCount, long timeoutCount,
+                     long createdCount, long discardedCount, long leakCount,
+                     long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.poolName = poolName;
+        this.maxSize = maxSize;
+        this.totalConnections = totalConnections;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.discardedCount = discardedCount;
+        this.leakCount = leakCount;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public String getPoolName() { return poolName; }
+    public int getMaxSize() { return maxSize; }
+    public int getTotalConnections() { return totalConnections; }
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getWaitingThreads() { return waitingThreads; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getCreatedCount() { return createdCount; }
+    public long getDiscardedCount() { return discardedCount; }
+    public long getLeakCount() { return leakCount; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+    public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+    /**
+     * Gets the fraction of prepareStatement calls served from the statement cache.
+     * @return Hit rate between 0 and 1
+     */
+    public double getStatementCacheHitRate() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "pool='" + poolName + '\'' +
+                ", max=" + maxSize +
+                ", total=" + totalConnections +
+                ", active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", waiting=" + waitingThreads +
+                ", borrowed=" + borrowCount +
+                ", timeouts=" + timeoutCount +
+                ", created=" + createdCount +
+                ", discarded=" + discardedCount +
+                ", leaks=" + leakCount +
+                ", stmtHits=" + statementCacheHits +
+                ", stmtMisses=" + statementCacheMisses +
+                ", stmtEvictions=" + statementCacheEvictions +
+                '}';
+    }
+}
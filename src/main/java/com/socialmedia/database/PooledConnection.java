@@ -0,0 +1,158 @@
+package main.java.com.socialmedia.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A physical connection owned by a {@link ConnectionPool}.
+ * Each borrow hands out a fresh proxy whose close() returns the connection to the pool.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physicalConnection;
+    private final StatementCache statementCache;
+    private final long createdAt;
+
+    private volatile Lease currentLease;
+    private volatile long borrowedAt;
+    private volatile Thread borrowingThread;
+    private volatile boolean leakReported;
+
+    PooledConnection(ConnectionPool pool, Connection physicalConnection,
+                     int statementCacheSize, StatementCache.Counters statementCounters) {
+        this.pool = pool;
+        this.physicalConnection = physicalConnection;
+        this.statementCache = new StatementCache(physicalConnection, statementCacheSize, statementCounters);
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    Connection getPhysicalConnection() {
+        return physicalConnection;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Thread getBorrowingThread() {
+        return borrowingThread;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        this.leakReported = true;
+    }
+
+    /**
+     * Marks this connection as borrowed and creates the proxy handed to the caller.
+     * @return Connection proxy for this borrow
+     */
+    Connection lease() {
+        Lease lease = new Lease();
+        this.currentLease = lease;
+        this.borrowedAt = System.currentTimeMillis();
+        this.borrowingThread = Thread.currentThread();
+        this.leakReported = false;
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+    }
+
+    /**
+     * Clears borrow bookkeeping once the connection is back in the pool.
+     */
+    void clearLease() {
+        this.currentLease = null;
+        this.borrowingThread = null;
+    }
+
+    /**
+     * Checks that the physical connection is still usable.
+     * @param timeoutSeconds Validation timeout
+     * @return true if the connection is open and valid
+     */
+    boolean isUsable(int timeoutSeconds) {
+        try {
+            return !physicalConnection.isClosed() && physicalConnection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the physical connection, ignoring failures.
+     */
+    void closePhysically() {
+        statementCache.closeAll();
+        try {
+            physicalConnection.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Invocation handler for one borrow of the connection.
+     */
+    private class Lease implements InvocationHandler {
+        private volatile boolean returned;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        if (currentLease == this) {
+                            pool.release(PooledConnection.this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physicalConnection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pool.getName() + "]" + (returned ? " (returned)" : "");
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (isCacheablePrepare(method, args)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return statementCache.prepare((Connection) proxy, (String) args[0], autoGeneratedKeys);
+            }
+
+            try {
+                return method.invoke(physicalConnection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private boolean isCacheablePrepare(Method method, Object[] args) {
+            if (!method.getName().equals("prepareStatement")) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+}
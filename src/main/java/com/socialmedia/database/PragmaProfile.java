@@ -0,0 +1,104 @@
+package main.java.com.socialmedia.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * SQLite pragma settings applied to every connection the application opens.
+ * The defaults favour concurrent readers: WAL journal, NORMAL sync, a larger page cache and mmap I/O.
+ */
+public class PragmaProfile {
+    private static final Set<String> SYNCHRONOUS_LEVELS = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+
+    private final String synchronous;
+    private final int cacheSizeKib;
+    private final long mmapSizeBytes;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+
+    /**
+     * Creates a pragma profile.
+     * @param synchronous synchronous level (OFF, NORMAL, FULL or EXTRA)
+     * @param cacheSizeKib Page cache size per connection in KiB
+     * @param mmapSizeBytes Maximum bytes of the database file to memory-map, 0 to disable
+     * @param tempStore temp_store setting (DEFAULT, FILE or MEMORY)
+     * @param busyTimeoutMillis How long a connection retries on a locked database before failing
+     */
+    public PragmaProfile(String synchronous, int cacheSizeKib, long mmapSizeBytes, String tempStore, int busyTimeoutMillis) {
+        this.synchronous = requireOneOf("synchronous", synchronous, SYNCHRONOUS_LEVELS);
+        this.tempStore = requireOneOf("temp_store", tempStore, TEMP_STORES);
+        if (cacheSizeKib < 0 || mmapSizeBytes < 0 || busyTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Pragma sizes and timeouts cannot be negative");
+        }
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * Builds the default profile, overridable with -D system properties.
+     * @return Pragma profile
+     */
+    public static PragmaProfile fromSystemProperties() {
+        return new PragmaProfile(
+                System.getProperty("socialmedia.db.pragma.synchronous", "NORMAL"),
+                Integer.getInteger("socialmedia.db.pragma.cacheSizeKib", 16384),
+                Long.getLong("socialmedia.db.pragma.mmapSizeBytes", 256L * 1024 * 1024),
+                System.getProperty("socialmedia.db.pragma.tempStore", "MEMORY"),
+                Integer.getInteger("socialmedia.db.pragma.busyTimeoutMs", 5000));
+    }
+
+    /**
+     * Applies the profile to a freshly opened connection.
+     * The writer also switches the database to WAL, which is persisted in the database file.
+     * @param conn Connection to configure
+     * @param writer true for the writer connection, false for read-only connections
+     * @throws SQLException if a pragma fails
+     */
+    public void apply(Connection conn, boolean writer) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            if (writer) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            // Negative cache_size is interpreted by SQLite as KiB rather than pages
+            stmt.execute("PRAGMA cache_size = -" + cacheSizeKib);
+            stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+            if (!writer) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        }
+    }
+
+    public String getSynchronous() { return synchronous; }
+    public int getCacheSizeKib() { return cacheSizeKib; }
+    public long getMmapSizeBytes() { return mmapSizeBytes; }
+    public String getTempStore() { return tempStore; }
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+
+    private static String requireOneOf(String pragma, String value, Set<String> allowed) {
+        String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized)) {
+            throw new IllegalArgumentException("Invalid " + pragma + " value: " + value + " (expected one of " + allowed + ")");
+        }
+        return normalized;
+    }
+
+    @Override
+    public String toString() {
+        return "PragmaProfile{" +
+                "journal_mode=WAL" +
+                ", synchronous=" + synchronous +
+                ", cache_size=-" + cacheSizeKib +
+                ", mmap_size=" + mmapSizeBytes +
+                ", temp_store=" + tempStore +
+                ", busy_timeout=" + busyTimeoutMillis +
+                '}';
+    }
+}
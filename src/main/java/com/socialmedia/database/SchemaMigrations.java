@@ -0,0 +1,241 @@
+package main.java.com.socialmedia.database;
+
+import java.util.List;
+
+/**
+ * The application's schema history. Append new migrations at the end; never edit released ones.
+ */
+public final class SchemaMigrations {
+
+    // Current time in epoch milliseconds; julianday keeps the sub-second part that strftime('%s') drops
+    private static final String NOW_MILLIS = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Gets all migrations in version order.
+     * @return Ordered migrations
+     */
+    public static List<Migration> all() {
+        return List.of(
+                // IF NOT EXISTS keeps this safe for databases created before versioning was introduced
+                new Migration(1, "Create base tables",
+                        """
+                        CREATE TABLE IF NOT EXISTS users (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            email TEXT UNIQUE NOT NULL,
+                            password TEXT NOT NULL,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                        """
+                        CREATE TABLE IF NOT EXISTS channels (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            name TEXT UNIQUE NOT NULL,
+                            description TEXT,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                        """
+                        CREATE TABLE IF NOT EXISTS messages (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            channel_id INTEGER NOT NULL,
+                            user_id INTEGER NOT NULL,
+                            content TEXT NOT NULL,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (channel_id) REFERENCES channels(id),
+                            FOREIGN KEY (user_id) REFERENCES users(id)
+                        )
+                        """,
+                        """
+                        CREATE TABLE IF NOT EXISTS subscriptions (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            user_id INTEGER NOT NULL,
+                            channel_id INTEGER NOT NULL,
+                            subscribed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (user_id) REFERENCES users(id),
+                            FOREIGN KEY (channel_id) REFERENCES channels(id),
+                            UNIQUE(user_id, channel_id)
+                        )
+                        """),
+
+                // Channel history is read newest-first; subscriptions(user_id, channel_id) is
+                // already covered by the UNIQUE constraint's index
+                new Migration(2, "Index message history and subscription lookups",
+                        "CREATE INDEX IF NOT EXISTS idx_messages_channel_created ON messages(channel_id, created_at DESC, id DESC)",
+                        "CREATE INDEX IF NOT EXISTS idx_subscriptions_channel_user ON subscriptions(channel_id, user_id)"),
+
+                // Bulk import progress, committed in the same transaction as the imported rows
+                new Migration(3, "Track bulk import checkpoints",
+                        """
+                        CREATE TABLE IF NOT EXISTS import_checkpoints (
+                            source TEXT PRIMARY KEY,
+                            records_committed INTEGER NOT NULL,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """),
+
+                // SQLite cannot change a column's type, so each table is rebuilt. Existing
+                // CURRENT_TIMESTAMP text is UTC and converts directly to epoch milliseconds.
+                new Migration(4, "Store timestamps as epoch milliseconds",
+                        """
+                        CREATE TABLE users_v4 (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            email TEXT UNIQUE NOT NULL,
+                            password TEXT NOT NULL,
+                            created_at INTEGER NOT NULL DEFAULT (%s)
+                        )
+                        """.formatted(NOW_MILLIS),
+                        "INSERT INTO users_v4 (id, email, password, created_at) " +
+                                "SELECT id, email, password, " + toEpochMillis("created_at") + " FROM users",
+                        "DROP TABLE users",
+                        "ALTER TABLE users_v4 RENAME TO users",
+                        """
+                        CREATE TABLE channels_v4 (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            name TEXT UNIQUE NOT NULL,
+                            description TEXT,
+                            created_at INTEGER NOT NULL DEFAULT (%s)
+                        )
+                        """.formatted(NOW_MILLIS),
+                        "INSERT INTO channels_v4 (id, name, description, created_at) " +
+                                "SELECT id, name, description, " + toEpochMillis("created_at") + " FROM channels",
+                        "DROP TABLE channels",
+                        "ALTER TABLE channels_v4 RENAME TO channels",
+                        """
+                        CREATE TABLE messages_v4 (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            channel_id INTEGER NOT NULL,
+                            user_id INTEGER NOT NULL,
+                            content TEXT NOT NULL,
+                            created_at INTEGER NOT NULL DEFAULT (%s),
+                            FOREIGN KEY (channel_id) REFERENCES channels(id),
+                            FOREIGN KEY (user_id) REFERENCES users(id)
+                        )
+                        """.formatted(NOW_MILLIS),
+                        "INSERT INTO messages_v4 (id, channel_id, user_id, content, created_at) " +
+                                "SELECT id, channel_id, user_id, content, " + toEpochMillis("created_at") + " FROM messages",
+                        "DROP TABLE messages",
+                        "ALTER TABLE messages_v4 RENAME TO messages",
+                        """
+                        CREATE TABLE subscriptions_v4 (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            user_id INTEGER NOT NULL,
+                            channel_id INTEGER NOT NULL,
+                            subscribed_at INTEGER NOT NULL DEFAULT (%s),
+                            FOREIGN KEY (user_id) REFERENCES users(id),
+                            FOREIGN KEY (channel_id) REFERENCES channels(id),
+                            UNIQUE(user_id, channel_id)
+                        )
+                        """.formatted(NOW_MILLIS),
+                        "INSERT INTO subscriptions_v4 (id, user_id, channel_id, subscribed_at) " +
+                                "SELECT id, user_id, channel_id, " + toEpochMillis("subscribed_at") + " FROM subscriptions",
+                        "DROP TABLE subscriptions",
+                        "ALTER TABLE subscriptions_v4 RENAME TO subscriptions",
+                        """
+                        CREATE TABLE import_checkpoints_v4 (
+                            source TEXT PRIMARY KEY,
+                            records_committed INTEGER NOT NULL,
+                            updated_at INTEGER NOT NULL DEFAULT (%s)
+                        )
+                        """.formatted(NOW_MILLIS),
+                        "INSERT INTO import_checkpoints_v4 (source, records_committed, updated_at) " +
+                                "SELECT source, records_committed, " + toEpochMillis("updated_at") + " FROM import_checkpoints",
+                        "DROP TABLE import_checkpoints",
+                        "ALTER TABLE import_checkpoints_v4 RENAME TO import_checkpoints",
+                        // Indexes were dropped with their tables
+                        "CREATE INDEX idx_messages_channel_created ON messages(channel_id, created_at DESC, id DESC)",
+                        "CREATE INDEX idx_subscriptions_channel_user ON subscriptions(channel_id, user_id)"),
+
+                // External-content index: the text lives only in messages, triggers keep the index in step.
+                // Prefix indexes make the as-you-type prefix queries cheap.
+                new Migration(5, "Add full-text message search",
+                        """
+                        CREATE VIRTUAL TABLE messages_fts USING fts5(
+                            content,
+                            content='messages',
+                            content_rowid='id',
+                            tokenize='unicode61 remove_diacritics 2',
+                            prefix='2 3'
+                        )
+                        """,
+                        """
+                        CREATE TRIGGER messages_fts_insert AFTER INSERT ON messages BEGIN
+                            INSERT INTO messages_fts (rowid, content) VALUES (new.id, new.content);
+                        END
+                        """,
+                        """
+                        CREATE TRIGGER messages_fts_delete AFTER DELETE ON messages BEGIN
+                            INSERT INTO messages_fts (messages_fts, rowid, content) VALUES ('delete', old.id, old.content);
+                        END
+                        """,
+                        """
+                        CREATE TRIGGER messages_fts_update AFTER UPDATE OF content ON messages BEGIN
+                            INSERT INTO messages_fts (messages_fts, rowid, content) VALUES ('delete', old.id, old.content);
+                            INSERT INTO messages_fts (rowid, content) VALUES (new.id, new.content);
+                        END
+                        """,
+                        "INSERT INTO messages_fts (messages_fts) VALUES ('rebuild')"),
+                // Fan-out-on-write timelines: one row per (subscriber, message), clustered on the feed order
+                // so a page is a single range scan. Rows carry channel_id so pull channels can be skipped.
+                new Migration(6, "Add materialized timelines",
+                        """
+                        CREATE TABLE timelines (
+                            user_id INTEGER NOT NULL,
+                            created_at INTEGER NOT NULL,
+                            message_id INTEGER NOT NULL,
+                            channel_id INTEGER NOT NULL,
+                            PRIMARY KEY (user_id, created_at DESC, message_id DESC)
+                        ) WITHOUT ROWID
+                        """,
+                        // Users whose timeline holds every message of their push channels since complete_since
+                        """
+                        CREATE TABLE timeline_users (
+                            user_id INTEGER PRIMARY KEY,
+                            complete_since INTEGER NOT NULL
+                        )
+                        """,
+                        // Channels too large to fan out; their messages are always read from messages
+                        """
+                        CREATE TABLE pull_channels (
+                            channel_id INTEGER PRIMARY KEY,
+                            marked_at INTEGER NOT NULL DEFAULT (%s)
+                        )
+                        """.formatted(NOW_MILLIS)),
+                // Catalog of archived segment files, one per channel and month. A segment only counts once
+                // its row is committed together with the deletion of the messages it holds.
+                new Migration(7, "Add message archive catalog",
+                        """
+                        CREATE TABLE archive_segments (
+                            channel_id INTEGER NOT NULL,
+                            period TEXT NOT NULL,
+                            file_name TEXT NOT NULL,
+                            message_count INTEGER NOT NULL,
+                            oldest_created_at INTEGER NOT NULL,
+                            oldest_id INTEGER NOT NULL,
+                            newest_created_at INTEGER NOT NULL,
+                            newest_id INTEGER NOT NULL,
+                            archived_at INTEGER NOT NULL DEFAULT (%s),
+                            PRIMARY KEY (channel_id, period)
+                        )
+                        """.formatted(NOW_MILLIS)),
+                // Single row: creation time up to which every committed message has been fanned out,
+                // so timelines are repaired after a restart from there instead of from complete_since
+                new Migration(8, "Track timeline fan-out progress",
+                        """
+                        CREATE TABLE fanout_state (
+                            id INTEGER PRIMARY KEY CHECK (id = 1),
+                            fanned_out_through INTEGER NOT NULL
+                        )
+                        """)
+        );
+    }
+
+    // Converts a legacy TIMESTAMP column, leaving values that are already integers untouched
+    private static String toEpochMillis(String column) {
+        return "COALESCE(CASE WHEN typeof(" + column + ") = 'integer' THEN " + column +
+                " ELSE CAST(ROUND((julianday(" + column + ") - 2440587.5) * 86400000) AS INTEGER) END, " +
+                NOW_MILLIS + ")";
+    }
+}
@@ -0,0 +1,107 @@
+package main.java.com.socialmedia.database;
+
+import com.socialmedia.exception.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies pending schema migrations, tracking the current version in PRAGMA user_version.
+ * Each migration runs in its own transaction together with the version bump.
+ */
+public class SchemaMigrator {
+    private final List<Migration> migrations;
+
+    /**
+     * Creates a migrator for an ordered set of migrations.
+     * @param migrations Migrations with unique, increasing versions
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).getVersion());
+            }
+        }
+        this.migrations = List.copyOf(sorted);
+    }
+
+    /**
+     * Gets the version the schema will be at once all migrations are applied.
+     * @return Latest schema version
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * Brings the schema up to date. Does no DDL when the schema is already current.
+     * @param conn Writable connection
+     * @return Number of migrations applied
+     * @throws DatabaseException if a migration fails; that migration is rolled back
+     */
+    public int migrate(Connection conn) throws DatabaseException {
+        int currentVersion;
+        try {
+            currentVersion = readUserVersion(conn);
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to read schema version", e);
+        }
+
+        if (currentVersion > getLatestVersion()) {
+            throw new DatabaseException("Database schema version " + currentVersion +
+                    " is newer than this application supports (" + getLatestVersion() + ")");
+        }
+        if (currentVersion == getLatestVersion()) {
+            System.out.println("Database schema is up to date (version " + currentVersion + ")");
+            return 0;
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+            applyMigration(conn, migration);
+            applied++;
+        }
+        System.out.println("Database schema migrated from version " + currentVersion + " to " + getLatestVersion());
+        return applied;
+    }
+
+    private void applyMigration(Connection conn, Migration migration) throws DatabaseException {
+        try {
+            conn.setAutoCommit(false);
+            try {
+                migration.apply(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + migration.getVersion());
+                }
+                conn.commit();
+                System.out.println("Applied migration " + migration);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to apply migration " + migration);
+            e.printStackTrace();
+            throw new DatabaseException("Failed to apply migration " + migration, e);
+        }
+    }
+
+    private int readUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
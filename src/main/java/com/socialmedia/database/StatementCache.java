@@ -0,0 +1,177 @@
+package main.java.com.socialmedia.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of compiled prepared statements for one physical connection.
+ * Callers get a proxy whose close() hands the statement back to the cache instead of finalizing it.
+ * Not thread-safe; a pooled connection is only used by one borrower at a time.
+ */
+class StatementCache {
+    private final Connection physicalConnection;
+    private final int maxSize;
+    private final Counters counters;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physicalConnection, int maxSize, Counters counters) {
+        this.physicalConnection = physicalConnection;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    /**
+     * Gets a prepared statement for the SQL, reusing a cached one when it is not already in use.
+     * @param connectionProxy Proxy returned from getConnection() on the statement
+     * @param sql SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @return Statement proxy
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection connectionProxy, String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            counters.misses.incrementAndGet();
+            return physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            counters.hits.incrementAndGet();
+            return cached.checkOut(connectionProxy);
+        }
+
+        counters.misses.incrementAndGet();
+        PreparedStatement stmt = physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Same SQL prepared twice while the first is still open; do not cache the second copy
+            return stmt;
+        }
+
+        cached = new CachedStatement(stmt);
+        statements.put(key, cached);
+        evictIfNeeded();
+        return cached.checkOut(connectionProxy);
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            if (!eldest.inUse) {
+                it.remove();
+                closeQuietly(eldest.statement);
+                counters.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cache hit, miss and eviction counters shared by all connections of a pool.
+     */
+    static class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+    }
+
+    private static class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement checkOut(Connection connectionProxy) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    new Checkout(this, connectionProxy));
+        }
+    }
+
+    /**
+     * Invocation handler for one use of a cached statement.
+     */
+    private static class Checkout implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connectionProxy;
+        private boolean returned;
+
+        Checkout(CachedStatement cached, Connection connectionProxy) {
+            this.cached = cached;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        try {
+                            cached.statement.clearParameters();
+                        } finally {
+                            cached.inUse = false;
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || cached.statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
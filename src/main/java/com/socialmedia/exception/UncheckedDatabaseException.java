@@ -0,0 +1,16 @@
+package com.socialmedia.exception;
+
+/**
+ * Unchecked wrapper for a {@link DatabaseException}, thrown where a checked exception
+ * cannot propagate, such as while consuming a streamed result.
+ */
+public class UncheckedDatabaseException extends RuntimeException {
+    public UncheckedDatabaseException(DatabaseException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized DatabaseException getCause() {
+        return (DatabaseException) super.getCause();
+    }
+}
@@ -3,6 +3,8 @@ package main.java.com.socialmedia.gui;
 import main.java.com.socialmedia.exception.MessageTooLongException;
 import main.java.com.socialmedia.model.Channel;
 import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
 import main.java.com.socialmedia.model.User;
 import main.java.com.socialmedia.observer.MessageSubscriber;
 import main.java.com.socialmedia.service.ChannelService;
@@ -16,6 +18,10 @@ import javax.swing.text.StyledDocument;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -32,6 +38,19 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
     private JLabel statusLabel;
     private JLabel charCountLabel;
     private JButton backButton;
+    private JScrollPane messagesScroll;
+
+    private static final int PAGE_SIZE = 50;
+    private static final int MENTION_SUGGESTIONS = 6;
+    // @mention autocomplete; mentionStart is the offset of the '@' being completed, or -1
+    private JPopupMenu mentionPopup;
+    private JList<String> mentionList;
+    private final DefaultListModel<String> mentionModel = new DefaultListModel<>();
+    private int mentionStart = -1;
+    // History paging state, only touched on the EDT
+    private MessageCursor oldestCursor;
+    private boolean hasOlderMessages;
+    private boolean loadingOlderMessages;
 
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
 
@@ -41,12 +60,13 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         this.channelService = channelService;
         this.messageService = messageService;
 
-        messageService.getMessagePublisher().subscribe(this);
+        messageService.getMessagePublisher().subscribe(this, channel.getId());
 
         initializeComponents();
         setupLayout();
         setupEventListeners();
         loadMessages();
+        loadMentionIndex();
 
         setTitle("Social Media Application - " + channel.getName());
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -79,6 +99,16 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         statusLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         statusLabel.setForeground(Color.RED);
 
+        mentionList = new JList<>(mentionModel);
+        mentionList.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
+        mentionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        mentionList.setFocusable(false);
+
+        // The popup must not take focus, or typing would stop going to the post area
+        mentionPopup = new JPopupMenu();
+        mentionPopup.setFocusable(false);
+        mentionPopup.add(mentionList);
+
         charCountLabel = new JLabel("0/" + Message.MAX_CONTENT_LENGTH);
         charCountLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         charCountLabel.setForeground(Color.GRAY);
@@ -155,7 +185,7 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         headerPanel.add(backPanel, BorderLayout.WEST);
         headerPanel.add(titlePanel, BorderLayout.CENTER);
 
-        JScrollPane messagesScroll = new JScrollPane(messagesPane);
+        messagesScroll = new JScrollPane(messagesPane);
         messagesScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         messagesScroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         messagesScroll.setBorder(BorderFactory.createTitledBorder("Messages"));
@@ -210,9 +240,12 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         postArea.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
             public void insertUpdate(javax.swing.event.DocumentEvent e) {
                 updateCharCount();
+                // The caret moves after listeners run, so look at the mention once it has settled
+                SwingUtilities.invokeLater(ChannelHomeFrame.this::updateMentionSuggestions);
             }
             public void removeUpdate(javax.swing.event.DocumentEvent e) {
                 updateCharCount();
+                SwingUtilities.invokeLater(ChannelHomeFrame.this::updateMentionSuggestions);
             }
             public void changedUpdate(javax.swing.event.DocumentEvent e) {
                 updateCharCount();
@@ -227,12 +260,47 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
             }
         });
 
+        postArea.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!mentionPopup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> moveMentionSelection(1);
+                    case KeyEvent.VK_UP -> moveMentionSelection(-1);
+                    case KeyEvent.VK_ENTER, KeyEvent.VK_TAB -> acceptMention();
+                    case KeyEvent.VK_ESCAPE -> hideMentionSuggestions();
+                    default -> {
+                        return;
+                    }
+                }
+                e.consume();
+            }
+        });
+
+        mentionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                acceptMention();
+            }
+        });
+
         addWindowListener(new java.awt.event.WindowAdapter() {
             public void windowClosing(java.awt.event.WindowEvent e) {
                 messageService.getMessagePublisher().unsubscribe(ChannelHomeFrame.this);
             }
         });
 
+        // Fetch older history when the user scrolls to the top
+        messagesScroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar scrollBar = messagesScroll.getVerticalScrollBar();
+            if (!e.getValueIsAdjusting() && scrollBar.getValue() == scrollBar.getMinimum()
+                    && scrollBar.getMaximum() > scrollBar.getVisibleAmount()) {
+                loadOlderMessages();
+            }
+        });
+
         backButton.addActionListener(e -> {
             messageService.getMessagePublisher().unsubscribe(ChannelHomeFrame.this);
             ChannelsFrame channelsFrame = new ChannelsFrame(currentUser, channelService, messageService);
@@ -254,21 +322,103 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
     }
 
     private void loadMessages() {
-        SwingWorker<List<Message>, Void> worker = new SwingWorker<>() {
-            protected List<Message> doInBackground() throws Exception {
-                return messageService.getMessagesForChannel(channel.getId());
+        GuiTasks.whenDone(messageService.getLatestMessagesAsync(channel.getId(), PAGE_SIZE), (page, error) -> {
+            if (error != null) {
+                showStatus("Failed to load messages: " + error.getMessage(), true);
+                return;
             }
+            oldestCursor = page.getNextCursor();
+            hasOlderMessages = page.hasMore();
+            displayMessages(page.getMessages());
+        });
+    }
 
-            protected void done() {
-                try {
-                    List<Message> messages = get();
-                    displayMessages(messages);
-                } catch (Exception e) {
-                    showStatus("Failed to load messages: " + e.getMessage(), true);
-                }
+    private void loadMentionIndex() {
+        GuiTasks.whenDone(messageService.loadMentionIndexAsync(), (ignored, error) -> {
+            if (error != null) {
+                System.err.println("Failed to load mention suggestions: " + error.getMessage());
             }
-        };
-        worker.execute();
+        });
+    }
+
+    // Shows email suggestions while the word before the caret is an @mention
+    private void updateMentionSuggestions() {
+        String text = postArea.getText();
+        int caret = Math.min(postArea.getCaretPosition(), text.length());
+        int at = caret - 1;
+        while (at >= 0 && text.charAt(at) != '@' && !Character.isWhitespace(text.charAt(at))) {
+            at--;
+        }
+        if (at < 0 || text.charAt(at) != '@' || (at > 0 && !Character.isWhitespace(text.charAt(at - 1)))
+                || caret - at < 2) {
+            hideMentionSuggestions();
+            return;
+        }
+
+        List<String> suggestions = messageService.suggestMentions(text.substring(at + 1, caret), MENTION_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            hideMentionSuggestions();
+            return;
+        }
+
+        mentionStart = at;
+        mentionModel.clear();
+        suggestions.forEach(mentionModel::addElement);
+        mentionList.setSelectedIndex(0);
+        mentionList.setVisibleRowCount(suggestions.size());
+        try {
+            Rectangle caretBounds = postArea.modelToView2D(caret).getBounds();
+            mentionPopup.pack();
+            mentionPopup.show(postArea, caretBounds.x, caretBounds.y + caretBounds.height);
+            postArea.requestFocusInWindow();
+        } catch (BadLocationException e) {
+            hideMentionSuggestions();
+        }
+    }
+
+    private void moveMentionSelection(int delta) {
+        int size = mentionModel.getSize();
+        int index = (mentionList.getSelectedIndex() + delta + size) % size;
+        mentionList.setSelectedIndex(index);
+    }
+
+    private void acceptMention() {
+        String email = mentionList.getSelectedValue();
+        int start = mentionStart;
+        hideMentionSuggestions();
+        if (email == null || start < 0) {
+            return;
+        }
+        int caret = postArea.getCaretPosition();
+        postArea.replaceRange("@" + email + " ", start, caret);
+    }
+
+    private void hideMentionSuggestions() {
+        mentionStart = -1;
+        if (mentionPopup.isVisible()) {
+            mentionPopup.setVisible(false);
+        }
+    }
+
+    private void loadOlderMessages() {
+        if (loadingOlderMessages || !hasOlderMessages || oldestCursor == null) {
+            return;
+        }
+        loadingOlderMessages = true;
+        MessageCursor cursor = oldestCursor;
+
+        GuiTasks.whenDone(messageService.getMessagesBeforeAsync(channel.getId(), cursor, PAGE_SIZE), (page, error) -> {
+            loadingOlderMessages = false;
+            if (error != null) {
+                showStatus("Failed to load older messages: " + error.getMessage(), true);
+                return;
+            }
+            hasOlderMessages = page.hasMore();
+            if (!page.isEmpty()) {
+                oldestCursor = page.getNextCursor();
+                prependMessages(page.getMessages());
+            }
+        });
     }
 
     private void displayMessages(List<Message> messages) {
@@ -294,7 +444,31 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         });
     }
 
+    // Inserts an older page above the current history and keeps the visible messages in place
+    private void prependMessages(List<Message> messages) {
+        JScrollBar scrollBar = messagesScroll.getVerticalScrollBar();
+        int distanceFromBottom = scrollBar.getMaximum() - scrollBar.getValue();
+
+        StyledDocument doc = messagesPane.getStyledDocument();
+        try {
+            int offset = 0;
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                offset = insertMessage(doc, offset, messages.get(i));
+                doc.insertString(offset, "\n\n", null);
+                offset += 2;
+            }
+        } catch (BadLocationException e) {
+            System.err.println("Failed to display older messages: " + e.getMessage());
+        }
+
+        SwingUtilities.invokeLater(() -> scrollBar.setValue(scrollBar.getMaximum() - distanceFromBottom));
+    }
+
     private void appendMessage(StyledDocument doc, Message message) throws BadLocationException {
+        insertMessage(doc, doc.getLength(), message);
+    }
+
+    private int insertMessage(StyledDocument doc, int offset, Message message) throws BadLocationException {
         SimpleAttributeSet userStyle = new SimpleAttributeSet();
         StyleConstants.setBold(userStyle, true);
         StyleConstants.setForeground(userStyle, new Color(0, 123, 255));
@@ -306,11 +480,19 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
         SimpleAttributeSet messageStyle = new SimpleAttributeSet();
         StyleConstants.setForeground(messageStyle, Color.BLACK);
 
-        doc.insertString(doc.getLength(), message.getUserEmail(), userStyle);
-        doc.insertString(doc.getLength(), " • ", timeStyle);
-        doc.insertString(doc.getLength(), message.getCreatedAt().format(timeFormatter), timeStyle);
-        doc.insertString(doc.getLength(), "\n", null);
-        doc.insertString(doc.getLength(), message.getContent(), messageStyle);
+        offset = insertText(doc, offset, message.getUserEmail(), userStyle);
+        offset = insertText(doc, offset, " • ", timeStyle);
+        offset = insertText(doc, offset, message.getCreatedAt().format(timeFormatter), timeStyle);
+        offset = insertText(doc, offset, "\n", null);
+        return insertText(doc, offset, message.getContent(), messageStyle);
+    }
+
+    private int insertText(StyledDocument doc, int offset, String text, SimpleAttributeSet style) throws BadLocationException {
+        if (text == null) {
+            return offset;
+        }
+        doc.insertString(offset, text, style);
+        return offset + text.length();
     }
 
     private void showStatus(String message, boolean isError) {
@@ -323,20 +505,19 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
 
     @Override
     public void onMessageReceived(Message message) {
-        if (message.getChannelId() == channel.getId()) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    StyledDocument doc = messagesPane.getStyledDocument();
-                    if (doc.getLength() > 0) {
-                        doc.insertString(doc.getLength(), "\n\n", null);
-                    }
-                    appendMessage(doc, message);
-                    messagesPane.setCaretPosition(doc.getLength());
-                } catch (BadLocationException e) {
-                    System.err.println("Failed to display new message: " + e.getMessage());
+        // Subscribed to this channel only, so every message received belongs here
+        SwingUtilities.invokeLater(() -> {
+            try {
+                StyledDocument doc = messagesPane.getStyledDocument();
+                if (doc.getLength() > 0) {
+                    doc.insertString(doc.getLength(), "\n\n", null);
                 }
-            });
-        }
+                appendMessage(doc, message);
+                messagesPane.setCaretPosition(doc.getLength());
+            } catch (BadLocationException e) {
+                System.err.println("Failed to display new message: " + e.getMessage());
+            }
+        });
     }
 
     private class PostMessageActionListener implements ActionListener {
@@ -350,31 +531,19 @@ public class ChannelHomeFrame extends JFrame implements MessageSubscriber {
             postButton.setEnabled(false);
             postButton.setText("Posting...");
 
-            SwingWorker<Message, Void> worker = new SwingWorker<>() {
-                protected Message doInBackground() throws Exception {
-                    return messageService.postMessage(channel.getId(), currentUser.getId(), content);
-                }
-
-                protected void done() {
-                    try {
-                        get();
-                        postArea.setText("");
-                        updateCharCount();
-                        showStatus("Message posted successfully!", false);
-                    } catch (Exception ex) {
-                        Throwable cause = ex.getCause();
-                        if (cause instanceof MessageTooLongException) {
-                            showStatus(cause.getMessage(), true);
-                        } else {
-                            showStatus("Failed to post message: " + ex.getMessage(), true);
-                        }
-                    } finally {
-                        postButton.setEnabled(true);
-                        postButton.setText("Post");
-                    }
+            GuiTasks.whenDone(messageService.postMessageAsync(channel.getId(), currentUser.getId(), content), (message, error) -> {
+                postButton.setEnabled(true);
+                postButton.setText("Post");
+                if (error == null) {
+                    postArea.setText("");
+                    updateCharCount();
+                    showStatus("Message posted successfully!", false);
+                } else if (error instanceof MessageTooLongException) {
+                    showStatus(error.getMessage(), true);
+                } else {
+                    showStatus("Failed to post message: " + error.getMessage(), true);
                 }
-            };
-            worker.execute();
+            });
         }
     }
 }
\ No newline at end of file
@@ -2,14 +2,20 @@ package main.java.com.socialmedia.gui;
 
 import com.socialmedia.exception.DatabaseException;
 import main.java.com.socialmedia.model.Channel;
+import main.java.com.socialmedia.model.ChannelSummary;
 import main.java.com.socialmedia.model.User;
 import main.java.com.socialmedia.service.ChannelService;
 import main.java.com.socialmedia.service.MessageService;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -25,6 +31,10 @@ public class ChannelsFrame extends JFrame {
     private JTextField searchField;
     private JLabel statusLabel;
     private final Map<Integer, JButton> subscriptionButtons = new ConcurrentHashMap<>();
+    private final Map<Integer, JLabel> subscriberCountLabels = new ConcurrentHashMap<>();
+    private final Map<Integer, Boolean> subscriptionStates = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> subscriberCounts = new ConcurrentHashMap<>();
+    private List<ChannelSummary> channelDirectory = List.of(); // Last full load, only touched on the EDT
     
     public ChannelsFrame(User currentUser, ChannelService channelService, MessageService messageService) {
         this.currentUser = currentUser;
@@ -49,7 +59,7 @@ public class ChannelsFrame extends JFrame {
         
         searchField = new JTextField();
         searchField.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
-        searchField.setEnabled(false); // Low priority feature
+        searchField.setToolTipText("Type to filter channels, press Enter to search messages");
         
         statusLabel = new JLabel(" ");
         statusLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
@@ -77,7 +87,7 @@ public class ChannelsFrame extends JFrame {
         searchPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
         searchPanel.setBackground(Color.WHITE);
         
-        JLabel searchLabel = new JLabel("Search Channels:");
+        JLabel searchLabel = new JLabel("Search: ");
         searchLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         searchLabel.setForeground(Color.GRAY);
         
@@ -94,58 +104,115 @@ public class ChannelsFrame extends JFrame {
         statusPanel.setBackground(new Color(248, 249, 250));
         statusPanel.add(statusLabel, BorderLayout.WEST);
         
-        add(headerPanel, BorderLayout.NORTH);
-        add(searchPanel, BorderLayout.CENTER);
+        // Header and search share the top so the channel list can take the center
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(searchPanel, BorderLayout.SOUTH);
+        
+        add(topPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
         add(statusPanel, BorderLayout.SOUTH);
     }
     
     private void setupEventListeners() {
         searchField.addActionListener(e -> {
-            showStatus("Search functionality coming soon!", false);
+            String query = searchField.getText().trim();
+            if (query.isEmpty()) {
+                showStatus("Please enter words to search for", true);
+                return;
+            }
+            SearchResultsDialog dialog = new SearchResultsDialog(this, query, channelService, messageService);
+            dialog.setVisible(true);
         });
-    }
-    
-    private void loadChannels() {
-        SwingWorker<List<Channel>, Void> worker = new SwingWorker<List<Channel>, Void>() {
+        
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            protected List<Channel> doInBackground() throws Exception {
-                return channelService.getAllChannels();
+            public void insertUpdate(DocumentEvent e) {
+                filterChannels();
             }
             
             @Override
-            protected void done() {
-                try {
-                    List<Channel> channels = get();
-                    displayChannels(channels);
-                } catch (Exception e) {
-                    System.err.println("Failed to load channels");
-                    e.printStackTrace();
-                    showStatus("Failed to load channels: " + e.getMessage(), true);
+            public void removeUpdate(DocumentEvent e) {
+                filterChannels();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterChannels();
+            }
+        });
+    }
+    
+    private void loadChannels() {
+        // Warm the in-memory directory, which filtering on keystrokes reads, alongside the summaries
+        CompletableFuture<List<ChannelSummary>> summaries = channelService.getDirectoryAsync()
+                .thenCombine(channelService.getChannelDirectoryAsync(currentUser.getId()), (warmed, loaded) -> loaded);
+        GuiTasks.whenDone(summaries, (directory, error) -> {
+            if (error != null) {
+                System.err.println("Failed to load channels");
+                error.printStackTrace();
+                showStatus("Failed to load channels: " + error.getMessage(), true);
+                return;
+            }
+            channelDirectory = directory;
+            subscriptionStates.clear();
+            subscriberCounts.clear();
+            for (ChannelSummary summary : directory) {
+                subscriptionStates.put(summary.getChannel().getId(), summary.isSubscribed());
+                subscriberCounts.put(summary.getChannel().getId(), summary.getSubscriberCount());
+            }
+            filterChannels();
+        });
+    }
+    
+    // Shows the channels matching the search box, best match first, or all of them when it is empty
+    private void filterChannels() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            displayChannels(channelDirectory);
+            showStatus("Loaded " + channelDirectory.size() + " channel(s)", false);
+            return;
+        }
+        
+        Map<Integer, ChannelSummary> summariesById = new HashMap<>();
+        for (ChannelSummary summary : channelDirectory) {
+            summariesById.put(summary.getChannel().getId(), summary);
+        }
+        
+        List<ChannelSummary> matches = new ArrayList<>();
+        try {
+            for (Channel channel : channelService.searchChannels(query, Math.max(1, channelDirectory.size()))) {
+                ChannelSummary summary = summariesById.get(channel.getId());
+                if (summary != null) {
+                    matches.add(summary);
                 }
             }
-        };
+        } catch (DatabaseException e) {
+            System.err.println("Failed to filter channels: " + e.getMessage());
+            return;
+        }
         
-        worker.execute();
+        displayChannels(matches);
+        showStatus(matches.size() + " matching channel(s) - press Enter to search messages", false);
     }
     
-    private void displayChannels(List<Channel> channels) {
+    private void displayChannels(List<ChannelSummary> directory) {
         channelsPanel.removeAll();
         subscriptionButtons.clear();
+        subscriberCountLabels.clear();
         
-        for (Channel channel : channels) {
-            JPanel channelPanel = createChannelPanel(channel);
+        for (ChannelSummary summary : directory) {
+            JPanel channelPanel = createChannelPanel(summary);
             channelsPanel.add(channelPanel);
             channelsPanel.add(Box.createVerticalStrut(10));
         }
         
         channelsPanel.revalidate();
         channelsPanel.repaint();
-        
-        showStatus("Loaded " + channels.size() + " channel(s)", false);
     }
     
-    private JPanel createChannelPanel(Channel channel) {
+    private JPanel createChannelPanel(ChannelSummary summary) {
+        Channel channel = summary.getChannel();
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1),
@@ -165,8 +232,13 @@ public class ChannelsFrame extends JFrame {
         descLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         descLabel.setForeground(Color.GRAY);
         
+        JLabel countLabel = new JLabel();
+        countLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+        countLabel.setForeground(Color.GRAY);
+        
         infoPanel.add(nameLabel, BorderLayout.NORTH);
         infoPanel.add(descLabel, BorderLayout.CENTER);
+        infoPanel.add(countLabel, BorderLayout.SOUTH);
         
         JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         actionPanel.setBackground(Color.WHITE);
@@ -174,9 +246,20 @@ public class ChannelsFrame extends JFrame {
         JButton subscribeButton = new JButton();
         subscribeButton.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
         subscribeButton.setPreferredSize(new Dimension(100, 30));
+        subscribeButton.setForeground(Color.WHITE);
+        subscribeButton.addActionListener(e -> {
+            if (subscriptionStates.getOrDefault(channel.getId(), false)) {
+                unsubscribeFromChannel(channel);
+            } else {
+                subscribeToChannel(channel);
+            }
+        });
         
-        updateSubscriptionButton(channel, subscribeButton);
+        // The maps hold the latest state; the summary may predate subscribe clicks made since loading
         subscriptionButtons.put(channel.getId(), subscribeButton);
+        subscriberCountLabels.put(channel.getId(), countLabel);
+        updateSubscriptionButton(subscribeButton, subscriptionStates.getOrDefault(channel.getId(), summary.isSubscribed()));
+        updateSubscriberCount(countLabel, subscriberCounts.getOrDefault(channel.getId(), summary.getSubscriberCount()));
         
         actionPanel.add(subscribeButton);
         
@@ -193,40 +276,26 @@ public class ChannelsFrame extends JFrame {
         return panel;
     }
     
-    private void updateSubscriptionButton(Channel channel, JButton button) {
-        SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
-            @Override
-            protected Boolean doInBackground() throws Exception {
-                return channelService.isUserSubscribed(currentUser.getId(), channel.getId());
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    boolean isSubscribed = get();
-                    
-                    if (isSubscribed) {
-                        button.setText("Unsubscribe");
-                        button.setBackground(new Color(220, 53, 69));
-                        button.setForeground(Color.WHITE);
-                        button.addActionListener(e -> unsubscribeFromChannel(channel));
-                    } else {
-                        button.setText("Subscribe");
-                        button.setBackground(new Color(40, 167, 69));
-                        button.setForeground(Color.WHITE);
-                        button.addActionListener(e -> subscribeToChannel(channel));
-                    }
-                    
-                } catch (Exception e) {
-                    System.err.println("Failed to check subscription status");
-                    e.printStackTrace();
-                    button.setText("Error");
-                    button.setEnabled(false);
-                }
-            }
-        };
-        
-        worker.execute();
+    private void updateSubscriptionButton(JButton button, boolean isSubscribed) {
+        if (isSubscribed) {
+            button.setText("Unsubscribe");
+            button.setBackground(new Color(220, 53, 69));
+        } else {
+            button.setText("Subscribe");
+            button.setBackground(new Color(40, 167, 69));
+        }
+    }
+    
+    private void updateSubscriberCount(JLabel label, int count) {
+        label.setText(count == 1 ? "1 subscriber" : count + " subscribers");
+    }
+    
+    private void adjustSubscriberCount(int channelId, int delta) {
+        int count = subscriberCounts.merge(channelId, delta, (current, change) -> Math.max(0, current + change));
+        JLabel label = subscriberCountLabels.get(channelId);
+        if (label != null) {
+            updateSubscriberCount(label, count);
+        }
     }
     
     private void subscribeToChannel(Channel channel) {
@@ -236,42 +305,23 @@ public class ChannelsFrame extends JFrame {
             button.setText("...");
         }
         
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                channelService.subscribeUser(currentUser.getId(), channel.getId());
-                return null;
+        GuiTasks.whenDone(channelService.subscribeUserAsync(currentUser.getId(), channel.getId()), (ignored, error) -> {
+            if (error == null) {
+                System.out.println("User " + currentUser.getEmail() + " subscribed to channel " + channel.getName());
+                showStatus("Successfully subscribed to " + channel.getName(), false);
+                subscriptionStates.put(channel.getId(), true);
+                adjustSubscriberCount(channel.getId(), 1);
+            } else {
+                System.err.println("Failed to subscribe to channel");
+                error.printStackTrace();
+                showStatus("Failed to subscribe to " + channel.getName(), true);
             }
             
-            @Override
-            protected void done() {
-                try {
-                    get();
-                    System.out.println("User " + currentUser.getEmail() + " subscribed to channel " + channel.getName());
-                    showStatus("Successfully subscribed to " + channel.getName(), false);
-                    
-                    if (button != null) {
-                        button.removeActionListener(button.getActionListeners()[0]);
-                        button.setText("Unsubscribe");
-                        button.setBackground(new Color(220, 53, 69));
-                        button.addActionListener(e -> unsubscribeFromChannel(channel));
-                        button.setEnabled(true);
-                    }
-                    
-                } catch (Exception e) {
-                    System.err.println("Failed to subscribe to channel");
-                    e.printStackTrace();
-                    showStatus("Failed to subscribe to " + channel.getName(), true);
-                    
-                    if (button != null) {
-                        button.setText("Subscribe");
-                        button.setEnabled(true);
-                    }
-                }
+            if (button != null) {
+                updateSubscriptionButton(button, error == null);
+                button.setEnabled(true);
             }
-        };
-        
-        worker.execute();
+        });
     }
     
     private void unsubscribeFromChannel(Channel channel) {
@@ -281,73 +331,34 @@ public class ChannelsFrame extends JFrame {
             button.setText("...");
         }
         
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                channelService.unsubscribeUser(currentUser.getId(), channel.getId());
-                return null;
+        GuiTasks.whenDone(channelService.unsubscribeUserAsync(currentUser.getId(), channel.getId()), (ignored, error) -> {
+            if (error == null) {
+                System.out.println("User " + currentUser.getEmail() + " unsubscribed from channel " + channel.getName());
+                showStatus("Successfully unsubscribed from " + channel.getName(), false);
+                subscriptionStates.put(channel.getId(), false);
+                adjustSubscriberCount(channel.getId(), -1);
+            } else {
+                System.err.println("Failed to unsubscribe from channel");
+                error.printStackTrace();
+                showStatus("Failed to unsubscribe from " + channel.getName(), true);
             }
             
-            @Override
-            protected void done() {
-                try {
-                    get();
-                    System.out.println("User " + currentUser.getEmail() + " unsubscribed from channel " + channel.getName());
-                    showStatus("Successfully unsubscribed from " + channel.getName(), false);
-                    
-                    if (button != null) {
-                        button.removeActionListener(button.getActionListeners()[0]);
-                        button.setText("Subscribe");
-                        button.setBackground(new Color(40, 167, 69));
-                        button.addActionListener(e -> subscribeToChannel(channel));
-                        button.setEnabled(true);
-                    }
-                    
-                } catch (Exception e) {
-                    System.err.println("Failed to unsubscribe from channel");
-                    e.printStackTrace();
-                    showStatus("Failed to unsubscribe from " + channel.getName(), true);
-                    
-                    if (button != null) {
-                        button.setText("Unsubscribe");
-                        button.setEnabled(true);
-                    }
-                }
+            if (button != null) {
+                updateSubscriptionButton(button, error != null);
+                button.setEnabled(true);
             }
-        };
-        
-        worker.execute();
+        });
     }
     
+    // Subscription state is already known from the directory query, so no lookup is needed here
     private void openChannelHome(Channel channel) {
-        SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
-            @Override
-            protected Boolean doInBackground() throws Exception {
-                return channelService.isUserSubscribed(currentUser.getId(), channel.getId());
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    boolean isSubscribed = get();
-                    
-                    if (isSubscribed) {
-                        ChannelHomeFrame channelHomeFrame = new ChannelHomeFrame(
-                            currentUser, channel, channelService, messageService);
-                        channelHomeFrame.setVisible(true);
-                    } else {
-                        showStatus("Please subscribe to " + channel.getName() + " to access its content", true);
-                    }
-                    
-                } catch (Exception e) {
-                    System.err.println("Failed to open channel home");
-                    e.printStackTrace();
-                    showStatus("Failed to open channel: " + e.getMessage(), true);
-                }
-            }
-        };
-        
-        worker.execute();
+        if (subscriptionStates.getOrDefault(channel.getId(), false)) {
+            ChannelHomeFrame channelHomeFrame = new ChannelHomeFrame(
+                currentUser, channel, channelService, messageService);
+            channelHomeFrame.setVisible(true);
+        } else {
+            showStatus("Please subscribe to " + channel.getName() + " to access its content", true);
+        }
     }
     
     private void showStatus(String message, boolean isError) {
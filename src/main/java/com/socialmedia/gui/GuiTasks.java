@@ -0,0 +1,36 @@
+package main.java.com.socialmedia.gui;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Hands the outcome of the services' asynchronous calls back to the Event Dispatch Thread,
+ * in place of SwingWorker. Callbacks receive either the result or the exception the call
+ * threw itself, not wrapped, so they can test it with instanceof.
+ */
+final class GuiTasks {
+
+    private GuiTasks() {
+    }
+
+    /**
+     * Runs a completion callback on the EDT once a future finishes.
+     * @param future Future to wait for
+     * @param onDone Called on the EDT with the result and null, or null and the failure
+     * @param <T> Result type
+     */
+    static <T> void whenDone(CompletableFuture<T> future, BiConsumer<? super T, Throwable> onDone) {
+        future.whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> onDone.accept(result, unwrap(error))));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
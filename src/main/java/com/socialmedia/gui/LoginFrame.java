@@ -155,34 +155,22 @@ public class LoginFrame extends JFrame {
             signUpButton.setEnabled(false);
             showStatus("Authenticating...", false);
             
-            SwingWorker<User, Void> worker = new SwingWorker<User, Void>() {
-                @Override
-                protected User doInBackground() throws Exception {
-                    return userService.authenticateUser(email, password);
+            GuiTasks.whenDone(userService.authenticateUserAsync(email, password), (user, error) -> {
+                loginButton.setEnabled(true);
+                signUpButton.setEnabled(true);
+                if (error == null) {
+                    System.out.println("User logged in successfully: " + user.getEmail());
+                    openChannelsFrame(user);
+                    return;
                 }
-                
-                @Override
-                protected void done() {
-                    try {
-                        User user = get();
-                        System.out.println("User logged in successfully: " + user.getEmail());
-                        openChannelsFrame(user);
-                    } catch (Exception ex) {
-                        System.err.println("Login failed");
-                        ex.printStackTrace();
-                        if (ex.getCause() instanceof InvalidCredentialsException) {
-                            showStatus("Invalid email or password", true);
-                        } else {
-                            showStatus("Login failed: " + ex.getMessage(), true);
-                        }
-                    } finally {
-                        loginButton.setEnabled(true);
-                        signUpButton.setEnabled(true);
-                    }
+                System.err.println("Login failed");
+                error.printStackTrace();
+                if (error instanceof InvalidCredentialsException) {
+                    showStatus("Invalid email or password", true);
+                } else {
+                    showStatus("Login failed: " + error.getMessage(), true);
                 }
-            };
-            
-            worker.execute();
+            });
         }
     }
     
@@ -206,35 +194,23 @@ public class LoginFrame extends JFrame {
             signUpButton.setEnabled(false);
             showStatus("Creating account...", false);
             
-            SwingWorker<User, Void> worker = new SwingWorker<User, Void>() {
-                @Override
-                protected User doInBackground() throws Exception {
-                    return userService.registerUser(email, password);
+            GuiTasks.whenDone(userService.registerUserAsync(email, password), (user, error) -> {
+                loginButton.setEnabled(true);
+                signUpButton.setEnabled(true);
+                if (error == null) {
+                    System.out.println("User registered successfully: " + user.getEmail());
+                    showStatus("Account created successfully! Please login.", false);
+                    clearForm();
+                    return;
                 }
-                
-                @Override
-                protected void done() {
-                    try {
-                        User user = get();
-                        System.out.println("User registered successfully: " + user.getEmail());
-                        showStatus("Account created successfully! Please login.", false);
-                        clearForm();
-                    } catch (Exception ex) {
-                        System.err.println("Registration failed");
-                        ex.printStackTrace();
-                        if (ex.getCause() instanceof UserAlreadyExistsException) {
-                            showStatus("The email address entered has already been registered.", true);
-                        } else {
-                            showStatus("Registration failed: " + ex.getMessage(), true);
-                        }
-                    } finally {
-                        loginButton.setEnabled(true);
-                        signUpButton.setEnabled(true);
-                    }
+                System.err.println("Registration failed");
+                error.printStackTrace();
+                if (error instanceof UserAlreadyExistsException) {
+                    showStatus("The email address entered has already been registered.", true);
+                } else {
+                    showStatus("Registration failed: " + error.getMessage(), true);
                 }
-            };
-            
-            worker.execute();
+            });
         }
     }
 }
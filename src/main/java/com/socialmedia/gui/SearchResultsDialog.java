@@ -0,0 +1,173 @@
+package main.java.com.socialmedia.gui;
+
+import main.java.com.socialmedia.model.Channel;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.SearchCursor;
+import main.java.com.socialmedia.model.SearchHit;
+import main.java.com.socialmedia.model.SearchResults;
+import main.java.com.socialmedia.service.ChannelDirectory;
+import main.java.com.socialmedia.service.ChannelService;
+import main.java.com.socialmedia.service.MessageService;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dialog listing full-text search results with the matched words highlighted.
+ */
+public class SearchResultsDialog extends JDialog {
+    private static final int PAGE_SIZE = 25;
+
+    private final String query;
+    private final ChannelService channelService;
+    private final MessageService messageService;
+
+    private JTextPane resultsPane;
+    private JButton loadMoreButton;
+    private JLabel statusLabel;
+    private SearchCursor nextCursor;
+    private int resultCount;
+    // Channel names for the hits; refreshed with every page
+    private volatile ChannelDirectory channelDirectory;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    public SearchResultsDialog(Frame owner, String query, ChannelService channelService, MessageService messageService) {
+        super(owner, "Search results for \"" + query + "\"", false);
+        this.query = query;
+        this.channelService = channelService;
+        this.messageService = messageService;
+
+        initializeComponents();
+        setupLayout();
+        loadResults();
+
+        setSize(600, 450);
+        setLocationRelativeTo(owner);
+    }
+
+    private void initializeComponents() {
+        resultsPane = new JTextPane();
+        resultsPane.setEditable(false);
+        resultsPane.setBackground(Color.WHITE);
+        resultsPane.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+
+        loadMoreButton = new JButton("Load more");
+        loadMoreButton.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        loadMoreButton.setVisible(false);
+        loadMoreButton.addActionListener(e -> loadResults());
+
+        statusLabel = new JLabel("Searching...");
+        statusLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        statusLabel.setForeground(Color.GRAY);
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        JScrollPane scrollPane = new JScrollPane(resultsPane);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
+
+        JPanel footerPanel = new JPanel(new BorderLayout());
+        footerPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
+        footerPanel.setBackground(new Color(248, 249, 250));
+        footerPanel.add(statusLabel, BorderLayout.WEST);
+        footerPanel.add(loadMoreButton, BorderLayout.EAST);
+
+        add(scrollPane, BorderLayout.CENTER);
+        add(footerPanel, BorderLayout.SOUTH);
+    }
+
+    private void loadResults() {
+        loadMoreButton.setEnabled(false);
+        SearchCursor cursor = nextCursor;
+
+        // Channel names for the hits are looked up while the search runs
+        CompletableFuture<SearchResults> search = channelService.getDirectoryAsync()
+                .thenCombine(messageService.searchAsync(query, null, PAGE_SIZE, cursor), (directory, results) -> {
+                    channelDirectory = directory;
+                    return results;
+                });
+        GuiTasks.whenDone(search, (results, error) -> {
+            loadMoreButton.setEnabled(true);
+            if (error != null) {
+                System.err.println("Failed to search messages");
+                error.printStackTrace();
+                statusLabel.setText("Search failed: " + error.getMessage());
+                statusLabel.setForeground(Color.RED);
+                return;
+            }
+            appendResults(results);
+            nextCursor = results.getNextCursor();
+            loadMoreButton.setVisible(results.hasMore());
+            statusLabel.setText(resultCount == 0 ? "No messages found"
+                    : resultCount + (results.hasMore() ? "+" : "") + " result(s)");
+        });
+    }
+
+    private void appendResults(SearchResults results) {
+        StyledDocument doc = resultsPane.getStyledDocument();
+        try {
+            for (SearchHit hit : results.getHits()) {
+                if (doc.getLength() > 0) {
+                    doc.insertString(doc.getLength(), "\n\n", null);
+                }
+                appendHit(doc, hit);
+                resultCount++;
+            }
+        } catch (BadLocationException e) {
+            System.err.println("Failed to display search results: " + e.getMessage());
+        }
+    }
+
+    private void appendHit(StyledDocument doc, SearchHit hit) throws BadLocationException {
+        SimpleAttributeSet channelStyle = new SimpleAttributeSet();
+        StyleConstants.setBold(channelStyle, true);
+
+        SimpleAttributeSet userStyle = new SimpleAttributeSet();
+        StyleConstants.setBold(userStyle, true);
+        StyleConstants.setForeground(userStyle, new Color(0, 123, 255));
+
+        SimpleAttributeSet timeStyle = new SimpleAttributeSet();
+        StyleConstants.setForeground(timeStyle, Color.GRAY);
+        StyleConstants.setFontSize(timeStyle, 11);
+
+        SimpleAttributeSet textStyle = new SimpleAttributeSet();
+        StyleConstants.setForeground(textStyle, Color.BLACK);
+
+        SimpleAttributeSet matchStyle = new SimpleAttributeSet(textStyle);
+        StyleConstants.setBold(matchStyle, true);
+        StyleConstants.setBackground(matchStyle, new Color(255, 243, 205));
+
+        Message message = hit.getMessage();
+        Channel channel = channelDirectory != null ? channelDirectory.getById(message.getChannelId()) : null;
+        String channelName = "#" + (channel != null ? channel.getName() : String.valueOf(message.getChannelId()));
+
+        doc.insertString(doc.getLength(), channelName + "  ", channelStyle);
+        if (message.getUserEmail() != null) {
+            doc.insertString(doc.getLength(), message.getUserEmail(), userStyle);
+        }
+        doc.insertString(doc.getLength(), " • " + message.getCreatedAt().format(timeFormatter) + "\n", timeStyle);
+
+        // Split the snippet on the highlight markers and style the matched words
+        String snippet = hit.getSnippet() != null ? hit.getSnippet() : message.getContent();
+        boolean highlighted = false;
+        int start = 0;
+        for (int i = 0; i <= snippet.length(); i++) {
+            char c = i < snippet.length() ? snippet.charAt(i) : SearchHit.HIGHLIGHT_START;
+            if (c == SearchHit.HIGHLIGHT_START || c == SearchHit.HIGHLIGHT_END) {
+                if (i > start) {
+                    doc.insertString(doc.getLength(), snippet.substring(start, i), highlighted ? matchStyle : textStyle);
+                }
+                highlighted = c == SearchHit.HIGHLIGHT_START;
+                start = i + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package main.java.com.socialmedia.importer;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for bulk imports.
+ * Usage: BulkImportCommand [--restart] &lt;users|channels|subscriptions|messages&gt; &lt;file&gt; [...]
+ * Kind/file pairs run in the order given, so users and channels should come before
+ * subscriptions and messages.
+ */
+public class BulkImportCommand {
+
+    public static void main(String[] args) {
+        boolean restart = args.length > 0 && args[0].equals("--restart");
+        int first = restart ? 1 : 0;
+        if (args.length - first < 2 || (args.length - first) % 2 != 0) {
+            System.err.println("Usage: BulkImportCommand [--restart] <users|channels|subscriptions|messages> <file> [...]");
+            System.exit(2);
+        }
+
+        DatabaseManager databaseManager = DatabaseManager.getInstance();
+        try {
+            databaseManager.initializeDatabase();
+            BulkImporter importer = new BulkImporter();
+
+            for (int i = first; i < args.length; i += 2) {
+                String kind = args[i];
+                Path file = Path.of(args[i + 1]);
+                if (restart) {
+                    importer.resetCheckpoint(kind, file);
+                }
+                switch (kind) {
+                    case "users" -> importer.importUsers(file);
+                    case "channels" -> importer.importChannels(file);
+                    case "subscriptions" -> importer.importSubscriptions(file);
+                    case "messages" -> importer.importMessages(file);
+                    default -> throw new IllegalArgumentException("Unknown import kind: " + kind);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Bulk import failed");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            databaseManager.shutdown();
+        }
+    }
+}
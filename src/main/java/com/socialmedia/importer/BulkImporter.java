@@ -0,0 +1,422 @@
+package main.java.com.socialmedia.importer;
+
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.exception.BCryptPasswordHasher;
+import main.java.com.socialmedia.model.Message;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * High-throughput loader for users, channels, subscriptions and messages.
+ * Reads CSV or JSON Lines files in a streaming fashion, hashes passwords in parallel and writes
+ * multi-row inserts inside large transactions. Progress is checkpointed in the same transaction
+ * as the rows, so a crashed import resumes exactly where it stopped.
+ *
+ * Imports hold the writer connection for their whole run and are meant for offline migration.
+ */
+public class BulkImporter {
+    // SQLite's default SQLITE_MAX_VARIABLE_NUMBER since 3.32
+    private static final int SQLITE_MAX_VARIABLES = 32766;
+    private static final DateTimeFormatter IMPORT_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final DatabaseManager databaseManager;
+    private final int batchSize;
+    private final int rowsPerStatement;
+    private final int hashingThreads;
+
+    /**
+     * Creates an importer with settings from -D system properties.
+     */
+    public BulkImporter() {
+        this(Integer.getInteger("socialmedia.import.batchSize", 10000),
+             Integer.getInteger("socialmedia.import.rowsPerStatement", 500),
+             Integer.getInteger("socialmedia.import.hashingThreads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates an importer.
+     * @param batchSize Records committed per transaction
+     * @param rowsPerStatement Rows per multi-row INSERT statement
+     * @param hashingThreads Threads used to hash passwords
+     */
+    public BulkImporter(int batchSize, int rowsPerStatement, int hashingThreads) {
+        if (batchSize < 1 || rowsPerStatement < 1 || hashingThreads < 1) {
+            throw new IllegalArgumentException("Batch size, rows per statement and hashing threads must be positive");
+        }
+        this.databaseManager = DatabaseManager.getInstance();
+        this.batchSize = batchSize;
+        this.rowsPerStatement = rowsPerStatement;
+        this.hashingThreads = hashingThreads;
+    }
+
+    /**
+     * Imports users. Columns: email, and either password (plain text, hashed here)
+     * or password_hash (already in salt:hash form). Existing emails are skipped.
+     * @param file CSV or JSONL file
+     * @return Import result
+     * @throws IOException if the file cannot be read
+     * @throws DatabaseException if database operation fails
+     */
+    public ImportResult importUsers(Path file) throws IOException, DatabaseException {
+        ExecutorService hashingPool = Executors.newFixedThreadPool(hashingThreads, r -> {
+            Thread thread = new Thread(r, "import-password-hasher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return run("users", file, new TableSpec("INSERT OR IGNORE INTO users (email, password) VALUES ", "(?, ?)", 2),
+                    (conn, records, rows) -> hashUsers(records, rows, hashingPool));
+        } finally {
+            hashingPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Imports channels. Columns: name, description. Existing names are skipped.
+     * @param file CSV or JSONL file
+     * @return Import result
+     * @throws IOException if the file cannot be read
+     * @throws DatabaseException if database operation fails
+     */
+    public ImportResult importChannels(Path file) throws IOException, DatabaseException {
+        return run("channels", file, new TableSpec("INSERT OR IGNORE INTO channels (name, description) VALUES ", "(?, ?)", 2),
+                (conn, records, rows) -> {
+                    for (Map<String, String> record : records) {
+                        String name = trimToNull(record.get("name"));
+                        if (name != null) {
+                            String description = record.get("description");
+                            rows.add(new Object[]{name, description != null ? description.trim() : ""});
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Imports subscriptions. Columns: email, channel (channel name). Users and channels must exist.
+     * @param file CSV or JSONL file
+     * @return Import result
+     * @throws IOException if the file cannot be read
+     * @throws DatabaseException if database operation fails
+     */
+    public ImportResult importSubscriptions(Path file) throws IOException, DatabaseException {
+        Lookups lookups = new Lookups();
+        return run("subscriptions", file,
+                new TableSpec("INSERT OR IGNORE INTO subscriptions (user_id, channel_id) VALUES ", "(?, ?)", 2),
+                (conn, records, rows) -> {
+                    lookups.load(conn);
+                    for (Map<String, String> record : records) {
+                        Integer userId = lookups.userId(record.get("email"));
+                        Integer channelId = lookups.channelId(record.get("channel"));
+                        if (userId != null && channelId != null) {
+                            rows.add(new Object[]{userId, channelId});
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Imports messages. Columns: channel (channel name), email, content and optional created_at
+     * ("yyyy-MM-dd HH:mm:ss", UTC). Users and channels must exist; content longer than the
+     * message limit or an unreadable created_at is skipped.
+     * @param file CSV or JSONL file
+     * @return Import result
+     * @throws IOException if the file cannot be read
+     * @throws DatabaseException if database operation fails
+     */
+    public ImportResult importMessages(Path file) throws IOException, DatabaseException {
+        Lookups lookups = new Lookups();
+        return run("messages", file,
+                new TableSpec("INSERT INTO messages (channel_id, user_id, content, created_at) VALUES ",
+                        "(?, ?, ?, ?)", 4),
+                (conn, records, rows) -> {
+                    lookups.load(conn);
+                    for (Map<String, String> record : records) {
+                        Integer channelId = lookups.channelId(record.get("channel"));
+                        Integer userId = lookups.userId(record.get("email"));
+                        String content = trimToNull(record.get("content"));
+                        if (channelId == null || userId == null || content == null
+                                || content.length() > Message.MAX_CONTENT_LENGTH) {
+                            continue;
+                        }
+                        Long createdAt = parseTimestamp(trimToNull(record.get("created_at")));
+                        if (createdAt == null) {
+                            continue;
+                        }
+                        rows.add(new Object[]{channelId, userId, content, createdAt});
+                    }
+                });
+    }
+
+    /**
+     * Forgets the saved progress for a file so the next import starts from the beginning.
+     * @param kind Import kind: users, channels, subscriptions or messages
+     * @param file Import file
+     * @throws DatabaseException if database operation fails
+     */
+    public void resetCheckpoint(String kind, Path file) throws DatabaseException {
+        try (Connection conn = databaseManager.getWriteConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM import_checkpoints WHERE source = ?")) {
+            stmt.setString(1, sourceKey(kind, file));
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to reset import checkpoint", e);
+        }
+    }
+
+    private ImportResult run(String kind, Path file, TableSpec table, RowMapper mapper)
+            throws IOException, DatabaseException {
+        String source = sourceKey(kind, file);
+        long startedAt = System.currentTimeMillis();
+        long recordsRead = 0;
+        long rowsInserted = 0;
+        long recordsSkipped = 0;
+        long resumedFrom = 0;
+        int maxRowsPerStatement = Math.max(1, Math.min(rowsPerStatement, SQLITE_MAX_VARIABLES / table.columns));
+
+        try (Connection conn = databaseManager.getWriteConnection();
+             RecordReader reader = RecordReader.open(file)) {
+
+            resumedFrom = readCheckpoint(conn, source);
+            for (long i = 0; i < resumedFrom; i++) {
+                if (reader.next() == null) {
+                    break;
+                }
+            }
+            if (resumedFrom > 0) {
+                System.out.println("Resuming " + kind + " import of " + file + " after " + resumedFrom + " records");
+            }
+
+            List<Map<String, String>> records = new ArrayList<>(batchSize);
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            long position = resumedFrom;
+            boolean endOfInput = false;
+
+            while (!endOfInput) {
+                records.clear();
+                rows.clear();
+                Map<String, String> record;
+                while (records.size() < batchSize && (record = reader.next()) != null) {
+                    records.add(record);
+                }
+                endOfInput = records.size() < batchSize;
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                conn.setAutoCommit(false);
+                try {
+                    mapper.map(conn, records, rows);
+                    rowsInserted += insertRows(conn, table, rows, maxRowsPerStatement);
+                    position += records.size();
+                    writeCheckpoint(conn, source, position);
+                    conn.commit();
+                } catch (SQLException | DatabaseException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+                recordsRead += records.size();
+                recordsSkipped += records.size() - rows.size();
+                long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+                System.out.println("Imported " + position + " " + kind + " records (" +
+                        (recordsRead * 1000 / elapsed) + " rows/s)");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to import " + kind + " from " + file);
+            e.printStackTrace();
+            throw new DatabaseException("Failed to import " + kind + " from " + file, e);
+        }
+
+        ImportResult result = new ImportResult(source, resumedFrom, recordsRead, rowsInserted,
+                recordsSkipped, System.currentTimeMillis() - startedAt);
+        System.out.println("Import finished: " + result);
+        return result;
+    }
+
+    private long insertRows(Connection conn, TableSpec table, List<Object[]> rows, int maxRowsPerStatement)
+            throws SQLException {
+        long inserted = 0;
+        for (int from = 0; from < rows.size(); from += maxRowsPerStatement) {
+            int count = Math.min(maxRowsPerStatement, rows.size() - from);
+            // Full-size chunks reuse one cached statement; only the tail of a batch prepares a new one
+            try (PreparedStatement stmt = conn.prepareStatement(table.insertSql(count))) {
+                int index = 1;
+                for (int i = from; i < from + count; i++) {
+                    for (Object value : rows.get(i)) {
+                        stmt.setObject(index++, value);
+                    }
+                }
+                inserted += stmt.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    private void hashUsers(List<Map<String, String>> records, List<Object[]> rows, ExecutorService hashingPool)
+            throws DatabaseException {
+        List<String> emails = new ArrayList<>(records.size());
+        List<Future<String>> hashes = new ArrayList<>(records.size());
+        for (Map<String, String> record : records) {
+            String email = trimToNull(record.get("email"));
+            String passwordHash = trimToNull(record.get("password_hash"));
+            String password = record.get("password");
+            if (email == null || (passwordHash == null && (password == null || password.isBlank()))) {
+                continue;
+            }
+            emails.add(email.toLowerCase(Locale.ROOT));
+            hashes.add(passwordHash != null
+                    ? CompletableFuture.completedFuture(passwordHash)
+                    : hashingPool.submit(() -> BCryptPasswordHasher.hashPassword(password)));
+        }
+
+        try {
+            for (int i = 0; i < emails.size(); i++) {
+                rows.add(new Object[]{emails.get(i), hashes.get(i).get()});
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new DatabaseException("Failed to hash password", e.getCause());
+        }
+    }
+
+    private long readCheckpoint(Connection conn, String source) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT records_committed FROM import_checkpoints WHERE source = ?")) {
+            stmt.setString(1, source);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void writeCheckpoint(Connection conn, String source, long recordsCommitted) throws SQLException {
+        String sql = """
+            INSERT INTO import_checkpoints (source, records_committed, updated_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT(source) DO UPDATE SET
+                records_committed = excluded.records_committed,
+                updated_at = excluded.updated_at
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, source);
+            stmt.setLong(2, recordsCommitted);
+            stmt.setLong(3, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String sourceKey(String kind, Path file) {
+        return kind + ":" + file.toAbsolutePath().normalize();
+    }
+
+    // Missing timestamps default to now; returns null only for values that cannot be parsed
+    private static Long parseTimestamp(String value) {
+        if (value == null) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return LocalDateTime.parse(value, IMPORT_TIMESTAMP_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Converts one batch of records into insert rows. Records that cannot be imported are left out.
+     */
+    @FunctionalInterface
+    private interface RowMapper {
+        void map(Connection conn, List<Map<String, String>> records, List<Object[]> rows)
+                throws SQLException, DatabaseException;
+    }
+
+    /**
+     * Multi-row INSERT shape for one table.
+     */
+    private static class TableSpec {
+        private final String insertPrefix;
+        private final String rowPlaceholder;
+        private final int columns;
+        private final Map<Integer, String> sqlByRowCount = new HashMap<>();
+
+        TableSpec(String insertPrefix, String rowPlaceholder, int columns) {
+            this.insertPrefix = insertPrefix;
+            this.rowPlaceholder = rowPlaceholder;
+            this.columns = columns;
+        }
+
+        String insertSql(int rowCount) {
+            return sqlByRowCount.computeIfAbsent(rowCount,
+                    n -> insertPrefix + String.join(", ", Collections.nCopies(n, rowPlaceholder)));
+        }
+    }
+
+    /**
+     * Email and channel name to ID maps, loaded once per import run after users and channels exist.
+     */
+    private static class Lookups {
+        private Map<String, Integer> userIds;
+        private Map<String, Integer> channelIds;
+
+        void load(Connection conn) throws SQLException {
+            if (userIds != null) {
+                return;
+            }
+            userIds = new HashMap<>();
+            channelIds = new HashMap<>();
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT id, email FROM users")) {
+                    while (rs.next()) {
+                        userIds.put(rs.getString(2), rs.getInt(1));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM channels")) {
+                    while (rs.next()) {
+                        channelIds.put(rs.getString(2), rs.getInt(1));
+                    }
+                }
+            }
+        }
+
+        Integer userId(String email) {
+            String key = trimToNull(email);
+            return key == null ? null : userIds.get(key.toLowerCase(Locale.ROOT));
+        }
+
+        Integer channelId(String name) {
+            String key = trimToNull(name);
+            return key == null ? null : channelIds.get(key);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package main.java.com.socialmedia.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming CSV reader. The first row is the header; quoted fields may contain commas,
+ * doubled quotes and line breaks.
+ */
+public class CsvRecordReader implements RecordReader {
+    private final BufferedReader reader;
+    private final List<String> header;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber;
+
+    public CsvRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> columns = readRow();
+        if (columns == null) {
+            throw new IOException("CSV input is empty; a header row is required");
+        }
+        List<String> trimmed = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            trimmed.add(column.trim().toLowerCase());
+        }
+        this.header = trimmed;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isEmpty()); // skip blank lines
+
+        if (row.size() > header.size()) {
+            throw new IOException("CSV line " + lineNumber + " has " + row.size() +
+                    " fields but the header has " + header.size());
+        }
+        Map<String, String> record = new LinkedHashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), i < row.size() ? row.get(i) : null);
+        }
+        return record;
+    }
+
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+
+        List<String> row = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field at CSV line " + lineNumber);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int nextChar = reader.read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                row.add(field.toString());
+                return row;
+            } else if (c == '\r') {
+                // tolerate CRLF line endings
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
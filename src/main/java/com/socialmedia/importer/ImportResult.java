@@ -0,0 +1,51 @@
+package main.java.com.socialmedia.importer;
+
+/**
+ * Outcome of one bulk import run.
+ */
+public class ImportResult {
+    private final String source;
+    private final long resumedFrom;
+    private final long recordsRead;
+    private final long rowsInserted;
+    private final long recordsSkipped;
+    private final long elapsedMillis;
+
+    public ImportResult(String source, long resumedFrom, long recordsRead, long rowsInserted,
+                        long recordsSkipped, long elapsedMillis) {
+        this.source = source;
+        this.resumedFrom = resumedFrom;
+        this.recordsRead = recordsRead;
+        this.rowsInserted = rowsInserted;
+        this.recordsSkipped = recordsSkipped;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getSource() { return source; }
+    public long getResumedFrom() { return resumedFrom; }
+    public long getRecordsRead() { return recordsRead; }
+    public long getRowsInserted() { return rowsInserted; }
+    public long getRecordsSkipped() { return recordsSkipped; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /**
+     * Gets the import throughput for this run.
+     * @return Records read per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? recordsRead : recordsRead * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "source='" + source + '\'' +
+                ", resumedFrom=" + resumedFrom +
+                ", read=" + recordsRead +
+                ", inserted=" + rowsInserted +
+                ", skipped=" + recordsSkipped +
+                ", elapsedMs=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,151 @@
+package main.java.com.socialmedia.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming JSON Lines reader. Each non-blank line is a flat JSON object whose values are
+ * strings, numbers, booleans or null; nested objects and arrays are rejected.
+ */
+public class JsonLinesRecordReader implements RecordReader {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    private String line;
+    private int pos;
+
+    public JsonLinesRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        pos = 0;
+        Map<String, String> record = new LinkedHashMap<>();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return record;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            record.put(key.toLowerCase(), readValue());
+            skipWhitespace();
+            char c = nextChar();
+            if (c == '}') {
+                return record;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String readValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Nested objects and arrays are not supported");
+        }
+        int start = pos;
+        while (pos < line.length() && ",} \t".indexOf(line.charAt(pos)) < 0) {
+            pos++;
+        }
+        String literal = line.substring(start, pos);
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.isEmpty()) {
+            throw error("Missing value");
+        }
+        return literal;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = nextChar();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = nextChar();
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > line.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (pos >= line.length()) {
+            throw error("Unexpected end of line");
+        }
+        return line.charAt(pos);
+    }
+
+    private char nextChar() throws IOException {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextChar() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at JSONL line " + lineNumber + ", column " + (pos + 1));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
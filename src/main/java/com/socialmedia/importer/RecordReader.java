@@ -0,0 +1,39 @@
+package main.java.com.socialmedia.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader of import records. Each record is a map of column name to value.
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * Reads the next record.
+     * @return Record fields by column name, or null at end of input
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Opens a reader for a file, choosing the format from its extension (.csv, .jsonl or .ndjson).
+     * @param file File to read
+     * @return Record reader
+     * @throws IOException if the file cannot be opened or the format is unknown
+     */
+    static RecordReader open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvRecordReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesRecordReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+        throw new IOException("Unsupported import file type: " + file + " (expected .csv, .jsonl or .ndjson)");
+    }
+}
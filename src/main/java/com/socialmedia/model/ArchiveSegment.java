@@ -0,0 +1,49 @@
+package main.java.com.socialmedia.model;
+
+/**
+ * Catalog entry for one archived segment file: a channel's messages from one calendar month (UTC).
+ */
+public class ArchiveSegment {
+    private final int channelId;
+    private final String period;
+    private final String fileName;
+    private final int messageCount;
+    private final MessageCursor oldest;
+    private final MessageCursor newest;
+
+    /**
+     * Creates a catalog entry.
+     * @param channelId Channel ID
+     * @param period Month covered, as yyyy-MM
+     * @param fileName Segment file relative to the archive directory
+     * @param messageCount Number of messages in the file
+     * @param oldest Position of the oldest message
+     * @param newest Position of the newest message
+     */
+    public ArchiveSegment(int channelId, String period, String fileName, int messageCount,
+                          MessageCursor oldest, MessageCursor newest) {
+        this.channelId = channelId;
+        this.period = period;
+        this.fileName = fileName;
+        this.messageCount = messageCount;
+        this.oldest = oldest;
+        this.newest = newest;
+    }
+
+    public int getChannelId() { return channelId; }
+    public String getPeriod() { return period; }
+    public String getFileName() { return fileName; }
+    public int getMessageCount() { return messageCount; }
+    public MessageCursor getOldest() { return oldest; }
+    public MessageCursor getNewest() { return newest; }
+
+    @Override
+    public String toString() {
+        return "ArchiveSegment{" +
+                "channelId=" + channelId +
+                ", period='" + period + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", messageCount=" + messageCount +
+                '}';
+    }
+}
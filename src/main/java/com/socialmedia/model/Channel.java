@@ -11,13 +11,14 @@ public class Channel {
     private int id;
     private String name;
     private String description;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
+    private LocalDateTime createdAt; // Built from createdAtMillis on first use
     
     /**
      * Default constructor for Channel.
      */
     public Channel() {
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = System.currentTimeMillis();
     }
     
     /**
@@ -42,6 +43,7 @@ public class Channel {
         this.id = id;
         this.name = name;
         this.description = description;
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
         this.createdAt = createdAt;
     }
     
@@ -55,8 +57,29 @@ public class Channel {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    /**
+     * Gets the creation time in the system time zone, converting the stored value on first call.
+     * @return Creation timestamp
+     */
+    public LocalDateTime getCreatedAt() {
+        LocalDateTime value = createdAt;
+        if (value == null) {
+            value = Timestamps.toLocalDateTime(createdAtMillis);
+            createdAt = value;
+        }
+        return value;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
+        this.createdAt = createdAt;
+    }
+    
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        this.createdAt = null;
+    }
     
     @Override
     public boolean equals(Object o) {
@@ -77,7 +100,7 @@ public class Channel {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
-                ", createdAt=" + createdAt +
+                ", createdAt=" + getCreatedAt() +
                 '}';
     }
 }
\ No newline at end of file
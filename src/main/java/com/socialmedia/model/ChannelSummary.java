@@ -0,0 +1,35 @@
+package main.java.com.socialmedia.model;
+
+/**
+ * A channel as listed in the channel directory, with the viewing user's subscription state.
+ */
+public class ChannelSummary {
+    private final Channel channel;
+    private final boolean subscribed;
+    private final int subscriberCount;
+
+    /**
+     * Creates a channel summary.
+     * @param channel Channel
+     * @param subscribed true if the viewing user is subscribed
+     * @param subscriberCount Number of subscribers
+     */
+    public ChannelSummary(Channel channel, boolean subscribed, int subscriberCount) {
+        this.channel = channel;
+        this.subscribed = subscribed;
+        this.subscriberCount = subscriberCount;
+    }
+
+    public Channel getChannel() { return channel; }
+    public boolean isSubscribed() { return subscribed; }
+    public int getSubscriberCount() { return subscriberCount; }
+
+    @Override
+    public String toString() {
+        return "ChannelSummary{" +
+                "channel=" + channel.getName() +
+                ", subscribed=" + subscribed +
+                ", subscriberCount=" + subscriberCount +
+                '}';
+    }
+}
@@ -14,14 +14,15 @@ public class Message {
     private int channelId;
     private int userId;
     private String content;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
+    private LocalDateTime createdAt; // Built from createdAtMillis on first use
     private String userEmail; // For display purposes
     
     /**
      * Default constructor for Message.
      */
     public Message() {
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = System.currentTimeMillis();
     }
     
     /**
@@ -50,6 +51,7 @@ public class Message {
         this.channelId = channelId;
         this.userId = userId;
         this.content = content;
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
         this.createdAt = createdAt;
     }
     
@@ -66,8 +68,29 @@ public class Message {
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
     
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    /**
+     * Gets the creation time in the system time zone, converting the stored value on first call.
+     * @return Creation timestamp
+     */
+    public LocalDateTime getCreatedAt() {
+        LocalDateTime value = createdAt;
+        if (value == null) {
+            value = Timestamps.toLocalDateTime(createdAtMillis);
+            createdAt = value;
+        }
+        return value;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
+        this.createdAt = createdAt;
+    }
+    
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        this.createdAt = null;
+    }
     
     public String getUserEmail() { return userEmail; }
     public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
@@ -100,7 +123,7 @@ public class Message {
                 ", channelId=" + channelId +
                 ", userId=" + userId +
                 ", content='" + content + '\'' +
-                ", createdAt=" + createdAt +
+                ", createdAt=" + getCreatedAt() +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package main.java.com.socialmedia.model;
+
+import java.util.Objects;
+
+/**
+ * Position in a newest-first message listing, keyed on (created_at, id).
+ * A page requested "before" a cursor contains only messages strictly older than it.
+ */
+public class MessageCursor {
+    private final long createdAtMillis;
+    private final int id;
+
+    /**
+     * Creates a cursor.
+     * @param createdAtMillis Creation time of the boundary message in epoch milliseconds
+     * @param id ID of the boundary message, used to break timestamp ties
+     */
+    public MessageCursor(long createdAtMillis, int id) {
+        this.createdAtMillis = createdAtMillis;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned at the given message.
+     * @param message Boundary message
+     * @return Cursor for the message
+     */
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getCreatedAtMillis(), message.getId());
+    }
+
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public int getId() { return id; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MessageCursor that = (MessageCursor) o;
+        return id == that.id && createdAtMillis == that.createdAtMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAtMillis, id);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageCursor{" +
+                "createdAtMillis=" + createdAtMillis +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package main.java.com.socialmedia.model;
+
+import java.util.List;
+
+/**
+ * One page of messages, newest first, plus the cursor for fetching the next older page.
+ */
+public class MessagePage {
+    private final List<Message> messages;
+    private final boolean hasMore;
+
+    /**
+     * Creates a page.
+     * @param messages Messages in newest-first order
+     * @param hasMore true if older messages exist beyond this page
+     */
+    public MessagePage(List<Message> messages, boolean hasMore) {
+        this.messages = List.copyOf(messages);
+        this.hasMore = hasMore;
+    }
+
+    public List<Message> getMessages() { return messages; }
+    public boolean hasMore() { return hasMore; }
+    public boolean isEmpty() { return messages.isEmpty(); }
+
+    /**
+     * Gets the cursor for the page after this one.
+     * @return Cursor at the oldest message of this page, or null if the page is empty
+     */
+    public MessageCursor getNextCursor() {
+        return messages.isEmpty() ? null : MessageCursor.of(messages.get(messages.size() - 1));
+    }
+
+    @Override
+    public String toString() {
+        return "MessagePage{" +
+                "size=" + messages.size() +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
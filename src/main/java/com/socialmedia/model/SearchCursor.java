@@ -0,0 +1,38 @@
+package main.java.com.socialmedia.model;
+
+/**
+ * Position in a relevance-ordered list of search results.
+ */
+public class SearchCursor {
+    private final int offset;
+
+    /**
+     * Creates a cursor.
+     * @param offset Number of results already returned
+     */
+    public SearchCursor(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        this.offset = offset;
+    }
+
+    public int getOffset() { return offset; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return offset == ((SearchCursor) o).offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(offset);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{offset=" + offset + '}';
+    }
+}
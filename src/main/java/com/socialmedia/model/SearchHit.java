@@ -0,0 +1,39 @@
+package main.java.com.socialmedia.model;
+
+/**
+ * A message matching a full-text search, with its relevance and a highlighted excerpt.
+ */
+public class SearchHit {
+    /** Marks the start of a matched term inside {@link #getSnippet()}. */
+    public static final char HIGHLIGHT_START = '\u0002';
+    /** Marks the end of a matched term inside {@link #getSnippet()}. */
+    public static final char HIGHLIGHT_END = '\u0003';
+
+    private final Message message;
+    private final String snippet;
+    private final double score;
+
+    /**
+     * Creates a search hit.
+     * @param message Matching message
+     * @param snippet Excerpt around the matches, with matched terms wrapped in highlight markers
+     * @param score BM25 score; lower is more relevant
+     */
+    public SearchHit(Message message, String snippet, double score) {
+        this.message = message;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    public Message getMessage() { return message; }
+    public String getSnippet() { return snippet; }
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "messageId=" + message.getId() +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package main.java.com.socialmedia.model;
+
+import java.util.List;
+
+/**
+ * One page of search hits, most relevant first, plus the cursor for the next page.
+ */
+public class SearchResults {
+    private final List<SearchHit> hits;
+    private final SearchCursor nextCursor;
+
+    /**
+     * Creates a page of results.
+     * @param hits Hits in relevance order
+     * @param nextCursor Cursor for the next page, or null if there are no more hits
+     */
+    public SearchResults(List<SearchHit> hits, SearchCursor nextCursor) {
+        this.hits = List.copyOf(hits);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SearchHit> getHits() { return hits; }
+    public SearchCursor getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+    public boolean isEmpty() { return hits.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return "SearchResults{" +
+                "size=" + hits.size() +
+                ", hasMore=" + hasMore() +
+                '}';
+    }
+}
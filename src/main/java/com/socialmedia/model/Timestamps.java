@@ -0,0 +1,32 @@
+package main.java.com.socialmedia.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions between stored epoch milliseconds and local date-times for display.
+ */
+public final class Timestamps {
+
+    private Timestamps() {
+    }
+
+    /**
+     * Converts epoch milliseconds to a date-time in the system time zone.
+     * @param epochMillis Milliseconds since 1970-01-01T00:00Z
+     * @return Local date-time
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Converts a date-time in the system time zone to epoch milliseconds.
+     * @param dateTime Local date-time
+     * @return Milliseconds since 1970-01-01T00:00Z
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
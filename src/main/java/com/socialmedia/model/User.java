@@ -11,13 +11,14 @@ public class User {
     private int id;
     private String email;
     private String password;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
+    private LocalDateTime createdAt; // Built from createdAtMillis on first use
     
     /**
      * Default constructor for User.
      */
     public User() {
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = System.currentTimeMillis();
     }
     
     /**
@@ -42,6 +43,7 @@ public class User {
         this.id = id;
         this.email = email;
         this.password = password;
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
         this.createdAt = createdAt;
     }
     
@@ -55,8 +57,29 @@ public class User {
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
     
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    /**
+     * Gets the creation time in the system time zone, converting the stored value on first call.
+     * @return Creation timestamp
+     */
+    public LocalDateTime getCreatedAt() {
+        LocalDateTime value = createdAt;
+        if (value == null) {
+            value = Timestamps.toLocalDateTime(createdAtMillis);
+            createdAt = value;
+        }
+        return value;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAtMillis = Timestamps.toEpochMillis(createdAt);
+        this.createdAt = createdAt;
+    }
+    
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        this.createdAt = null;
+    }
     
     @Override
     public boolean equals(Object o) {
@@ -76,7 +99,7 @@ public class User {
         return "User{" +
                 "id=" + id +
                 ", email='" + email + '\'' +
-                ", createdAt=" + createdAt +
+                ", createdAt=" + getCreatedAt() +
                 '}';
     }
 }
\ No newline at end of file
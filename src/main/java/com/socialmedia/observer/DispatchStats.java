@@ -0,0 +1,54 @@
+package main.java.com.socialmedia.observer;
+
+/**
+ * Point-in-time snapshot of one subscriber's delivery queue and counters.
+ */
+public class DispatchStats {
+    private final String subscriberName;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final int queued;
+    private final int maxQueued;
+    private final long delivered;
+    private final long dropped;
+    private final long lastLagMillis;
+    private final boolean disconnected;
+
+    public DispatchStats(String subscriberName, OverflowPolicy policy, int capacity, int queued, int maxQueued,
+                         long delivered, long dropped, long lastLagMillis, boolean disconnected) {
+        this.subscriberName = subscriberName;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.queued = queued;
+        this.maxQueued = maxQueued;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.lastLagMillis = lastLagMillis;
+        this.disconnected = disconnected;
+    }
+
+    public String getSubscriberName() { return subscriberName; }
+    public OverflowPolicy getPolicy() { return policy; }
+    public int getCapacity() { return capacity; }
+    public int getQueued() { return queued; }
+    public int getMaxQueued() { return maxQueued; }
+    public long getDelivered() { return delivered; }
+    public long getDropped() { return dropped; }
+    public long getLastLagMillis() { return lastLagMillis; }
+    public boolean isDisconnected() { return disconnected; }
+
+    @Override
+    public String toString() {
+        return "DispatchStats{" +
+                "subscriber='" + subscriberName + '\'' +
+                ", policy=" + policy +
+                ", capacity=" + capacity +
+                ", queued=" + queued +
+                ", maxQueued=" + maxQueued +
+                ", delivered=" + delivered +
+                ", dropped=" + dropped +
+                ", lastLagMs=" + lastLagMillis +
+                ", disconnected=" + disconnected +
+                '}';
+    }
+}
@@ -0,0 +1,288 @@
+package main.java.com.socialmedia.observer;
+
+import main.java.com.socialmedia.model.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Delivers published messages off the poster's thread. Every subscriber gets a bounded
+ * lock-free mailbox drained by a small dedicated pool, one batch at a time, so each
+ * subscriber sees messages in publish order and a slow one only fills its own mailbox.
+ * What happens when a mailbox is full is the subscriber's {@link OverflowPolicy}.
+ */
+public class MessageDispatcher {
+    private static final int THREADS = Integer.getInteger("socialmedia.dispatch.threads", 2);
+    static final int QUEUE_SIZE = Integer.getInteger("socialmedia.dispatch.queueSize", 1024);
+    static final OverflowPolicy DEFAULT_POLICY = OverflowPolicy.valueOf(
+            System.getProperty("socialmedia.dispatch.overflow", "DROP_OLDEST").toUpperCase(Locale.ROOT));
+    private static final long BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("socialmedia.dispatch.blockMillis", 500));
+    // Messages delivered per turn before a mailbox yields its thread to the others
+    private static final int BATCH_SIZE = 64;
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService DELIVERERS = Executors.newFixedThreadPool(Math.max(1, THREADS), runnable -> {
+        Thread thread = new Thread(runnable, "message-dispatch-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentHashMap<MessageSubscriber, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Consumer<MessageSubscriber> onOverflowDisconnect;
+
+    /**
+     * Creates a dispatcher.
+     * @param onOverflowDisconnect Called with a subscriber its {@link OverflowPolicy#DISCONNECT} policy dropped
+     */
+    public MessageDispatcher(Consumer<MessageSubscriber> onOverflowDisconnect) {
+        this.onOverflowDisconnect = onOverflowDisconnect;
+    }
+
+    /**
+     * Gets a subscriber's mailbox, creating it on first use. The policy and the demand mode
+     * of an existing mailbox are kept.
+     * @param subscriber Subscriber
+     * @param policy Overflow policy for a new mailbox
+     * @param demandDriven Whether delivery waits for {@link Mailbox#request(long)} instead of being unbounded
+     * @return Mailbox of the subscriber
+     */
+    Mailbox register(MessageSubscriber subscriber, OverflowPolicy policy, boolean demandDriven) {
+        return mailboxes.computeIfAbsent(subscriber, s -> new Mailbox(s, policy, QUEUE_SIZE, demandDriven ? 0 : UNBOUNDED));
+    }
+
+    /**
+     * Gets a subscriber's mailbox.
+     * @param subscriber Subscriber
+     * @return Mailbox, or null if the subscriber is not registered
+     */
+    Mailbox lookup(MessageSubscriber subscriber) {
+        return mailboxes.get(subscriber);
+    }
+
+    /**
+     * Closes a subscriber's mailbox; queued messages are discarded and nothing more is delivered.
+     * @param subscriber Subscriber
+     */
+    void remove(MessageSubscriber subscriber) {
+        Mailbox mailbox = mailboxes.remove(subscriber);
+        if (mailbox != null) {
+            mailbox.close(null);
+        }
+    }
+
+    /**
+     * Closes every mailbox.
+     */
+    void clear() {
+        for (MessageSubscriber subscriber : mailboxes.keySet()) {
+            remove(subscriber);
+        }
+    }
+
+    /**
+     * Gets the number of subscribers with a mailbox.
+     * @return Number of subscribers
+     */
+    int size() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Gets the queue depth and counters of every subscriber.
+     * @return One snapshot per subscriber
+     */
+    public List<DispatchStats> getStats() {
+        List<DispatchStats> stats = new ArrayList<>(mailboxes.size());
+        for (Mailbox mailbox : mailboxes.values()) {
+            stats.add(mailbox.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Bounded queue of the messages one subscriber has not been handed yet. Any number of
+     * posters offer concurrently; a slot is reserved by a CAS on {@code size} before the
+     * message is queued, so the bound holds without a lock. At most one pool thread drains
+     * it at a time, and every signal to the subscriber, including the disconnect notice,
+     * goes through that drain so signals never overlap.
+     */
+    final class Mailbox {
+        private final MessageSubscriber subscriber;
+        private final OverflowPolicy policy;
+        private final int capacity;
+        private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+        // Reserved slots: queued messages plus offers between their CAS and their enqueue
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Messages the subscriber has asked for and not yet received; UNBOUNDED for plain subscribers
+        private final AtomicLong demand;
+        private final AtomicInteger maxQueued = new AtomicInteger();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private volatile long lastLagMillis;
+        private volatile boolean closed;
+        // Set when the subscriber is owed a disconnect notice, taken by the drain that sends it
+        private volatile String disconnectReason;
+
+        private Mailbox(MessageSubscriber subscriber, OverflowPolicy policy, int capacity, long initialDemand) {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.capacity = Math.max(1, capacity);
+            this.demand = new AtomicLong(initialDemand);
+        }
+
+        /**
+         * Queues a message for the subscriber, applying the overflow policy if it is full.
+         * @param message Message to deliver
+         */
+        void offer(Message message) {
+            if (closed) {
+                return;
+            }
+            long blockedSince = 0;
+            while (true) {
+                int reserved = size.get();
+                if (reserved < capacity) {
+                    if (size.compareAndSet(reserved, reserved + 1)) {
+                        break;
+                    }
+                    continue;
+                }
+                switch (policy) {
+                    case DROP_OLDEST -> {
+                        if (queue.poll() != null) {
+                            size.decrementAndGet();
+                            dropped.increment();
+                        } else {
+                            // Full of reservations whose messages are not queued yet
+                            Thread.onSpinWait();
+                        }
+                    }
+                    case BLOCK -> {
+                        long now = System.nanoTime();
+                        if (blockedSince == 0) {
+                            blockedSince = now;
+                        } else if (now - blockedSince > BLOCK_NANOS || closed) {
+                            dropped.increment();
+                            return;
+                        }
+                        LockSupport.parkNanos(50_000);
+                    }
+                    case DISCONNECT -> {
+                        dropped.increment();
+                        close("Fell " + capacity + " messages behind");
+                        onOverflowDisconnect.accept(subscriber);
+                        return;
+                    }
+                }
+            }
+            queue.offer(message);
+            maxQueued.accumulateAndGet(size.get(), Math::max);
+            schedule();
+        }
+
+        /**
+         * Adds to the number of messages the subscriber is ready for and resumes delivery.
+         * @param n Number of further messages, positive
+         */
+        void request(long n) {
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? UNBOUNDED : current + added);
+            schedule();
+        }
+
+        /**
+         * Stops delivery and discards queued messages.
+         * @param reason Disconnect notice to send the subscriber, or null to close silently
+         */
+        void close(String reason) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (reason != null) {
+                disconnectReason = reason;
+                System.err.println("Disconnecting subscriber " + subscriber.getClass().getSimpleName() + ": " + reason);
+            }
+            schedule();
+        }
+
+        String getSubscriberName() {
+            return subscriber.getClass().getSimpleName();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                DELIVERERS.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                int sent = 0;
+                while (!closed && sent < BATCH_SIZE && hasDemand()) {
+                    Message message = queue.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    size.decrementAndGet();
+                    if (demand.get() != UNBOUNDED) {
+                        demand.decrementAndGet();
+                    }
+                    deliver(message);
+                    sent++;
+                }
+                if (closed) {
+                    queue.clear();
+                    size.set(0);
+                    String reason = disconnectReason;
+                    if (reason != null) {
+                        disconnectReason = null;
+                        subscriber.onDisconnected(reason);
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error notifying subscriber: " + subscriber.getClass().getSimpleName());
+                e.printStackTrace();
+            } finally {
+                scheduled.set(false);
+            }
+            // Work that arrived after the last poll, or that a full batch left behind
+            if ((!queue.isEmpty() && hasDemand() && !closed) || disconnectReason != null) {
+                schedule();
+            }
+        }
+
+        private void deliver(Message message) {
+            try {
+                subscriber.onMessageReceived(message);
+                delivered.increment();
+                lastLagMillis = Math.max(0, System.currentTimeMillis() - message.getCreatedAtMillis());
+            } catch (Exception e) {
+                System.err.println("Error notifying subscriber: " + subscriber.getClass().getSimpleName());
+                e.printStackTrace();
+            }
+        }
+
+        private boolean hasDemand() {
+            return demand.get() > 0;
+        }
+
+        private DispatchStats stats() {
+            return new DispatchStats(subscriber.getClass().getSimpleName(), policy, capacity,
+                    Math.max(0, size.get()), maxQueued.get(), delivered.sum(), dropped.sum(), lastLagMillis, closed);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package main.java.com.socialmedia.observer;
+
+import main.java.com.socialmedia.model.Message;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Exposes one topic of a {@link MessagePublisher} as a {@link Flow.Publisher}. Messages are
+ * delivered only as far as each subscriber has requested; the rest wait in its mailbox, and
+ * once that is full the overflow policy applies. A subscriber disconnected by
+ * {@link OverflowPolicy#DISCONNECT} receives {@code onError}. The stream never completes.
+ */
+public class MessageFlowPublisher implements Flow.Publisher<Message> {
+    private final MessagePublisher publisher;
+    private final int channelId;
+    private final OverflowPolicy policy;
+
+    /**
+     * Creates an adapter for one channel.
+     * @param publisher Publisher to subscribe to
+     * @param channelId Channel ID, or {@link MessagePublisher#ALL_CHANNELS}
+     * @param policy Overflow policy for every flow subscriber
+     */
+    public MessageFlowPublisher(MessagePublisher publisher, int channelId, OverflowPolicy policy) {
+        if (publisher == null || policy == null) {
+            throw new IllegalArgumentException("Publisher and policy cannot be null");
+        }
+        this.publisher = publisher;
+        this.channelId = channelId;
+        this.policy = policy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Message> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        FlowSubscription subscription = new FlowSubscription(subscriber);
+        // onSubscribe comes first; nothing is delivered before the first request anyway
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    /**
+     * Bridges one flow subscriber onto a demand-driven mailbox. Every signal to the flow
+     * subscriber is made by the mailbox's drain, so they are serialized as Flow requires.
+     */
+    private class FlowSubscription implements Flow.Subscription, MessageSubscriber {
+        private final Flow.Subscriber<? super Message> subscriber;
+        private volatile MessageDispatcher.Mailbox mailbox;
+        private long pendingDemand;
+        private boolean cancelled;
+        // Error owed to the subscriber, signalled by the mailbox's drain so it cannot overlap onNext
+        private volatile Throwable pendingError;
+
+        FlowSubscription(Flow.Subscriber<? super Message> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void start() {
+            if (pendingError != null) {
+                // Failed inside onSubscribe; no drain exists yet, so this is the only signal in flight
+                subscriber.onError(pendingError);
+                return;
+            }
+            if (cancelled) {
+                return;
+            }
+            mailbox = publisher.subscribeOnDemand(this, channelId, policy);
+            if (pendingDemand > 0) {
+                mailbox.request(pendingDemand);
+            }
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                String reason = "Requested " + n + " messages; demand must be positive";
+                pendingError = new IllegalArgumentException(reason);
+                cancelled = true;
+                if (mailbox != null) {
+                    // The drain delivers the error after any onNext in progress
+                    mailbox.close(reason);
+                    publisher.unsubscribe(this);
+                }
+                return;
+            }
+            if (mailbox == null) {
+                // Requested from inside onSubscribe, before the mailbox exists
+                pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+            } else {
+                mailbox.request(n);
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                publisher.unsubscribe(this);
+            }
+        }
+
+        @Override
+        public void onMessageReceived(Message message) {
+            subscriber.onNext(message);
+        }
+
+        @Override
+        public void onDisconnected(String reason) {
+            Throwable error = pendingError;
+            subscriber.onError(error != null ? error : new IllegalStateException(reason));
+        }
+    }
+}
@@ -3,39 +3,117 @@ package main.java.com.socialmedia.observer;
 import main.java.com.socialmedia.model.Message;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Publisher in the Observer pattern for message broadcasting.
- * Notifies all subscribers when new messages are posted.
+ * Subscribers register for the channels they display, or for {@link #ALL_CHANNELS};
+ * a message is only delivered to its channel's subscribers and the wildcard ones.
+ * Publishing only queues the message; a {@link MessageDispatcher} delivers it on its own
+ * threads, so a slow subscriber never holds up the poster beyond its overflow policy.
  */
 public class MessagePublisher {
-    private final List<MessageSubscriber> subscribers = new CopyOnWriteArrayList<>();
-    
+    /** Topic that receives messages from every channel. */
+    public static final int ALL_CHANNELS = -1;
+
+    // Channel ID (or ALL_CHANNELS) to its subscribers' mailboxes; lists are copy-on-write so publishing never locks
+    private final ConcurrentHashMap<Integer, CopyOnWriteArrayList<MessageDispatcher.Mailbox>> subscribersByChannel = new ConcurrentHashMap<>();
+    private final MessageDispatcher dispatcher = new MessageDispatcher(this::unsubscribe);
+
     /**
-     * Adds a subscriber to receive message notifications.
+     * Adds a subscriber to receive messages from every channel.
      * @param subscriber Subscriber to add
      */
     public void subscribe(MessageSubscriber subscriber) {
-        if (subscriber != null && !subscribers.contains(subscriber)) {
-            subscribers.add(subscriber);
-            System.out.println("Subscriber added: " + subscriber.getClass().getSimpleName());
+        subscribe(subscriber, ALL_CHANNELS);
+    }
+
+    /**
+     * Adds a subscriber to receive messages posted to one channel.
+     * @param subscriber Subscriber to add
+     * @param channelId Channel ID, or {@link #ALL_CHANNELS}
+     */
+    public void subscribe(MessageSubscriber subscriber, int channelId) {
+        subscribe(subscriber, channelId, MessageDispatcher.DEFAULT_POLICY);
+    }
+
+    /**
+     * Adds a subscriber to receive messages posted to one channel, choosing what happens
+     * when it falls behind. A subscriber already registered keeps its first policy.
+     * @param subscriber Subscriber to add
+     * @param channelId Channel ID, or {@link #ALL_CHANNELS}
+     * @param policy Overflow policy for the subscriber's queue
+     */
+    public void subscribe(MessageSubscriber subscriber, int channelId, OverflowPolicy policy) {
+        if (subscriber != null) {
+            addToTopic(dispatcher.register(subscriber, policy, false), channelId);
         }
     }
-    
+
     /**
-     * Removes a subscriber from message notifications.
+     * Adds a subscriber whose deliveries wait for demand signalled through the returned mailbox.
+     * @param subscriber Subscriber to add
+     * @param channelId Channel ID, or {@link #ALL_CHANNELS}
+     * @param policy Overflow policy for the subscriber's queue
+     * @return Mailbox to signal demand on
+     */
+    MessageDispatcher.Mailbox subscribeOnDemand(MessageSubscriber subscriber, int channelId, OverflowPolicy policy) {
+        MessageDispatcher.Mailbox mailbox = dispatcher.register(subscriber, policy, true);
+        addToTopic(mailbox, channelId);
+        return mailbox;
+    }
+
+    private void addToTopic(MessageDispatcher.Mailbox mailbox, int channelId) {
+        subscribersByChannel.compute(channelId, (id, subscribers) -> {
+            CopyOnWriteArrayList<MessageDispatcher.Mailbox> updated = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+            if (updated.addIfAbsent(mailbox)) {
+                System.out.println("Subscriber added: " + mailbox.getSubscriberName() + " for " + describe(id));
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Removes a subscriber from every channel it was subscribed to.
      * @param subscriber Subscriber to remove
      */
     public void unsubscribe(MessageSubscriber subscriber) {
         if (subscriber != null) {
-            subscribers.remove(subscriber);
+            MessageDispatcher.Mailbox mailbox = dispatcher.lookup(subscriber);
+            if (mailbox == null) {
+                return;
+            }
+            for (Integer channelId : subscribersByChannel.keySet()) {
+                removeFrom(channelId, mailbox);
+            }
+            dispatcher.remove(subscriber);
             System.out.println("Subscriber removed: " + subscriber.getClass().getSimpleName());
         }
     }
-    
+
+    /**
+     * Removes a subscriber from one channel.
+     * @param subscriber Subscriber to remove
+     * @param channelId Channel ID, or {@link #ALL_CHANNELS}
+     */
+    public void unsubscribe(MessageSubscriber subscriber, int channelId) {
+        MessageDispatcher.Mailbox mailbox = subscriber != null ? dispatcher.lookup(subscriber) : null;
+        if (mailbox == null) {
+            return;
+        }
+        removeFrom(channelId, mailbox);
+        // Its last topic gone, the subscriber no longer needs a mailbox
+        for (List<MessageDispatcher.Mailbox> subscribers : subscribersByChannel.values()) {
+            if (subscribers.contains(mailbox)) {
+                return;
+            }
+        }
+        dispatcher.remove(subscriber);
+    }
+
     /**
-     * Publishes a message to all subscribers.
+     * Publishes a message to the subscribers of its channel and the wildcard subscribers.
      * @param message Message to publish
      */
     public void publishMessage(Message message) {
@@ -43,33 +121,70 @@ public class MessagePublisher {
             System.out.println("Warning: Attempted to publish null message");
             return;
         }
-        
-        System.out.println("Publishing message to " + subscribers.size() + " subscribers");
-        
-        // Notify all subscribers in parallel to avoid blocking
-        subscribers.parallelStream().forEach(subscriber -> {
-            try {
-                subscriber.onMessageReceived(message);
-            } catch (Exception e) {
-                System.err.println("Error notifying subscriber: " + subscriber.getClass().getSimpleName());
-                e.printStackTrace();
+
+        List<MessageDispatcher.Mailbox> channelSubscribers = subscribersOf(message.getChannelId());
+        List<MessageDispatcher.Mailbox> wildcardSubscribers = subscribersOf(ALL_CHANNELS);
+        System.out.println("Publishing message to " + (channelSubscribers.size() + wildcardSubscribers.size()) + " subscribers");
+
+        for (MessageDispatcher.Mailbox mailbox : channelSubscribers) {
+            mailbox.offer(message);
+        }
+        for (MessageDispatcher.Mailbox mailbox : wildcardSubscribers) {
+            // One following both topics hears it once
+            if (!channelSubscribers.contains(mailbox)) {
+                mailbox.offer(message);
             }
-        });
+        }
     }
-    
+
     /**
-     * Gets the number of current subscribers.
+     * Gets the number of current subscribers, each counted once however many channels it follows.
      * @return Number of subscribers
      */
     public int getSubscriberCount() {
-        return subscribers.size();
+        return dispatcher.size();
     }
-    
+
+    /**
+     * Gets the number of subscribers registered for one channel, not counting wildcard ones.
+     * @param channelId Channel ID, or {@link #ALL_CHANNELS}
+     * @return Number of subscribers
+     */
+    public int getSubscriberCount(int channelId) {
+        return subscribersOf(channelId).size();
+    }
+
     /**
      * Removes all subscribers.
      */
     public void clearSubscribers() {
-        subscribers.clear();
+        subscribersByChannel.clear();
+        dispatcher.clear();
         System.out.println("All subscribers cleared");
     }
+
+    /**
+     * Gets the queue depth, lag and drop counters of every subscriber.
+     * @return One snapshot per subscriber
+     */
+    public List<DispatchStats> getDispatchStats() {
+        return dispatcher.getStats();
+    }
+
+    private List<MessageDispatcher.Mailbox> subscribersOf(int channelId) {
+        List<MessageDispatcher.Mailbox> subscribers = subscribersByChannel.get(channelId);
+        return subscribers != null ? subscribers : List.of();
+    }
+
+    private void removeFrom(int channelId, MessageDispatcher.Mailbox mailbox) {
+        // Drop the topic once its last subscriber leaves so closed windows do not leave empty entries
+        subscribersByChannel.computeIfPresent(channelId, (id, subscribers) -> {
+            subscribers.remove(mailbox);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static String describe(int channelId) {
+        return channelId == ALL_CHANNELS ? "all channels" : "channel " + channelId;
+    }
 }
@@ -12,4 +12,12 @@ public interface MessageSubscriber {
      * @param message The received message
      */
     void onMessageReceived(Message message);
+
+    /**
+     * Called once when the publisher drops this subscriber because its queue overflowed
+     * under {@link OverflowPolicy#DISCONNECT}. No messages follow.
+     * @param reason Why the subscriber was disconnected
+     */
+    default void onDisconnected(String reason) {
+    }
 }
\ No newline at end of file
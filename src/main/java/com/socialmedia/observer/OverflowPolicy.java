@@ -0,0 +1,22 @@
+package main.java.com.socialmedia.observer;
+
+/**
+ * What the dispatcher does when a subscriber's queue is full because it cannot keep up.
+ */
+public enum OverflowPolicy {
+    /**
+     * The poster waits for room, up to -Dsocialmedia.dispatch.blockMillis, then the new
+     * message is dropped. Never loses messages from a subscriber that is only briefly slow.
+     */
+    BLOCK,
+    /**
+     * The oldest queued message is discarded to make room. Posters never wait; a live view
+     * that fell behind skips ahead.
+     */
+    DROP_OLDEST,
+    /**
+     * The subscriber is unsubscribed and told so through
+     * {@link MessageSubscriber#onDisconnected(String)}. Posters never wait.
+     */
+    DISCONNECT
+}
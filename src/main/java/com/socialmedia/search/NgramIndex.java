@@ -0,0 +1,480 @@
+package main.java.com.socialmedia.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for fuzzy lookup-as-you-type over short texts such as names and emails.
+ * Every word is padded like "  word " before it is split into trigrams, so the leading trigrams
+ * double as a prefix index and one- or two-letter queries still work. Postings hold primitive int
+ * slots; candidates are ranked by trigram (Jaccard) similarity with a bonus for prefix and substring
+ * matches.
+ *
+ * Thread-safe: searches run concurrently under a read lock, updates take the write lock.
+ */
+public class NgramIndex {
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_BONUS = 2.0;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+    private final Map<Integer, Integer> slotsById = new HashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Per-slot data; a replaced entry keeps its slot, a removed one leaves a slot whose id is -1
+    // until removed slots outnumber live ones and the arrays are compacted
+    private int[] slotIds = new int[MIN_CAPACITY];
+    private String[] slotTexts = new String[MIN_CAPACITY];
+    private String[] normalizedTexts = new String[MIN_CAPACITY];
+    private int[] slotGramCounts = new int[MIN_CAPACITY];
+    private int slotCount;
+
+    /**
+     * Adds an entry, replacing any previous text for the same ID. Putting the text an entry
+     * already has is a lookup under the read lock, so periodic re-indexing stays cheap.
+     * @param id Entry ID
+     * @param text Text to index
+     */
+    public void put(int id, String text) {
+        if (text == null || text.equals(getText(id))) {
+            return;
+        }
+        String normalized = normalize(text);
+        long[] grams = grams(normalized, false);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotsById.get(id);
+            int slot;
+            if (previous != null) {
+                slot = previous;
+                removeSlot(slot);
+            } else {
+                slot = slotCount++;
+                ensureCapacity(slotCount);
+                slotsById.put(id, slot);
+            }
+            slotIds[slot] = id;
+            slotTexts[slot] = text;
+            normalizedTexts[slot] = normalized;
+            slotGramCounts[slot] = grams.length;
+
+            for (long gram : grams) {
+                postingsByGram.computeIfAbsent(gram, g -> new Postings()).add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an entry.
+     * @param id Entry ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot != null) {
+                removeSlot(slot);
+                if (slotCount - slotsById.size() > slotsById.size()) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the original text of an entry.
+     * @param id Entry ID
+     * @return Indexed text, or null if not present
+     */
+    public String getText(int id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            return slot != null ? slotTexts[slot] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the entries that best match a partially typed query.
+     * The last query word matches as a prefix; about half of the query's trigrams must match,
+     * which tolerates small typos in longer queries.
+     * @param query Query text
+     * @param limit Maximum number of results
+     * @return IDs of matching entries, best match first
+     */
+    public int[] search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return new int[0];
+        }
+        String normalizedQuery = normalize(query);
+        long[] queryGrams = grams(normalizedQuery, true);
+        if (queryGrams.length == 0) {
+            return new int[0];
+        }
+        int minMatches = queryGrams.length <= 2 ? queryGrams.length : (queryGrams.length + 1) / 2;
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[queryGrams.length];
+            int listCount = 0;
+            for (long gram : queryGrams) {
+                Postings postings = postingsByGram.get(gram);
+                if (postings != null) {
+                    lists[listCount++] = postings;
+                }
+            }
+            if (listCount < minMatches) {
+                return new int[0];
+            }
+            Arrays.sort(lists, 0, listCount, (a, b) -> Integer.compare(a.size, b.size));
+
+            Scratch s = scratch.get();
+            s.ensureCapacity(slotCount);
+            int touchedCount = 0;
+
+            // A match must appear in at least one of the shortest (lists - minMatches + 1) lists,
+            // so only those introduce candidates; longer lists just confirm existing ones
+            int seedLists = listCount - minMatches + 1;
+            for (int l = 0; l < seedLists; l++) {
+                Postings postings = lists[l];
+                for (int i = 0; i < postings.size; i++) {
+                    int slot = postings.slots[i];
+                    if (s.counts[slot]++ == 0) {
+                        s.touched[touchedCount++] = slot;
+                    }
+                }
+            }
+            for (int l = seedLists; l < listCount; l++) {
+                Postings postings = lists[l];
+                if (touchedCount * 16 < postings.size) {
+                    for (int i = 0; i < touchedCount; i++) {
+                        int slot = s.touched[i];
+                        if (Arrays.binarySearch(postings.slots, 0, postings.size, slot) >= 0) {
+                            s.counts[slot]++;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < postings.size; i++) {
+                        int slot = postings.slots[i];
+                        if (s.counts[slot] > 0) {
+                            s.counts[slot]++;
+                        }
+                    }
+                }
+            }
+
+            TopK top = new TopK(limit);
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = s.touched[i];
+                int matches = s.counts[slot];
+                s.counts[slot] = 0;
+                if (matches < minMatches) {
+                    continue;
+                }
+                double similarity = (double) matches / (queryGrams.length + slotGramCounts[slot] - matches);
+                // Skip the string comparisons when even the largest bonus could not make the cut
+                if (top.isFull() && similarity + MAX_BONUS < top.worstScore()) {
+                    continue;
+                }
+                top.offer(slotIds[slot], similarity + bonus(slot, normalizedQuery), normalizedTexts[slot].length());
+            }
+            return top.toSortedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranks prefix matches first, then matches at a word start, then other substring matches
+    private double bonus(int slot, String normalizedQuery) {
+        String text = normalizedTexts[slot];
+        if (text.startsWith(normalizedQuery)) {
+            return MAX_BONUS;
+        }
+        int index = text.indexOf(normalizedQuery);
+        if (index > 0 && text.charAt(index - 1) == ' ') {
+            return 1.5;
+        }
+        return index > 0 ? 1.0 : 0.0;
+    }
+
+    private void removeSlot(int slot) {
+        for (long gram : grams(normalizedTexts[slot], false)) {
+            Postings postings = postingsByGram.get(gram);
+            if (postings != null) {
+                postings.remove(slot);
+                if (postings.size == 0) {
+                    postingsByGram.remove(gram);
+                }
+            }
+        }
+        slotIds[slot] = -1;
+        slotTexts[slot] = null;
+        normalizedTexts[slot] = "";
+        slotGramCounts[slot] = 0;
+    }
+
+    // Renumbers live slots in their existing order, so every postings list stays sorted
+    private void compact() {
+        int live = slotsById.size();
+        int capacity = Math.max(MIN_CAPACITY, live * 2);
+        int[] ids = new int[capacity];
+        String[] texts = new String[capacity];
+        String[] normalized = new String[capacity];
+        int[] gramCounts = new int[capacity];
+        int[] newSlots = new int[slotCount];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotIds[slot] < 0) {
+                continue;
+            }
+            ids[next] = slotIds[slot];
+            texts[next] = slotTexts[slot];
+            normalized[next] = normalizedTexts[slot];
+            gramCounts[next] = slotGramCounts[slot];
+            slotsById.put(slotIds[slot], next);
+            newSlots[slot] = next++;
+        }
+        for (Postings postings : postingsByGram.values()) {
+            postings.renumber(newSlots);
+        }
+        slotIds = ids;
+        slotTexts = texts;
+        normalizedTexts = normalized;
+        slotGramCounts = gramCounts;
+        slotCount = next;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= slotIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, slotIds.length * 2);
+        slotIds = Arrays.copyOf(slotIds, capacity);
+        slotTexts = Arrays.copyOf(slotTexts, capacity);
+        normalizedTexts = Arrays.copyOf(normalizedTexts, capacity);
+        slotGramCounts = Arrays.copyOf(slotGramCounts, capacity);
+    }
+
+    /**
+     * Lower-cases the text and turns everything except letters and digits into single spaces.
+     * @param text Text to normalize
+     * @return Normalized text
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits normalized text into distinct padded trigrams, each packed into a long.
+     * @param normalized Normalized text
+     * @param prefixQuery true to leave the last word open-ended so it matches as a prefix
+     * @return Sorted distinct trigrams
+     */
+    static long[] grams(String normalized, boolean prefixQuery) {
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        String[] words = normalized.split(" ");
+        long[] grams = new long[normalized.length() + 3 * words.length];
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            boolean openEnded = prefixQuery && w == words.length - 1;
+            String padded = "  " + words[w] + (openEnded ? "" : " ");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Sorted, growable list of slots containing one trigram.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            // New entries get increasing slots, so only a replaced entry inserts mid-list
+            int index = size;
+            if (size > 0 && slots[size - 1] > slot) {
+                index = -Arrays.binarySearch(slots, 0, size, slot) - 1;
+                System.arraycopy(slots, index, slots, index + 1, size - index);
+            }
+            slots[index] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+                size--;
+            }
+        }
+
+        // Removed slots have no postings, so every slot here has a new number
+        void renumber(int[] newSlots) {
+            for (int i = 0; i < size; i++) {
+                slots[i] = newSlots[slots[i]];
+            }
+        }
+    }
+
+    /**
+     * Per-thread counters reused across searches so a lookup allocates almost nothing.
+     */
+    private static final class Scratch {
+        private int[] counts = new int[0];
+        private int[] touched = new int[0];
+
+        void ensureCapacity(int slots) {
+            if (counts.length < slots) {
+                int capacity = Math.max(slots, counts.length * 2);
+                counts = new int[capacity];
+                touched = new int[capacity];
+            } else if (counts.length > 4 * Math.max(slots, MIN_CAPACITY)) {
+                // The index was compacted since this thread last searched
+                counts = new int[slots * 2];
+                touched = new int[slots * 2];
+            }
+        }
+    }
+
+    /**
+     * Keeps the best results in a small min-heap ordered by score, then shorter text.
+     */
+    private static final class TopK {
+        private final int[] ids;
+        private final double[] scores;
+        private final int[] lengths;
+        private int size;
+
+        TopK(int limit) {
+            this.ids = new int[limit];
+            this.scores = new double[limit];
+            this.lengths = new int[limit];
+        }
+
+        void offer(int id, double score, int length) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                lengths[size] = length;
+                siftUp(size++);
+            } else if (better(score, length, scores[0], lengths[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                lengths[0] = length;
+                siftDown(0);
+            }
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        double worstScore() {
+            return scores[0];
+        }
+
+        int[] toSortedIds() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                swap(0, --size);
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private static boolean better(double score, int length, double otherScore, int otherLength) {
+            return score > otherScore || (score == otherScore && length < otherLength);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(scores[parent], lengths[parent], scores[index], lengths[index])) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && better(scores[worst], lengths[worst], scores[left], lengths[left])) {
+                    worst = left;
+                }
+                if (right < size && better(scores[worst], lengths[worst], scores[right], lengths[right])) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int length = lengths[a];
+            lengths[a] = lengths[b];
+            lengths[b] = length;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package main.java.com.socialmedia.search;
+
+import main.java.com.socialmedia.dao.UserDAO;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide lookup-as-you-type index of user emails, used for @mention suggestions.
+ * Loaded once from the database and updated as users register; users added by a bulk
+ * import appear after the next restart.
+ */
+public class UserSearchIndex {
+    private static UserSearchIndex instance;
+
+    private final NgramIndex index = new NgramIndex();
+    private volatile boolean loaded;
+
+    private UserSearchIndex() {
+    }
+
+    /**
+     * Gets the singleton instance of UserSearchIndex.
+     * @return UserSearchIndex instance
+     */
+    public static synchronized UserSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new UserSearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads all user emails if that has not happened yet.
+     * @throws DatabaseException if database operation fails
+     */
+    public void ensureLoaded() throws DatabaseException {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            Map<Integer, String> emails = new UserDAO().getUserEmails();
+            for (Map.Entry<Integer, String> entry : emails.entrySet()) {
+                index.put(entry.getKey(), entry.getValue());
+            }
+            loaded = true;
+            System.out.println("User search index loaded with " + emails.size() + " users in " +
+                    (System.nanoTime() - startedAt) / 1_000_000 + " ms");
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds a newly registered user.
+     * @param user User with ID and email set
+     */
+    public void add(User user) {
+        index.put(user.getId(), user.getEmail());
+    }
+
+    /**
+     * Suggests user emails for partially typed input, using only what is already loaded.
+     * @param query Partial email or name
+     * @param limit Maximum number of suggestions
+     * @return Matching emails, best match first
+     */
+    public List<String> suggestEmails(String query, int limit) {
+        int[] ids = index.search(query, limit);
+        List<String> emails = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            String email = index.getText(id);
+            if (email != null) {
+                emails.add(email);
+            }
+        }
+        return emails;
+    }
+}
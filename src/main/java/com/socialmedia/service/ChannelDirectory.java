@@ -0,0 +1,103 @@
+package main.java.com.socialmedia.service;
+
+import main.java.com.socialmedia.model.Channel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of all channels, ordered by name, with lookups by ID and name.
+ * Lookups never lock or allocate; changes produce a new snapshot.
+ * Channels held here are shared and must not be modified by callers.
+ */
+public final class ChannelDirectory {
+    private static final Comparator<Channel> BY_NAME = Comparator.comparing(Channel::getName);
+
+    private final List<Channel> channels;
+    private final int[] sortedIds;
+    private final Channel[] channelsById;
+    private final Map<String, Channel> channelsByName;
+
+    private ChannelDirectory(List<Channel> orderedChannels) {
+        this.channels = Collections.unmodifiableList(orderedChannels);
+
+        // Parallel arrays sorted by ID give allocation-free lookups without boxing the key
+        Channel[] byId = orderedChannels.toArray(new Channel[0]);
+        Arrays.sort(byId, Comparator.comparingInt(Channel::getId));
+        this.channelsById = byId;
+        this.sortedIds = new int[byId.length];
+        for (int i = 0; i < byId.length; i++) {
+            sortedIds[i] = byId[i].getId();
+        }
+
+        Map<String, Channel> byName = new HashMap<>(orderedChannels.size() * 2);
+        for (Channel channel : orderedChannels) {
+            byName.put(channel.getName(), channel);
+        }
+        this.channelsByName = byName;
+    }
+
+    /**
+     * Builds a snapshot from channels in any order.
+     * @param channels Channels to include
+     * @return Directory snapshot
+     */
+    public static ChannelDirectory of(List<Channel> channels) {
+        List<Channel> ordered = new ArrayList<>(channels);
+        ordered.sort(BY_NAME);
+        return new ChannelDirectory(ordered);
+    }
+
+    /**
+     * Creates a new snapshot that also contains the given channel.
+     * @param channel Channel to add or replace
+     * @return New directory snapshot
+     */
+    public ChannelDirectory with(Channel channel) {
+        List<Channel> ordered = new ArrayList<>(channels.size() + 1);
+        for (Channel existing : channels) {
+            if (existing.getId() != channel.getId()) {
+                ordered.add(existing);
+            }
+        }
+        int insertAt = Collections.binarySearch(ordered, channel, BY_NAME);
+        ordered.add(insertAt < 0 ? -insertAt - 1 : insertAt, channel);
+        return new ChannelDirectory(ordered);
+    }
+
+    /**
+     * Gets all channels ordered by name.
+     * @return Unmodifiable list of channels
+     */
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Looks up a channel by ID.
+     * @param id Channel ID
+     * @return Channel, or null if not present
+     */
+    public Channel getById(int id) {
+        int index = Arrays.binarySearch(sortedIds, id);
+        return index >= 0 ? channelsById[index] : null;
+    }
+
+    /**
+     * Looks up a channel by exact name.
+     * @param name Channel name
+     * @return Channel, or null if not present
+     */
+    public Channel getByName(String name) {
+        return channelsByName.get(name);
+    }
+
+    public int size() {
+        return channels.size();
+    }
+}
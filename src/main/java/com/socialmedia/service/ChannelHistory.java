@@ -0,0 +1,75 @@
+package main.java.com.socialmedia.service;
+
+import main.java.com.socialmedia.archive.MessageArchive;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.ArchiveSegment;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.store.MessageStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages through a channel's messages across the live table and the archive.
+ * Recent pages never touch the archive; older ones are merged from both, which also covers
+ * messages imported with old timestamps after their month was archived.
+ */
+class ChannelHistory {
+    private final MessageStore messageStore;
+    private final MessageArchive archive;
+
+    ChannelHistory(MessageStore messageStore, MessageArchive archive) {
+        this.messageStore = messageStore;
+        this.archive = archive;
+    }
+
+    /**
+     * Gets the page of a channel's messages older than a cursor.
+     * @param channelId Channel ID
+     * @param before Cursor of the oldest message already loaded, or null for the newest page
+     * @param limit Page size
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    MessagePage read(int channelId, MessageCursor before, int limit) throws DatabaseException {
+        MessagePage live = before == null
+                ? messageStore.getLatestMessagesForChannel(channelId, limit)
+                : messageStore.getMessagesBeforeForChannel(channelId, before, limit);
+        List<ArchiveSegment> segments = archive.getSegments(channelId);
+        if (segments.isEmpty()) {
+            return live;
+        }
+
+        if (before != null && !isOlder(segments.get(segments.size() - 1).getOldest(), before)) {
+            // Nothing archived is older than the cursor
+            return live;
+        }
+        MessageCursor archivedNewest = segments.get(0).getNewest();
+        List<Message> liveMessages = live.getMessages();
+        if (liveMessages.size() == limit && isOlder(archivedNewest, MessageCursor.of(liveMessages.get(limit - 1)))) {
+            // The page is full of messages newer than the archive, and the archive holds older ones
+            return new MessagePage(liveMessages, true);
+        }
+
+        MessagePage archived = archive.readBefore(channelId, before, limit);
+        List<Message> merged = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        List<Message> archivedMessages = archived.getMessages();
+        while (merged.size() < limit && (i < liveMessages.size() || j < archivedMessages.size())) {
+            boolean takeLive = j == archivedMessages.size()
+                    || (i < liveMessages.size() && isOlder(MessageCursor.of(archivedMessages.get(j)),
+                                                            MessageCursor.of(liveMessages.get(i))));
+            merged.add(takeLive ? liveMessages.get(i++) : archivedMessages.get(j++));
+        }
+        boolean hasMore = i < liveMessages.size() || j < archivedMessages.size() || live.hasMore() || archived.hasMore();
+        return new MessagePage(merged, hasMore);
+    }
+
+    private static boolean isOlder(MessageCursor a, MessageCursor b) {
+        return a.getCreatedAtMillis() < b.getCreatedAtMillis()
+                || (a.getCreatedAtMillis() == b.getCreatedAtMillis() && a.getId() < b.getId());
+    }
+}
@@ -1,21 +1,61 @@
 package main.java.com.socialmedia.service;
 
+import main.java.com.socialmedia.concurrent.AsyncTasks;
+import main.java.com.socialmedia.concurrent.BackgroundExecutor;
 import main.java.com.socialmedia.dao.ChannelDAO;
 import com.socialmedia.exception.DatabaseException;
 import main.java.com.socialmedia.model.Channel;
+import main.java.com.socialmedia.model.ChannelSummary;
+import main.java.com.socialmedia.search.NgramIndex;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for channel-related operations.
  * Handles channel management and subscription operations.
  */
 public class ChannelService {
+    private static final long REFRESH_INTERVAL_SECONDS = Long.getLong("socialmedia.channels.refreshIntervalSec", 60);
+    
     private final ChannelDAO channelDAO;
+    private final SubscriptionGraph subscriptions;
+    private final Executor asyncExecutor;
+    // Readers take the current snapshot without locking; writers publish a new one under the monitor
+    private volatile ChannelDirectory directory;
+    private long directoryVersion; // guarded by this
+    // Name and description trigrams for lookup-as-you-type; updated wherever a snapshot is published
+    private final NgramIndex channelIndex = new NgramIndex();
     
     public ChannelService() {
+        this(BackgroundExecutor.getInstance());
+    }
+    
+    /**
+     * Creates a service whose *Async methods run on the given executor.
+     * @param asyncExecutor Executor for asynchronous calls
+     */
+    public ChannelService(Executor asyncExecutor) {
         this.channelDAO = new ChannelDAO();
+        this.subscriptions = SubscriptionGraph.getInstance();
+        this.asyncExecutor = asyncExecutor;
+        
+        if (REFRESH_INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "channel-directory-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshQuietly,
+                    REFRESH_INTERVAL_SECONDS, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
     }
     
     /**
@@ -29,18 +69,98 @@ public class ChannelService {
         Optional<Channel> existingChannel = channelDAO.findChannelByName(defaultChannelName);
         if (existingChannel.isEmpty()) {
             Channel channel = new Channel(defaultChannelName, defaultChannelDescription);
-            channelDAO.createChannel(channel);
+            publish(channelDAO.createChannel(channel));
             System.out.println("Default channel created: " + defaultChannelName);
         }
     }
     
     /**
-     * Gets all available channels.
-     * @return List of all channels
-     * @throws DatabaseException if database operation fails
+     * Gets all available channels from the in-memory directory snapshot.
+     * @return Unmodifiable list of all channels, ordered by name
+     * @throws DatabaseException if the directory has to be loaded and loading fails
      */
     public List<Channel> getAllChannels() throws DatabaseException {
-        return channelDAO.getAllChannels();
+        return currentDirectory().getChannels();
+    }
+    
+    /**
+     * Finds a channel by ID in the directory snapshot.
+     * @param id Channel ID
+     * @return Optional containing channel if found
+     * @throws DatabaseException if the directory has to be loaded and loading fails
+     */
+    public Optional<Channel> findChannelById(int id) throws DatabaseException {
+        return Optional.ofNullable(currentDirectory().getById(id));
+    }
+    
+    /**
+     * Gets the current channel directory snapshot.
+     * @return Immutable directory snapshot
+     * @throws DatabaseException if the directory has to be loaded and loading fails
+     */
+    public ChannelDirectory getDirectory() throws DatabaseException {
+        return currentDirectory();
+    }
+    
+    /**
+     * Reloads the channel directory from the database and publishes a new snapshot.
+     * @throws DatabaseException if database operation fails
+     */
+    public void refreshDirectory() throws DatabaseException {
+        long versionBeforeLoad;
+        synchronized (this) {
+            versionBeforeLoad = directoryVersion;
+        }
+        ChannelDirectory refreshed = ChannelDirectory.of(channelDAO.getAllChannels());
+        synchronized (this) {
+            // A channel created while we were loading may be missing from this read; keep the newer snapshot
+            if (directoryVersion == versionBeforeLoad) {
+                directory = refreshed;
+                directoryVersion++;
+                indexChannels(refreshed.getChannels());
+            }
+        }
+    }
+    
+    /**
+     * Gets all channels together with the user's subscription state and subscriber counts.
+     * Built from memory once the subscription graph is loaded.
+     * @param userId User ID
+     * @return Channel summaries ordered by name
+     * @throws DatabaseException if database operation fails
+     */
+    public List<ChannelSummary> getChannelDirectory(int userId) throws DatabaseException {
+        if (!subscriptions.isLoaded()) {
+            return channelDAO.getChannelDirectory(userId);
+        }
+        List<Channel> channels = currentDirectory().getChannels();
+        List<ChannelSummary> summaries = new ArrayList<>(channels.size());
+        for (Channel channel : channels) {
+            summaries.add(new ChannelSummary(channel, subscriptions.isSubscribed(userId, channel.getId()),
+                    subscriptions.getSubscriberCount(channel.getId())));
+        }
+        return summaries;
+    }
+    
+    /**
+     * Finds channels whose name or description matches partially typed input, without a database
+     * round trip once the directory is loaded. Tolerates small typos; prefix matches on the name rank first.
+     * @param query Partial name or description
+     * @param limit Maximum number of results
+     * @return Matching channels, best match first
+     * @throws DatabaseException if the directory has to be loaded and loading fails
+     */
+    public List<Channel> searchChannels(String query, int limit) throws DatabaseException {
+        ChannelDirectory current = currentDirectory();
+        int[] ids = channelIndex.search(query, limit);
+        List<Channel> matches = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Channel channel = current.getById(id);
+            if (channel != null) {
+                matches.add(channel);
+            }
+        }
+        return matches;
     }
     
     /**
@@ -53,7 +173,7 @@ public class ChannelService {
         if (name == null || name.trim().isEmpty()) {
             return Optional.empty();
         }
-        return channelDAO.findChannelByName(name.trim());
+        return Optional.ofNullable(currentDirectory().getByName(name.trim()));
     }
     
     /**
@@ -63,7 +183,11 @@ public class ChannelService {
      * @throws DatabaseException if database operation fails
      */
     public void subscribeUser(int userId, int channelId) throws DatabaseException {
-        channelDAO.subscribeUser(userId, channelId);
+        // Inside the write, so a racing unsubscribe cannot reach the graph in the other order
+        channelDAO.subscribeUser(userId, channelId, () -> subscriptions.subscribe(userId, channelId));
+        if (TimelineFanout.isEnabled()) {
+            TimelineFanout.getInstance().onSubscribe(userId, channelId);
+        }
         System.out.println("User " + userId + " subscribed to channel " + channelId);
     }
     
@@ -74,7 +198,10 @@ public class ChannelService {
      * @throws DatabaseException if database operation fails
      */
     public void unsubscribeUser(int userId, int channelId) throws DatabaseException {
-        channelDAO.unsubscribeUser(userId, channelId);
+        channelDAO.unsubscribeUser(userId, channelId, () -> subscriptions.unsubscribe(userId, channelId));
+        if (TimelineFanout.isEnabled()) {
+            TimelineFanout.getInstance().onUnsubscribe(userId, channelId);
+        }
         System.out.println("User " + userId + " unsubscribed from channel " + channelId);
     }
     
@@ -86,7 +213,69 @@ public class ChannelService {
      * @throws DatabaseException if database operation fails
      */
     public boolean isUserSubscribed(int userId, int channelId) throws DatabaseException {
-        return channelDAO.isUserSubscribed(userId, channelId);
+        return subscriptions.isSubscribed(userId, channelId);
+    }
+    
+    /**
+     * Gets all channels without blocking the caller.
+     * @return Future completed with the channels, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<List<Channel>> getAllChannelsAsync() {
+        return AsyncTasks.call("get all channels", this::getAllChannels, asyncExecutor);
+    }
+    
+    /**
+     * Gets the current channel directory snapshot without blocking the caller.
+     * @return Future completed with the snapshot, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<ChannelDirectory> getDirectoryAsync() {
+        return AsyncTasks.call("get channel directory", this::getDirectory, asyncExecutor);
+    }
+    
+    /**
+     * Gets all channels with the user's subscription state and subscriber counts without
+     * blocking the caller.
+     * @param userId User ID
+     * @return Future completed with summaries ordered by name, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<List<ChannelSummary>> getChannelDirectoryAsync(int userId) {
+        return AsyncTasks.call("get channel summaries", () -> getChannelDirectory(userId), asyncExecutor);
+    }
+    
+    /**
+     * Subscribes a user to a channel without blocking the caller.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @return Future completed once subscribed, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<Void> subscribeUserAsync(int userId, int channelId) {
+        return AsyncTasks.call("subscribe user", () -> {
+            subscribeUser(userId, channelId);
+            return null;
+        }, asyncExecutor);
+    }
+    
+    /**
+     * Unsubscribes a user from a channel without blocking the caller.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @return Future completed once unsubscribed, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<Void> unsubscribeUserAsync(int userId, int channelId) {
+        return AsyncTasks.call("unsubscribe user", () -> {
+            unsubscribeUser(userId, channelId);
+            return null;
+        }, asyncExecutor);
+    }
+    
+    /**
+     * Checks if a user is subscribed to a channel without blocking the caller.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @return Future completed with the subscription state, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<Boolean> isUserSubscribedAsync(int userId, int channelId) {
+        return AsyncTasks.call("check subscription", () -> isUserSubscribed(userId, channelId), asyncExecutor);
     }
     
     /**
@@ -102,6 +291,54 @@ public class ChannelService {
         }
         
         Channel channel = new Channel(name.trim(), description != null ? description.trim() : "");
-        return channelDAO.createChannel(channel);
+        Channel created = channelDAO.createChannel(channel);
+        publish(created);
+        return created;
+    }
+    
+    private ChannelDirectory currentDirectory() throws DatabaseException {
+        ChannelDirectory current = directory;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (directory == null) {
+                directory = ChannelDirectory.of(channelDAO.getAllChannels());
+                directoryVersion++;
+                indexChannels(directory.getChannels());
+            }
+            return directory;
+        }
+    }
+    
+    // Copy-on-write: the new snapshot replaces the old one in a single volatile write
+    private void publish(Channel created) throws DatabaseException {
+        synchronized (this) {
+            if (directory == null) {
+                directory = ChannelDirectory.of(channelDAO.getAllChannels());
+                indexChannels(directory.getChannels());
+            } else {
+                directory = directory.with(created);
+                indexChannels(List.of(created));
+            }
+            directoryVersion++;
+        }
+    }
+    
+    private void indexChannels(List<Channel> channels) {
+        for (Channel channel : channels) {
+            String description = channel.getDescription();
+            channelIndex.put(channel.getId(), description != null
+                    ? channel.getName() + " " + description
+                    : channel.getName());
+        }
+    }
+    
+    private void refreshQuietly() {
+        try {
+            refreshDirectory();
+        } catch (DatabaseException e) {
+            System.err.println("Failed to refresh channel directory: " + e.getMessage());
+        }
     }
 }
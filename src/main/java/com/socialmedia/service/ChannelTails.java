@@ -0,0 +1,230 @@
+package main.java.com.socialmedia.service;
+
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The newest messages of recently read channels, kept in fixed-size rings so opening an
+ * active channel does not touch the database. Readers take no locks: a ring publishes its
+ * write position after storing a slot, and a reader that was lapped by writers while copying
+ * reports a miss instead of a torn page. Rings are filled on a miss, appended to on post and
+ * evicted least recently read first once the global message cap is reached.
+ */
+class ChannelTails {
+    static final int TAIL_SIZE = Integer.getInteger("socialmedia.messages.tail.size", 100);
+    private static final int MAX_MESSAGES = Integer.getInteger("socialmedia.messages.tail.maxMessages", 20000);
+    private static final int EPOCH_STRIPES = 64;
+    // Returned by a ring read that was overwritten while copying, told apart from a plain miss by identity
+    private static final MessagePage LAPPED = new MessagePage(List.of(), false);
+
+    private final int maxChannels = Math.max(1, MAX_MESSAGES / Math.max(1, TAIL_SIZE));
+    private final ConcurrentHashMap<Integer, Tail> tails = new ConcurrentHashMap<>();
+    // Bumped on every post so a fill that raced with one is not installed with the post missing
+    private final AtomicLongArray postEpochs = new AtomicLongArray(EPOCH_STRIPES);
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Checks whether tails are switched on; a size of 0 disables them.
+     * @return true if pages may be served from memory
+     */
+    static boolean isEnabled() {
+        return TAIL_SIZE > 0;
+    }
+
+    /**
+     * Serves a page from a channel's ring if it holds every message the page needs.
+     * @param channelId Channel ID
+     * @param before Cursor of the oldest message already loaded, or null for the newest page
+     * @param limit Page size
+     * @return Page of copied messages, or null on a miss
+     */
+    MessagePage read(int channelId, MessageCursor before, int limit) {
+        Tail tail = tails.get(channelId);
+        if (tail == null) {
+            return null;
+        }
+        tail.lastRead = clock.incrementAndGet();
+        MessagePage page = tail.read(before, limit);
+        if (page == LAPPED) {
+            // A burst of posts overwrote the slots being copied; one retry almost always succeeds
+            page = tail.read(before, limit);
+        }
+        return page != LAPPED ? page : null;
+    }
+
+    /**
+     * Starts a fill; pass the result to {@link #fill(int, long, MessagePage)} after reading the page.
+     * @param channelId Channel ID
+     * @return Post epoch of the channel
+     */
+    long beginFill(int channelId) {
+        return postEpochs.get(stripe(channelId));
+    }
+
+    /**
+     * Installs a ring for a channel from its newest page, unless a post arrived while it was read.
+     * @param channelId Channel ID
+     * @param epoch Value from {@link #beginFill(int)} taken before the page was read
+     * @param newest Newest page of the channel, at most {@link #TAIL_SIZE} messages with authors set
+     */
+    void fill(int channelId, long epoch, MessagePage newest) {
+        Tail tail = new Tail(TAIL_SIZE, newest.getMessages(), !newest.hasMore());
+        tail.lastRead = clock.incrementAndGet();
+        if (tails.putIfAbsent(channelId, tail) != null) {
+            return;
+        }
+        if (postEpochs.get(stripe(channelId)) != epoch) {
+            tails.remove(channelId, tail);
+            return;
+        }
+        if (tails.size() > maxChannels) {
+            evictLeastRecentlyRead();
+        }
+    }
+
+    /**
+     * Adds a newly posted message to its channel's ring, if the channel has one.
+     * @param message Committed message with author set
+     */
+    void append(Message message) {
+        int channelId = message.getChannelId();
+        postEpochs.incrementAndGet(stripe(channelId));
+        Tail tail = tails.get(channelId);
+        if (tail != null && !tail.append(message)) {
+            // Older than the ring's newest message; a ring cannot insert, so refill on the next read
+            tails.remove(channelId, tail);
+        }
+    }
+
+    private void evictLeastRecentlyRead() {
+        // Only runs when a ring is installed, and the number of rings is small
+        while (tails.size() > maxChannels) {
+            Map.Entry<Integer, Tail> oldest = null;
+            for (Map.Entry<Integer, Tail> entry : tails.entrySet()) {
+                if (oldest == null || entry.getValue().lastRead < oldest.getValue().lastRead) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            tails.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static int stripe(int channelId) {
+        return channelId & (EPOCH_STRIPES - 1);
+    }
+
+    private static boolean isOlder(MessageCursor a, MessageCursor b) {
+        return a.getCreatedAtMillis() < b.getCreatedAtMillis()
+                || (a.getCreatedAtMillis() == b.getCreatedAtMillis() && a.getId() < b.getId());
+    }
+
+    // Messages are handed out as copies; the ring's own instances are never exposed
+    private static Message copy(Message message) {
+        Message copy = new Message();
+        copy.setId(message.getId());
+        copy.setChannelId(message.getChannelId());
+        copy.setUserId(message.getUserId());
+        copy.setContent(message.getContent());
+        copy.setCreatedAtMillis(message.getCreatedAtMillis());
+        copy.setUserEmail(message.getUserEmail());
+        return copy;
+    }
+
+    /**
+     * Ring of one channel's newest messages. Message number k lives in slot k % capacity.
+     * A writer bumps {@code reserved} before overwriting a slot and {@code published} after,
+     * so a reader can tell afterwards which of the slots it copied may have changed.
+     * Writers are serialized on the ring; readers only read volatile state.
+     */
+    private static class Tail {
+        private final AtomicReferenceArray<Message> slots;
+        private final int capacity;
+        // Whether the ring started with the channel's whole history, so a short ring is not a miss
+        private final boolean complete;
+        private volatile long reserved;
+        private volatile long published;
+        private volatile long lastRead;
+
+        Tail(int capacity, List<Message> newestFirst, boolean complete) {
+            this.capacity = capacity;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.complete = complete && newestFirst.size() < capacity;
+            int count = Math.min(capacity, newestFirst.size());
+            for (int k = 0; k < count; k++) {
+                slots.set(k, copy(newestFirst.get(count - 1 - k)));
+            }
+            this.reserved = count;
+            this.published = count;
+        }
+
+        synchronized boolean append(Message message) {
+            long end = published;
+            MessageCursor cursor = MessageCursor.of(message);
+            if (end > 0) {
+                Message newest = slots.get((int) ((end - 1) % capacity));
+                MessageCursor newestCursor = MessageCursor.of(newest);
+                if (!isOlder(newestCursor, cursor)) {
+                    // Already in the ring when the fill read it after the commit
+                    return newestCursor.equals(cursor) || contains(end, cursor);
+                }
+            }
+            reserved = end + 1;
+            slots.set((int) (end % capacity), copy(message));
+            published = end + 1;
+            return true;
+        }
+
+        MessagePage read(MessageCursor before, int limit) {
+            long end = published;
+            long start = Math.max(0, end - capacity);
+            List<Message> messages = new ArrayList<>(Math.min(limit, capacity));
+            long k = end - 1;
+            for (; k >= start && messages.size() < limit; k--) {
+                Message message = slots.get((int) (k % capacity));
+                if (before == null || isOlder(MessageCursor.of(message), before)) {
+                    messages.add(message);
+                }
+            }
+            // Slots below this were, or are being, overwritten by writers that lapped us
+            long validFrom = reserved - capacity;
+            if (k + 1 < validFrom) {
+                return LAPPED;
+            }
+
+            boolean hasMore;
+            if (messages.size() == limit) {
+                hasMore = k >= start || !complete || end > capacity;
+            } else if (complete && end <= capacity) {
+                hasMore = false;
+            } else {
+                return null;
+            }
+            List<Message> copies = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                copies.add(copy(message));
+            }
+            return new MessagePage(copies, hasMore);
+        }
+
+        private boolean contains(long end, MessageCursor cursor) {
+            for (long k = end - 1; k >= Math.max(0, end - capacity); k--) {
+                if (MessageCursor.of(slots.get((int) (k % capacity))).equals(cursor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
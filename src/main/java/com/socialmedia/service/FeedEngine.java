@@ -0,0 +1,233 @@
+package main.java.com.socialmedia.service;
+
+import main.java.com.socialmedia.archive.MessageArchive;
+import main.java.com.socialmedia.dao.MessageDAO;
+import main.java.com.socialmedia.database.DatabaseManager;
+import com.socialmedia.exception.DatabaseException;
+import com.socialmedia.exception.UncheckedDatabaseException;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a user's timeline by merging the newest pages of each subscribed channel.
+ * Each channel is read through its (channel_id, created_at, id) index on its own read connection,
+ * and a heap merges the pages, so the cost of a page depends on the page size and the number of
+ * channels rather than on how much history they hold.
+ * With {@link TimelineFanout} enabled, fanned-out channels come from one range scan of the
+ * user's materialized timeline instead, and only pull channels are read one by one.
+ */
+class FeedEngine {
+    // Smallest first read per channel; channels that run dry during the merge are topped up
+    private static final int MIN_CHANNEL_BATCH = Integer.getInteger("socialmedia.feed.minChannelBatch", 8);
+    private static final int PARALLELISM = Integer.getInteger("socialmedia.feed.parallelism",
+            DatabaseManager.getInstance().getReaderPoolStats().getMaxSize());
+
+    // Newest first, matching the (created_at DESC, id DESC) order of every page and cursor
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparingLong(Message::getCreatedAtMillis).reversed()
+            .thenComparing(Comparator.comparingInt(Message::getId).reversed());
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService READERS = Executors.newFixedThreadPool(Math.max(1, PARALLELISM), runnable -> {
+        Thread thread = new Thread(runnable, "feed-reader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MessageDAO messageDAO;
+    private final SubscriptionGraph subscriptions;
+    private final ChannelHistory channelHistory;
+
+    FeedEngine(MessageDAO messageDAO, SubscriptionGraph subscriptions, ChannelHistory channelHistory) {
+        this.messageDAO = messageDAO;
+        this.subscriptions = subscriptions;
+        this.channelHistory = channelHistory;
+    }
+
+    /**
+     * Gets one page of a user's timeline across all subscribed channels.
+     * @param userId User ID
+     * @param before Cursor from a previous page, or null for the newest page
+     * @param limit Page size
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    MessagePage getFeedPage(int userId, MessageCursor before, int limit) throws DatabaseException {
+        List<Integer> channelIds = Arrays.stream(subscriptions.getChannelIds(userId)).boxed().toList();
+        if (channelIds.isEmpty()) {
+            return new MessagePage(List.of(), false);
+        }
+        if (!TimelineFanout.isEnabled()) {
+            return merge(open(channelReaders(channelIds), before, limit), null, List.of(), before, limit);
+        }
+
+        TimelineFanout fanout = TimelineFanout.getInstance();
+        // Archived messages have left the timeline, so it is only complete above the archive
+        long completeSince = Math.max(fanout.ensureMaterialized(userId),
+                MessageArchive.getInstance().getArchivedThrough() + 1);
+        Set<Integer> pullChannels = fanout.getPullChannelIds();
+        List<Integer> pushIds = new ArrayList<>();
+        List<Integer> pullIds = new ArrayList<>();
+        for (int channelId : channelIds) {
+            (pullChannels.contains(channelId) ? pullIds : pushIds).add(channelId);
+        }
+
+        List<PageReader> readers = new ArrayList<>();
+        readers.add((cursor, n) -> messageDAO.getTimelinePage(userId, completeSince, cursor, n));
+        readers.addAll(channelReaders(pullIds));
+        List<ChannelSource> sources = open(readers, before, limit);
+
+        // Push channels older than the timeline are only read once the timeline has been used up
+        MessageCursor historyStart = new MessageCursor(completeSince, 0);
+        if (before != null && isOlder(before, historyStart)) {
+            historyStart = before;
+        }
+        return merge(sources, sources.get(0), channelReaders(pushIds), historyStart, limit);
+    }
+
+    /**
+     * Merges sources into one page. When {@code trigger} runs out, the deferred readers are opened
+     * at {@code deferredStart}; every message they return must be older than anything the trigger held.
+     */
+    private MessagePage merge(List<ChannelSource> sources, ChannelSource trigger, List<PageReader> deferred,
+                              MessageCursor deferredStart, int limit) throws DatabaseException {
+        PriorityQueue<ChannelSource> heap = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> NEWEST_FIRST.compare(a.head(), b.head()));
+        boolean deferredOpen = false;
+        for (ChannelSource source : sources) {
+            if (source.head() != null) {
+                heap.add(source);
+            } else if (source == trigger) {
+                deferredOpen = openDeferred(heap, deferred, deferredStart, limit);
+            }
+        }
+
+        List<Message> merged = new ArrayList<>(limit);
+        while (!heap.isEmpty()) {
+            if (merged.size() == limit) {
+                return new MessagePage(merged, true);
+            }
+            ChannelSource source = heap.poll();
+            merged.add(source.next());
+            if (source.head() == null && source.hasMore) {
+                if (merged.size() == limit) {
+                    // Older messages exist in this source; no need to read them to know that
+                    return new MessagePage(merged, true);
+                }
+                source.refill(source.reader.read(MessageCursor.of(merged.get(merged.size() - 1)), limit - merged.size()));
+            }
+            if (source.head() != null) {
+                heap.add(source);
+            } else if (source == trigger && !deferredOpen) {
+                deferredOpen = openDeferred(heap, deferred, deferredStart, limit - merged.size());
+            }
+        }
+        return new MessagePage(merged, false);
+    }
+
+    private boolean openDeferred(PriorityQueue<ChannelSource> heap, List<PageReader> deferred,
+                                 MessageCursor start, int remaining) throws DatabaseException {
+        for (ChannelSource source : open(deferred, start, Math.max(1, remaining))) {
+            if (source.head() != null) {
+                heap.add(source);
+            }
+        }
+        return true;
+    }
+
+    // Reads the first page of every reader in parallel
+    private List<ChannelSource> open(List<PageReader> readers, MessageCursor before, int limit) throws DatabaseException {
+        if (readers.isEmpty()) {
+            return List.of();
+        }
+        // Every source gets a fair share up front, so the merge rarely has to go back for more
+        int batch = Math.min(limit, Math.max(MIN_CHANNEL_BATCH, (2 * limit + readers.size() - 1) / readers.size()));
+        List<CompletableFuture<ChannelSource>> reads = new ArrayList<>(readers.size());
+        for (PageReader reader : readers) {
+            reads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new ChannelSource(reader, reader.read(before, batch));
+                } catch (DatabaseException e) {
+                    throw new UncheckedDatabaseException(e);
+                }
+            }, READERS));
+        }
+
+        List<ChannelSource> sources = new ArrayList<>(readers.size());
+        for (CompletableFuture<ChannelSource> read : reads) {
+            sources.add(join(read));
+        }
+        return sources;
+    }
+
+    private List<PageReader> channelReaders(List<Integer> channelIds) {
+        List<PageReader> readers = new ArrayList<>(channelIds.size());
+        for (int channelId : channelIds) {
+            readers.add((before, limit) -> channelHistory.read(channelId, before, limit));
+        }
+        return readers;
+    }
+
+    private static boolean isOlder(MessageCursor a, MessageCursor b) {
+        return a.getCreatedAtMillis() < b.getCreatedAtMillis()
+                || (a.getCreatedAtMillis() == b.getCreatedAtMillis() && a.getId() < b.getId());
+    }
+
+    private static ChannelSource join(CompletableFuture<ChannelSource> read) throws DatabaseException {
+        try {
+            return read.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedDatabaseException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new DatabaseException("Failed to read channel for feed", e.getCause());
+        }
+    }
+
+    // One newest-first run of messages: a channel or the materialized timeline
+    @FunctionalInterface
+    private interface PageReader {
+        MessagePage read(MessageCursor before, int limit) throws DatabaseException;
+    }
+
+    // Cursor over the buffered page of one source
+    private static final class ChannelSource {
+        private final PageReader reader;
+        private List<Message> buffer;
+        private int position;
+        private boolean hasMore;
+
+        ChannelSource(PageReader reader, MessagePage page) {
+            this.reader = reader;
+            refill(page);
+        }
+
+        Message head() {
+            return position < buffer.size() ? buffer.get(position) : null;
+        }
+
+        Message next() {
+            return buffer.get(position++);
+        }
+
+        void refill(MessagePage page) {
+            this.buffer = page.getMessages();
+            this.position = 0;
+            this.hasMore = page.hasMore();
+        }
+    }
+}
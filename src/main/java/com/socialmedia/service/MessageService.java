@@ -1,24 +1,66 @@
 package main.java.com.socialmedia.service;
 
+import main.java.com.socialmedia.archive.MessageArchive;
+import main.java.com.socialmedia.concurrent.AsyncTasks;
+import main.java.com.socialmedia.concurrent.BackgroundExecutor;
 import main.java.com.socialmedia.dao.MessageDAO;
+import main.java.com.socialmedia.dao.UserDAO;
 import com.socialmedia.exception.DatabaseException;
 import main.java.com.socialmedia.exception.MessageTooLongException;
 import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.model.SearchCursor;
+import main.java.com.socialmedia.model.SearchResults;
 import main.java.com.socialmedia.observer.MessagePublisher;
+import main.java.com.socialmedia.search.UserSearchIndex;
+import main.java.com.socialmedia.store.MessageStore;
+import main.java.com.socialmedia.store.MessageStores;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for message-related operations.
  * Handles message creation, validation, and pub/sub notifications.
+ *
+ * Once {@link main.java.com.socialmedia.archive.MessageArchiver} has moved old messages out of
+ * the database, only the paged reads (channel pages and the feed) still return them. The
+ * whole-history lists, streams and callbacks, and search, cover live messages only.
  */
 public class MessageService {
-    private final MessageDAO messageDAO;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = Integer.getInteger("socialmedia.messages.fetchSize", 500);
+    public static final int MAX_SEARCH_TERMS = 16;
+    
+    private final MessageStore messageStore;
+    private final UserDAO userDAO;
     private final MessagePublisher messagePublisher;
+    private final ChannelHistory channelHistory;
+    private final ChannelTails channelTails;
+    private final FeedEngine feedEngine;
+    private final Executor asyncExecutor;
     
     public MessageService() {
-        this.messageDAO = new MessageDAO();
+        this(BackgroundExecutor.getInstance());
+    }
+    
+    /**
+     * Creates a service whose *Async methods run on the given executor.
+     * @param asyncExecutor Executor for asynchronous calls
+     */
+    public MessageService(Executor asyncExecutor) {
+        this.messageStore = MessageStores.getDefault();
+        this.userDAO = new UserDAO();
+        this.channelHistory = new ChannelHistory(messageStore, MessageArchive.getInstance());
+        this.channelTails = new ChannelTails();
+        this.feedEngine = new FeedEngine(new MessageDAO(), SubscriptionGraph.getInstance(), channelHistory);
         this.messagePublisher = new MessagePublisher();
+        this.asyncExecutor = asyncExecutor;
     }
     
     /**
@@ -47,11 +89,21 @@ public class MessageService {
         
         // Create message
         Message message = new Message(channelId, userId, trimmedContent);
-        Message createdMessage = messageDAO.createMessage(message);
+        Message createdMessage = messageStore.createMessage(message);
+        
+        // Subscribers render the author, so fill it in; the poster is almost always cached
+        userDAO.findUserById(userId).ifPresent(user -> createdMessage.setUserEmail(user.getEmail()));
+        
+        // Into the channel's hot tail before anyone is told, so a refresh on notification finds it
+        channelTails.append(createdMessage);
         
         // Notify subscribers
         messagePublisher.publishMessage(createdMessage);
         
+        if (TimelineFanout.isEnabled()) {
+            TimelineFanout.getInstance().submit(createdMessage);
+        }
+        
         System.out.println("Message posted successfully: ID=" + createdMessage.getId() +
                            ", Channel=" + channelId + ", User=" + userId);
         
@@ -59,23 +111,267 @@ public class MessageService {
     }
     
     /**
-     * Gets all messages for a channel.
+     * Gets all live messages for a channel; archived messages are not included.
      * @param channelId Channel ID
      * @return List of messages
      * @throws DatabaseException if database operation fails
      */
     public List<Message> getMessagesForChannel(int channelId) throws DatabaseException {
-        return messageDAO.getMessagesForChannel(channelId);
+        return messageStore.getMessagesForChannel(channelId);
     }
     
     /**
-     * Gets all messages for channels that a user is subscribed to.
+     * Gets all live messages for channels that a user is subscribed to; archived messages are not included.
+     * Sorts the user's whole live history; use {@link #getFeedPage(int, MessageCursor, int)} for display.
      * @param userId User ID
      * @return List of messages from subscribed channels
      * @throws DatabaseException if database operation fails
      */
     public List<Message> getMessagesForUser(int userId) throws DatabaseException {
-        return messageDAO.getMessagesForUser(userId);
+        return messageStore.getMessagesForUser(userId);
+    }
+    
+    /**
+     * Streams all live messages for a channel in constant memory, without archived ones.
+     * Close the stream when done.
+     * @param channelId Channel ID
+     * @return Stream of messages, newest first
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForChannel(int channelId) throws DatabaseException {
+        return streamMessagesForChannel(channelId, DEFAULT_FETCH_SIZE);
+    }
+    
+    /**
+     * Streams all live messages for a channel in constant memory, without archived ones.
+     * Close the stream when done.
+     * @param channelId Channel ID
+     * @param fetchSize Rows fetched per round trip
+     * @return Stream of messages, newest first
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForChannel(int channelId, int fetchSize) throws DatabaseException {
+        return messageStore.streamMessagesForChannel(channelId, validateFetchSize(fetchSize));
+    }
+    
+    /**
+     * Streams all live messages for a user's subscribed channels in constant memory, without
+     * archived ones. Close the stream when done.
+     * @param userId User ID
+     * @return Stream of messages, newest first
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForUser(int userId) throws DatabaseException {
+        return streamMessagesForUser(userId, DEFAULT_FETCH_SIZE);
+    }
+    
+    /**
+     * Streams all live messages for a user's subscribed channels in constant memory, without
+     * archived ones. Close the stream when done.
+     * @param userId User ID
+     * @param fetchSize Rows fetched per round trip
+     * @return Stream of messages, newest first
+     * @throws DatabaseException if the query cannot be started
+     */
+    public Stream<Message> streamMessagesForUser(int userId, int fetchSize) throws DatabaseException {
+        return messageStore.streamMessagesForUser(userId, validateFetchSize(fetchSize));
+    }
+    
+    /**
+     * Pushes every live message for a channel to a callback as it is read; archived messages are skipped.
+     * @param channelId Channel ID
+     * @param fetchSize Rows fetched per round trip
+     * @param handler Callback invoked once per message, newest first
+     * @return Number of messages read
+     * @throws DatabaseException if database operation fails
+     */
+    public long forEachMessageForChannel(int channelId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return messageStore.forEachMessageForChannel(channelId, validateFetchSize(fetchSize), handler);
+    }
+    
+    /**
+     * Pushes every live message for a user's subscribed channels to a callback as it is read;
+     * archived messages are skipped.
+     * @param userId User ID
+     * @param fetchSize Rows fetched per round trip
+     * @param handler Callback invoked once per message, newest first
+     * @return Number of messages read
+     * @throws DatabaseException if database operation fails
+     */
+    public long forEachMessageForUser(int userId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return messageStore.forEachMessageForUser(userId, validateFetchSize(fetchSize), handler);
+    }
+    
+    /**
+     * Gets the newest page of a channel's messages. Pages continue into archived history.
+     * Recently read channels are served from memory; a miss loads the channel's hot tail.
+     * @param channelId Channel ID
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getLatestMessages(int channelId, int limit) throws DatabaseException {
+        validatePageSize(limit);
+        if (!ChannelTails.isEnabled()) {
+            return channelHistory.read(channelId, null, limit);
+        }
+        MessagePage cached = channelTails.read(channelId, null, limit);
+        if (cached != null) {
+            return cached;
+        }
+
+        long epoch = channelTails.beginFill(channelId);
+        MessagePage newest = channelHistory.read(channelId, null, Math.max(limit, ChannelTails.TAIL_SIZE));
+        channelTails.fill(channelId, epoch, newest);
+        List<Message> messages = newest.getMessages();
+        if (messages.size() <= limit) {
+            return newest;
+        }
+        return new MessagePage(messages.subList(0, limit), true);
+    }
+    
+    /**
+     * Gets the page of a channel's messages older than a cursor.
+     * @param channelId Channel ID
+     * @param before Cursor from {@link MessagePage#getNextCursor()}
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getMessagesBefore(int channelId, MessageCursor before, int limit) throws DatabaseException {
+        if (before == null) {
+            throw new IllegalArgumentException("Cursor cannot be null");
+        }
+        validatePageSize(limit);
+        MessagePage cached = ChannelTails.isEnabled() ? channelTails.read(channelId, before, limit) : null;
+        return cached != null ? cached : channelHistory.read(channelId, before, limit);
+    }
+    
+    /**
+     * Gets one page of a user's timeline across all subscribed channels.
+     * @param userId User ID
+     * @param before Cursor from {@link MessagePage#getNextCursor()}, or null for the newest page
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Page of messages, newest first
+     * @throws DatabaseException if database operation fails
+     */
+    public MessagePage getFeedPage(int userId, MessageCursor before, int limit) throws DatabaseException {
+        validatePageSize(limit);
+        return feedEngine.getFeedPage(userId, before, limit);
+    }
+    
+    /**
+     * Searches live message content, most relevant first. Archived messages have left the
+     * search index and are not found. Every word must match; the last word also matches as a prefix, so partial input finds results.
+     * @param query Words to search for
+     * @param channelFilter Channel to search in, or null for all channels
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param cursor Cursor from {@link SearchResults#getNextCursor()}, or null for the first page
+     * @return Page of hits with highlighted snippets
+     * @throws DatabaseException if database operation fails
+     */
+    public SearchResults search(String query, Integer channelFilter, int limit, SearchCursor cursor) throws DatabaseException {
+        validatePageSize(limit);
+        List<String> terms = toSearchTerms(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        return messageStore.searchMessages(terms, channelFilter, limit, cursor);
+    }
+    
+    static List<String> toSearchTerms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String[] terms = query.trim().split("\\s+");
+        return List.of(terms).subList(0, Math.min(terms.length, MAX_SEARCH_TERMS));
+    }
+    
+    /**
+     * Loads the user index behind {@link #suggestMentions(String, int)}. Call off the EDT before
+     * the first suggestion is needed.
+     * @throws DatabaseException if database operation fails
+     */
+    public void loadMentionIndex() throws DatabaseException {
+        UserSearchIndex.getInstance().ensureLoaded();
+    }
+    
+    /**
+     * Suggests user emails for an @mention being typed. Served from memory, so it is safe to call on
+     * every keystroke; returns nothing until {@link #loadMentionIndex()} has completed.
+     * @param prefix Text typed after the @
+     * @param limit Maximum number of suggestions
+     * @return Matching emails, best match first
+     */
+    public List<String> suggestMentions(String prefix, int limit) {
+        return UserSearchIndex.getInstance().suggestEmails(prefix, limit);
+    }
+    
+    /**
+     * Posts a new message to a channel without blocking the caller.
+     * @param channelId Channel ID
+     * @param userId User ID
+     * @param content Message content
+     * @return Future completed with the created message, or exceptionally with
+     *         MessageTooLongException, DatabaseException or IllegalArgumentException
+     */
+    public CompletableFuture<Message> postMessageAsync(int channelId, int userId, String content) {
+        return AsyncTasks.call("post message", () -> postMessage(channelId, userId, content), asyncExecutor);
+    }
+    
+    /**
+     * Gets the newest page of a channel's messages without blocking the caller.
+     * @param channelId Channel ID
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Future completed with the page, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<MessagePage> getLatestMessagesAsync(int channelId, int limit) {
+        return AsyncTasks.call("get latest messages", () -> getLatestMessages(channelId, limit), asyncExecutor);
+    }
+    
+    /**
+     * Gets the page of a channel's messages older than a cursor without blocking the caller.
+     * @param channelId Channel ID
+     * @param before Cursor from {@link MessagePage#getNextCursor()}
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Future completed with the page, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<MessagePage> getMessagesBeforeAsync(int channelId, MessageCursor before, int limit) {
+        return AsyncTasks.call("get older messages", () -> getMessagesBefore(channelId, before, limit), asyncExecutor);
+    }
+    
+    /**
+     * Gets one page of a user's timeline without blocking the caller.
+     * @param userId User ID
+     * @param before Cursor from {@link MessagePage#getNextCursor()}, or null for the newest page
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return Future completed with the page, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<MessagePage> getFeedPageAsync(int userId, MessageCursor before, int limit) {
+        return AsyncTasks.call("get feed page", () -> getFeedPage(userId, before, limit), asyncExecutor);
+    }
+    
+    /**
+     * Searches live message content without blocking the caller.
+     * @param query Words to search for
+     * @param channelFilter Channel to search in, or null for all channels
+     * @param limit Page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param cursor Cursor from {@link SearchResults#getNextCursor()}, or null for the first page
+     * @return Future completed with the hits, or exceptionally with DatabaseException or IllegalArgumentException
+     */
+    public CompletableFuture<SearchResults> searchAsync(String query, Integer channelFilter, int limit, SearchCursor cursor) {
+        return AsyncTasks.call("search messages", () -> search(query, channelFilter, limit, cursor), asyncExecutor);
+    }
+    
+    /**
+     * Loads the user index behind {@link #suggestMentions(String, int)} without blocking the caller.
+     * @return Future completed once loaded, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<Void> loadMentionIndexAsync() {
+        return AsyncTasks.call("load mention index", () -> {
+            loadMentionIndex();
+            return null;
+        }, asyncExecutor);
     }
     
     /**
@@ -85,4 +381,17 @@ public class MessageService {
     public MessagePublisher getMessagePublisher() {
         return messagePublisher;
     }
+    
+    private int validateFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        return fetchSize;
+    }
+    
+    private void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 }
@@ -0,0 +1,200 @@
+package main.java.com.socialmedia.service;
+
+import main.java.com.socialmedia.dao.TimelineDAO;
+import com.socialmedia.exception.DatabaseException;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.store.MessageStores;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional fan-out-on-write for home feeds. Committed messages are queued and appended in batches
+ * to the timeline of every subscriber, so a feed page becomes one range scan over the timelines table.
+ * Channels with more subscribers than the threshold stay on pull to avoid write amplification.
+ * Enable with -Dsocialmedia.feed.fanout.enabled=true.
+ */
+public class TimelineFanout {
+    private static TimelineFanout instance;
+
+    private static final boolean ENABLED = Boolean.getBoolean("socialmedia.feed.fanout.enabled");
+    private static final int MAX_SUBSCRIBERS = Integer.getInteger("socialmedia.feed.fanout.maxSubscribers", 1000);
+    private static final int MAX_BATCH_SIZE = Integer.getInteger("socialmedia.feed.fanout.maxBatch", 256);
+    private static final int BACKFILL_DAYS = Integer.getInteger("socialmedia.feed.fanout.backfillDays", 30);
+    // Posts are created before they commit and are queued after, so the queue is only roughly in creation order
+    private static final long REPAIR_MARGIN_MS = Long.getLong("socialmedia.feed.fanout.repairMarginMillis", 60000);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final TimelineDAO timelineDAO;
+    private final BlockingQueue<Message> pendingMessages = new LinkedBlockingQueue<>();
+    // Complete-since time of each user verified by this process; verifying once per process
+    // heals gaps left by a crash between commit and fan-out
+    private final ConcurrentHashMap<Integer, Long> verifiedSince = new ConcurrentHashMap<>();
+    // Creation time from which a timeline may have gaps: messages still queued when the last process
+    // stopped, or lost by a failed batch in this one. Null repairs from complete_since.
+    private volatile Long repairFrom;
+    // Keeps the stored watermark below messages whose fan-out failed in this process; writer thread only
+    private long lostSince = Long.MAX_VALUE;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private TimelineFanout() {
+        this.timelineDAO = new TimelineDAO();
+        // Read before the writer starts, which moves the watermark past this process's own messages
+        try {
+            Long fannedOutThrough = timelineDAO.getFannedOutThrough();
+            this.repairFrom = fannedOutThrough != null ? fannedOutThrough - REPAIR_MARGIN_MS : null;
+        } catch (DatabaseException e) {
+            System.err.println("Failed to read fan-out progress, timelines will be repaired in full");
+        }
+        this.writerThread = new Thread(this::runWriter, "timeline-fanout-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Gets the singleton instance of TimelineFanout.
+     * @return TimelineFanout instance
+     */
+    public static synchronized TimelineFanout getInstance() {
+        if (instance == null) {
+            instance = new TimelineFanout();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether fan-out on write is switched on for this process. Timelines are
+     * materialized with SQL over the messages table, so they need the SQLite message store.
+     * @return true if feeds are served from materialized timelines
+     */
+    public static boolean isEnabled() {
+        return ENABLED && MessageStores.isSqlite();
+    }
+
+    /**
+     * Queues a committed message for fan-out. Returns immediately.
+     * @param message Message with ID set
+     */
+    public void submit(Message message) {
+        if (!running) {
+            System.err.println("Timeline fan-out has been shut down, message " + message.getId() + " not fanned out");
+            return;
+        }
+        pendingMessages.add(message);
+    }
+
+    /**
+     * Makes sure a user's timeline is complete and gets the time it is complete from.
+     * Builds the timeline on first use. Once per process it re-checks only the messages
+     * that may have missed fan-out, so the check stays small however long the history grows.
+     * @param userId User ID
+     * @return Epoch milliseconds from which the timeline holds every push-channel message
+     * @throws DatabaseException if database operation fails
+     */
+    long ensureMaterialized(int userId) throws DatabaseException {
+        Long verified = verifiedSince.get(userId);
+        if (verified != null) {
+            return verified;
+        }
+        Long completeSince = timelineDAO.getCompleteSince(userId);
+        long since = completeSince != null ? completeSince
+                : System.currentTimeMillis() - TimeUnit.DAYS.toMillis(BACKFILL_DAYS);
+        Long repair = repairFrom;
+        long from = completeSince != null && repair != null ? Math.max(since, repair) : since;
+        int rows = timelineDAO.materialize(userId, since, from);
+        verifiedSince.put(userId, since);
+        System.out.println("Timeline for user " + userId + " backfilled with " + rows + " rows");
+        return since;
+    }
+
+    /**
+     * Gets the channels that are read on demand instead of fanned out.
+     * @return Pull channel IDs
+     * @throws DatabaseException if database operation fails
+     */
+    Set<Integer> getPullChannelIds() throws DatabaseException {
+        return timelineDAO.getPullChannelIds();
+    }
+
+    /**
+     * Copies a newly subscribed channel's recent messages into the user's timeline.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @throws DatabaseException if database operation fails
+     */
+    void onSubscribe(int userId, int channelId) throws DatabaseException {
+        Long completeSince = timelineDAO.getCompleteSince(userId);
+        // A timeline that was never built picks the channel up when it is built
+        if (completeSince != null) {
+            timelineDAO.backfillChannel(userId, channelId, completeSince);
+        }
+    }
+
+    /**
+     * Removes an unsubscribed channel's messages from the user's timeline.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @throws DatabaseException if database operation fails
+     */
+    void onUnsubscribe(int userId, int channelId) throws DatabaseException {
+        timelineDAO.removeChannel(userId, channelId);
+    }
+
+    /**
+     * Stops accepting messages, fans out everything already queued and stops the writer thread.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            System.err.println("Timeline fan-out did not drain within " + SHUTDOWN_TIMEOUT_MS + " ms");
+        } else {
+            System.out.println("Timeline fan-out drained and stopped");
+        }
+    }
+
+    private void runWriter() {
+        List<Message> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !pendingMessages.isEmpty()) {
+            try {
+                Message first = pendingMessages.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingMessages.drainTo(batch, MAX_BATCH_SIZE - 1);
+                long newest = Long.MIN_VALUE;
+                for (Message message : batch) {
+                    newest = Math.max(newest, message.getCreatedAtMillis());
+                }
+                timelineDAO.fanOut(batch, SubscriptionGraph.getInstance()::getSubscriberIds, MAX_SUBSCRIBERS,
+                        Math.min(newest, lostSince));
+            } catch (InterruptedException e) {
+                // Keep draining; shutdown is signalled through the running flag
+            } catch (DatabaseException | RuntimeException e) {
+                // Affected timelines are repaired from the oldest lost message when their users are next verified
+                System.err.println("Failed to fan out " + batch.size() + " messages");
+                e.printStackTrace();
+                for (Message message : batch) {
+                    lostSince = Math.min(lostSince, message.getCreatedAtMillis());
+                }
+                Long repair = repairFrom;
+                repairFrom = repair != null ? Math.min(repair, lostSince - REPAIR_MARGIN_MS) : null;
+                verifiedSince.clear();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
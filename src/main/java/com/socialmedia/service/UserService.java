@@ -1,10 +1,13 @@
 package main.java.com.socialmedia.service;
 
+import main.java.com.socialmedia.concurrent.AsyncTasks;
+import main.java.com.socialmedia.concurrent.BackgroundExecutor;
 import main.java.com.socialmedia.dao.UserDAO;
 import com.socialmedia.exception.DatabaseException;
 import com.socialmedia.exception.InvalidCredentialsException;
 import main.java.com.socialmedia.exception.UserAlreadyExistsException;
 import main.java.com.socialmedia.model.User;
+import main.java.com.socialmedia.search.UserSearchIndex;
 
 
 
@@ -13,6 +16,8 @@ import javax.crypto.spec.PBEKeySpec;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Service class for user-related operations.
@@ -20,12 +25,22 @@ import java.util.Optional;
  */
 public class UserService {
     private final UserDAO userDAO;
+    private final Executor asyncExecutor;
     private static final int SALT_LENGTH = 16; // bytes
     private static final int ITERATIONS = 65536;
     private static final int KEY_LENGTH = 256; // bits
 
     public UserService() {
+        this(BackgroundExecutor.getInstance());
+    }
+
+    /**
+     * Creates a service whose *Async methods run on the given executor.
+     * @param asyncExecutor Executor for asynchronous calls
+     */
+    public UserService(Executor asyncExecutor) {
         this.userDAO = new UserDAO();
+        this.asyncExecutor = asyncExecutor;
     }
 
     /**
@@ -47,6 +62,7 @@ public class UserService {
 
         User user = new User(email.trim().toLowerCase(), storedPassword);
         User createdUser = userDAO.createUser(user);
+        UserSearchIndex.getInstance().add(createdUser);
 
         System.out.println("User registered successfully: " + email);
         return createdUser;
@@ -104,6 +120,32 @@ public class UserService {
         return userDAO.findUserById(id);
     }
 
+    /**
+     * Registers a new user without blocking the caller.
+     * @return Future completed with the created user, or exceptionally with
+     *         UserAlreadyExistsException, DatabaseException or IllegalArgumentException
+     */
+    public CompletableFuture<User> registerUserAsync(String email, String password) {
+        return AsyncTasks.call("register user", () -> registerUser(email, password), asyncExecutor);
+    }
+
+    /**
+     * Authenticates a user without blocking the caller.
+     * @return Future completed with the user, or exceptionally with
+     *         InvalidCredentialsException or DatabaseException
+     */
+    public CompletableFuture<User> authenticateUserAsync(String email, String password) {
+        return AsyncTasks.call("authenticate user", () -> authenticateUser(email, password), asyncExecutor);
+    }
+
+    /**
+     * Finds user by ID without blocking the caller.
+     * @return Future completed with the user if found, or exceptionally with DatabaseException
+     */
+    public CompletableFuture<Optional<User>> findUserByIdAsync(int id) {
+        return AsyncTasks.call("find user", () -> findUserById(id), asyncExecutor);
+    }
+
     // Helper methods for PBKDF2 hashing and verification
 
     private String generateSalt() {
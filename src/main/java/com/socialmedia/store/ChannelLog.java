@@ -0,0 +1,328 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * The log of one channel: a directory of segment files, oldest first, each named after the
+ * channel-wide number of its first record. Records are appended in (created_at, id) order,
+ * so reading newest first is a walk backwards and a cursor is found by binary search.
+ * Appends take the write lock; reads share the read lock.
+ *
+ * Reads stop at the durable watermark: a record becomes visible only once a flush has put it
+ * on disk, so a post whose flush fails is never served. A failed flush truncates the log back
+ * to the watermark and fails the log; it refuses appends and flushes until it is reopened.
+ */
+final class ChannelLog {
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final int channelId;
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<LogSegment> segments = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long size;
+    // Records before this position are on disk; only these are visible to reads
+    private long durableSize;
+    private IOException failure;
+    private long lastCreatedAt = Long.MIN_VALUE;
+    private int maxId;
+
+    private ChannelLog(int channelId, Path directory, int segmentBytes) {
+        this.channelId = channelId;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens a channel's log, recovering every segment, or creates an empty one.
+     * @param channelId Channel ID
+     * @param directory Directory holding the channel's segments
+     * @param segmentBytes Size of newly created segments
+     * @return Open log
+     * @throws IOException if a segment cannot be opened
+     */
+    static ChannelLog open(int channelId, Path directory, int segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        ChannelLog log = new ChannelLog(channelId, directory, segmentBytes);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        try {
+            for (Path file : files) {
+                LogSegment segment = LogSegment.open(file, channelId, log.size, segmentBytes);
+                log.segments.add(segment);
+                log.size += segment.getCount();
+                for (int i = 0; i < segment.getCount(); i++) {
+                    log.maxId = Math.max(log.maxId, segment.getId(i));
+                }
+                if (segment.getCount() > 0) {
+                    log.lastCreatedAt = segment.getCreatedAt(segment.getCount() - 1);
+                }
+            }
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        log.durableSize = log.size;
+        return log;
+    }
+
+    int getChannelId() { return channelId; }
+
+    /**
+     * Gets the largest message ID in the log.
+     * @return Largest ID, or 0 if the log is empty
+     */
+    int getMaxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a message, assigning its ID. The creation time is raised to the previous
+     * message's if the clock went backwards, so the log stays in cursor order.
+     * The record is not visible to reads until {@link #sync} has covered it.
+     * @param message Message to append; its ID and creation time are updated
+     * @param ids Source of IDs, shared by every channel
+     * @return Log position just after the record, to pass to {@link #sync}
+     * @throws IOException if the log has failed or a new segment cannot be created
+     */
+    long append(Message message, AtomicInteger ids) throws IOException {
+        byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+        if (LogSegment.recordBytes(content.length) > segmentBytes) {
+            throw new IOException("Message of " + content.length + " bytes does not fit in a log segment");
+        }
+        lock.writeLock().lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Message log of channel " + channelId + " failed to flush", failure);
+            }
+            message.setId(ids.getAndIncrement());
+            message.setCreatedAtMillis(Math.max(message.getCreatedAtMillis(), lastCreatedAt));
+
+            LogSegment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (tail == null || !tail.append(message, content)) {
+                tail = LogSegment.open(directory.resolve(String.format("%020d", size) + SEGMENT_SUFFIX),
+                        channelId, size, segmentBytes);
+                segments.add(tail);
+                if (!tail.append(message, content)) {
+                    throw new IOException("Message does not fit in an empty log segment");
+                }
+            }
+            size++;
+            lastCreatedAt = message.getCreatedAtMillis();
+            maxId = Math.max(maxId, message.getId());
+            return size;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of records on disk, which is how many reads can see.
+     * @return Durable record count
+     */
+    long size() {
+        lock.readLock().lock();
+        try {
+            return durableSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the records strictly older than a cursor, which is also the position to
+     * continue reading backwards from.
+     * @param before Cursor, or null for the whole log
+     * @return Number of records before the cursor
+     */
+    long positionBefore(MessageCursor before) {
+        lock.readLock().lock();
+        try {
+            if (before == null) {
+                return durableSize;
+            }
+            long low = 0;
+            long high = durableSize;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                LogSegment segment = segmentOf(mid);
+                int index = (int) (mid - segment.getFirstRecord());
+                if (isOlder(segment.getCreatedAt(index), segment.getId(index), before)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads records backwards from a position.
+     * @param end Exclusive position to read backwards from
+     * @param limit Maximum number of records
+     * @return Messages newest first, without author emails
+     */
+    List<Message> readBackwards(long end, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Message> messages = new ArrayList<>((int) Math.min(limit, end));
+            for (long position = Math.min(end, durableSize) - 1; position >= 0 && messages.size() < limit; position--) {
+                LogSegment segment = segmentOf(position);
+                messages.add(segment.read((int) (position - segment.getFirstRecord())));
+            }
+            return messages;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the segments holding records up to a position and moves the durable watermark
+     * there. The segments are forced outside the lock so appends carry on meanwhile; only the
+     * flusher thread calls this, so the watermark never moves backwards under it.
+     * @param end Log position to make durable
+     * @throws IOException if the log has failed or a flush fails
+     */
+    void sync(long end) throws IOException {
+        List<LogSegment> dirty = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Message log of channel " + channelId + " failed to flush", failure);
+            }
+            for (LogSegment segment : segments) {
+                long first = segment.getFirstRecord();
+                if (first < end && first + segment.getCount() > durableSize) {
+                    dirty.add(segment);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (LogSegment segment : dirty) {
+            segment.force();
+        }
+        lock.writeLock().lock();
+        try {
+            durableSize = Math.max(durableSize, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards every record past the durable watermark and refuses further appends and
+     * flushes. After a failed fsync the kernel may have dropped the dirty pages, so nothing
+     * about the unflushed records can be trusted and retrying could report them saved.
+     * @param cause Flush failure
+     */
+    void fail(IOException cause) {
+        lock.writeLock().lock();
+        try {
+            if (failure != null) {
+                return;
+            }
+            failure = cause;
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                LogSegment segment = segments.get(i);
+                segment.truncate((int) Math.max(0, durableSize - segment.getFirstRecord()));
+                try {
+                    if (i > 0 && segment.getFirstRecord() >= durableSize) {
+                        // Holds nothing durable; drop the file so a reopened log numbers segments as before
+                        segments.remove(i);
+                        segment.close();
+                        Files.deleteIfExists(segment.getPath());
+                    } else {
+                        // Best effort, so the zeroed tail reaches disk before the old bytes can
+                        segment.force();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to truncate " + segment.getPath() + ": " + e.getMessage());
+                }
+            }
+            size = durableSize;
+            LogSegment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            lastCreatedAt = tail != null && tail.getCount() > 0
+                    ? tail.getCreatedAt(tail.getCount() - 1)
+                    : Long.MIN_VALUE;
+            System.err.println("Message log of channel " + channelId + " truncated to " + durableSize
+                    + " records after a failed flush");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes every segment to disk.
+     * @throws IOException if a flush fails
+     */
+    void force() throws IOException {
+        lock.readLock().lock();
+        try {
+            for (LogSegment segment : segments) {
+                segment.force();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void close() {
+        lock.writeLock().lock();
+        try {
+            for (LogSegment segment : segments) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close " + segment.getPath() + ": " + e.getMessage());
+                }
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Segments are few and ordered by first record, so the last one at or before the position holds it
+    private LogSegment segmentOf(long position) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).getFirstRecord() <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    private static boolean isOlder(long createdAt, int id, MessageCursor cursor) {
+        return createdAt < cursor.getCreatedAtMillis()
+                || (createdAt == cursor.getCreatedAtMillis() && id < cursor.getId());
+    }
+}
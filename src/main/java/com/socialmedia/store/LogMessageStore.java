@@ -0,0 +1,697 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.dao.AuthorDirectory;
+import com.socialmedia.exception.DatabaseException;
+import com.socialmedia.exception.UncheckedDatabaseException;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.model.SearchCursor;
+import main.java.com.socialmedia.model.SearchHit;
+import main.java.com.socialmedia.model.SearchResults;
+import main.java.com.socialmedia.subscription.SubscriptionGraph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Message store that appends each channel's messages to memory-mapped log segments instead
+ * of SQLite. A post is a copy into the mapped file under the channel's lock; a flusher thread
+ * forces dirty segments to disk in groups and completes the waiting futures afterwards, the
+ * same contract as the SQLite group commit. Reads decode records directly from the mapping
+ * and only see records that have been flushed.
+ * Select with -Dsocialmedia.messages.store=log.
+ */
+public class LogMessageStore implements MessageStore {
+    private static LogMessageStore instance;
+
+    private static final Path LOG_DIR = Path.of(System.getProperty("socialmedia.messages.log.dir", "message-log"));
+    private static final int SEGMENT_BYTES = Integer.getInteger("socialmedia.messages.log.segmentBytes", 16 * 1024 * 1024);
+    private static final int MAX_BATCH_SIZE = Integer.getInteger("socialmedia.messages.groupCommit.maxBatch", 256);
+    private static final long MAX_DELAY_MICROS = Long.getLong("socialmedia.messages.groupCommit.maxDelayMicros", 500);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    private static final int SNIPPET_CHARS = 120;
+
+    // Newest first, the order of every listing
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparingLong(Message::getCreatedAtMillis).reversed()
+            .thenComparing(Comparator.comparingInt(Message::getId).reversed());
+
+    private final ConcurrentHashMap<Integer, ChannelLog> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId;
+    private final SubscriptionGraph subscriptions;
+    private final BlockingQueue<PendingFlush> pendingFlushes = new LinkedBlockingQueue<>();
+    // Writers hold the read lock so shutdown cannot close segments under an append
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final Thread flusherThread;
+    private volatile boolean running = true;
+
+    private LogMessageStore() {
+        this.subscriptions = SubscriptionGraph.getInstance();
+        int maxId = 0;
+        try {
+            Files.createDirectories(LOG_DIR);
+            try (Stream<Path> listing = Files.list(LOG_DIR)) {
+                for (Path directory : (Iterable<Path>) listing::iterator) {
+                    String name = directory.getFileName().toString();
+                    if (Files.isDirectory(directory) && name.matches("\\d+")) {
+                        ChannelLog log = ChannelLog.open(Integer.parseInt(name), directory, SEGMENT_BYTES);
+                        channels.put(log.getChannelId(), log);
+                        maxId = Math.max(maxId, log.getMaxId());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to open message log in " + LOG_DIR.toAbsolutePath());
+            e.printStackTrace();
+            throw new IllegalStateException("Failed to open message log", e);
+        }
+        this.nextId = new AtomicInteger(maxId + 1);
+        this.flusherThread = new Thread(this::runFlusher, "message-log-flusher");
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+        System.out.println("Opened message log in " + LOG_DIR.toAbsolutePath() + " with " + channels.size() + " channels");
+    }
+
+    /**
+     * Gets the singleton instance of LogMessageStore.
+     * @return LogMessageStore instance
+     */
+    public static synchronized LogMessageStore getInstance() {
+        if (instance == null) {
+            instance = new LogMessageStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Appends a message to its channel's log and returns once it is on disk.
+     * @param message Message to create
+     * @return Created message with ID
+     * @throws DatabaseException if the message cannot be written
+     */
+    @Override
+    public Message createMessage(Message message) throws DatabaseException {
+        try {
+            return createMessageAsync(message).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for message to be saved", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseException) {
+                throw (DatabaseException) e.getCause();
+            }
+            throw new DatabaseException("Failed to create message", e.getCause());
+        }
+    }
+
+    /**
+     * Appends a message to its channel's log without waiting for the flush. The message
+     * becomes visible to reads once it is on disk.
+     * @param message Message to create
+     * @return Future completed with the message, ID set, once it is on disk
+     * @throws DatabaseException if the store has been shut down or the append fails
+     */
+    @Override
+    public CompletableFuture<Message> createMessageAsync(Message message) throws DatabaseException {
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new DatabaseException("Message log has been shut down");
+            }
+            ChannelLog log = channelLog(message.getChannelId());
+            PendingFlush flush = new PendingFlush(message, log, log.append(message, nextId));
+            pendingFlushes.add(flush);
+            return flush.future;
+        } catch (IOException e) {
+            System.err.println("Failed to append message to log");
+            e.printStackTrace();
+            throw new DatabaseException("Failed to append message to log", e);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all messages for a channel.
+     * @param channelId Channel ID
+     * @return List of messages for the channel, newest first
+     * @throws DatabaseException if an author cannot be resolved
+     */
+    @Override
+    public List<Message> getMessagesForChannel(int channelId) throws DatabaseException {
+        List<Message> messages = new ArrayList<>();
+        forEachMessageForChannel(channelId, MAX_BATCH_SIZE, messages::add);
+        return messages;
+    }
+
+    /**
+     * Gets all messages for channels that a user is subscribed to.
+     * @param userId User ID
+     * @return List of messages from subscribed channels, newest first
+     * @throws DatabaseException if subscriptions or authors cannot be read
+     */
+    @Override
+    public List<Message> getMessagesForUser(int userId) throws DatabaseException {
+        List<Message> messages = new ArrayList<>();
+        forEachMessageForUser(userId, MAX_BATCH_SIZE, messages::add);
+        return messages;
+    }
+
+    /**
+     * Streams all messages for a channel, decoding them as they are consumed.
+     * @param channelId Channel ID
+     * @param fetchSize Records decoded per lock acquisition
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     */
+    @Override
+    public Stream<Message> streamMessagesForChannel(int channelId, int fetchSize) {
+        return toStream(merge(logsFor(channelId), fetchSize));
+    }
+
+    /**
+     * Streams all messages for channels that a user is subscribed to, merged newest first.
+     * @param userId User ID
+     * @param fetchSize Records decoded per lock acquisition
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     * @throws DatabaseException if subscriptions cannot be read
+     */
+    @Override
+    public Stream<Message> streamMessagesForUser(int userId, int fetchSize) throws DatabaseException {
+        return toStream(merge(logsFor(subscriptions.getChannelIds(userId)), fetchSize));
+    }
+
+    /**
+     * Pushes every message for a channel to a callback, newest first.
+     * @param channelId Channel ID
+     * @param fetchSize Records decoded per lock acquisition
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if an author cannot be resolved
+     */
+    @Override
+    public long forEachMessageForChannel(int channelId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return forEach(merge(logsFor(channelId), fetchSize), handler);
+    }
+
+    /**
+     * Pushes every message for a user's subscribed channels to a callback, newest first.
+     * @param userId User ID
+     * @param fetchSize Records decoded per lock acquisition
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if subscriptions or authors cannot be read
+     */
+    @Override
+    public long forEachMessageForUser(int userId, int fetchSize, Consumer<Message> handler) throws DatabaseException {
+        return forEach(merge(logsFor(subscriptions.getChannelIds(userId)), fetchSize), handler);
+    }
+
+    /**
+     * Gets the newest messages of a channel.
+     * @param channelId Channel ID
+     * @param limit Maximum number of messages
+     * @return Page of messages
+     * @throws DatabaseException if an author cannot be resolved
+     */
+    @Override
+    public MessagePage getLatestMessagesForChannel(int channelId, int limit) throws DatabaseException {
+        return getMessagesBeforeForChannel(channelId, null, limit);
+    }
+
+    /**
+     * Gets the messages of a channel older than a cursor, found by binary search over the log.
+     * @param channelId Channel ID
+     * @param before Cursor of the oldest message already loaded, or null for the newest
+     * @param limit Maximum number of messages
+     * @return Page of messages
+     * @throws DatabaseException if an author cannot be resolved
+     */
+    @Override
+    public MessagePage getMessagesBeforeForChannel(int channelId, MessageCursor before, int limit) throws DatabaseException {
+        ChannelLog log = channels.get(channelId);
+        if (log == null) {
+            return new MessagePage(List.of(), false);
+        }
+        // Ask for one extra record to learn whether more exist
+        List<Message> messages = log.readBackwards(log.positionBefore(before), limit + 1);
+        boolean hasMore = messages.size() > limit;
+        if (hasMore) {
+            messages.remove(limit);
+        }
+        AuthorDirectory authors = AuthorDirectory.getInstance();
+        for (Message message : messages) {
+            message.setUserEmail(authors.resolve(message.getUserId()));
+        }
+        return new MessagePage(messages, hasMore);
+    }
+
+    /**
+     * Searches message content by scanning the logs newest first. There is no relevance
+     * ranking here: hits come newest first and every score is 0.
+     * @param terms Search terms; every term must match a word and the last also matches as a prefix
+     * @param channelId Channel to search in, or null for all channels
+     * @param limit Maximum number of hits
+     * @param cursor Position to continue from, or null for the first page
+     * @return Hits, newest first
+     * @throws DatabaseException if an author cannot be resolved
+     */
+    @Override
+    public SearchResults searchMessages(List<String> terms, Integer channelId, int limit, SearchCursor cursor)
+            throws DatabaseException {
+        List<String> words = new ArrayList<>();
+        for (String term : terms) {
+            words.addAll(tokenize(term));
+        }
+        int offset = cursor != null ? cursor.getOffset() : 0;
+        if (words.isEmpty()) {
+            return new SearchResults(List.of(), null);
+        }
+
+        Iterator<Message> messages = merge(channelId != null ? logsFor(channelId) : List.copyOf(channels.values()),
+                MAX_BATCH_SIZE);
+        AuthorDirectory authors = AuthorDirectory.getInstance();
+        List<SearchHit> hits = new ArrayList<>(limit);
+        int skipped = 0;
+        boolean hasMore = false;
+        while (messages.hasNext()) {
+            Message message = messages.next();
+            if (!matches(message.getContent(), words)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            if (hits.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            message.setUserEmail(authors.resolve(message.getUserId()));
+            hits.add(new SearchHit(message, snippet(message.getContent(), words), 0));
+        }
+        return new SearchResults(hits, hasMore ? new SearchCursor(offset + limit) : null);
+    }
+
+    /**
+     * Stops accepting messages, flushes everything appended and unmaps the logs.
+     */
+    public void shutdown() {
+        stateLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        try {
+            flusherThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusherThread.isAlive()) {
+            System.err.println("Message log flusher did not drain within " + SHUTDOWN_TIMEOUT_MS + " ms");
+        }
+        for (ChannelLog log : channels.values()) {
+            try {
+                log.force();
+            } catch (IOException e) {
+                System.err.println("Failed to flush message log of channel " + log.getChannelId() + ": " + e.getMessage());
+            }
+            log.close();
+        }
+        System.out.println("Message log flushed and closed");
+    }
+
+    private ChannelLog channelLog(int channelId) throws IOException {
+        ChannelLog log = channels.get(channelId);
+        if (log != null) {
+            return log;
+        }
+        synchronized (channels) {
+            log = channels.get(channelId);
+            if (log == null) {
+                log = ChannelLog.open(channelId, LOG_DIR.resolve(Integer.toString(channelId)), SEGMENT_BYTES);
+                channels.put(channelId, log);
+            }
+            return log;
+        }
+    }
+
+    private List<ChannelLog> logsFor(int... channelIds) {
+        List<ChannelLog> logs = new ArrayList<>(channelIds.length);
+        for (int channelId : channelIds) {
+            ChannelLog log = channels.get(channelId);
+            if (log != null) {
+                logs.add(log);
+            }
+        }
+        return logs;
+    }
+
+    private void runFlusher() {
+        List<PendingFlush> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !pendingFlushes.isEmpty()) {
+            try {
+                try {
+                    PendingFlush first = pendingFlushes.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collectBatch(batch);
+                } catch (InterruptedException e) {
+                    // Shutdown is signalled through the running flag; flush what was already taken
+                }
+                if (!batch.isEmpty()) {
+                    flushBatch(batch);
+                }
+            } catch (Throwable t) {
+                System.err.println("Unexpected error in message log flusher");
+                t.printStackTrace();
+                abandon(batch, t);
+                if (t instanceof Error) {
+                    stopAfterError(t);
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // The flusher cannot go on, so refuse new posts and fail queued ones instead of leaving them waiting
+    private void stopAfterError(Throwable cause) {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        List<PendingFlush> stranded = new ArrayList<>();
+        pendingFlushes.drainTo(stranded);
+        abandon(stranded, cause);
+    }
+
+    // Fails the logs too, so a later flush cannot make records durable after their posts were failed
+    private void abandon(List<PendingFlush> flushes, Throwable cause) {
+        IOException failure = new IOException("Message log flusher failed", cause);
+        for (PendingFlush flush : flushes) {
+            flush.log.fail(failure);
+        }
+        failAll(flushes, new DatabaseException("Failed to flush message log", cause));
+    }
+
+    private void collectBatch(List<PendingFlush> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(MAX_DELAY_MICROS);
+        while (batch.size() < MAX_BATCH_SIZE) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                pendingFlushes.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+                return;
+            }
+            PendingFlush next = pendingFlushes.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // One sync per channel, up to its newest record in the batch, covers every record written to it
+    private void flushBatch(List<PendingFlush> batch) {
+        Map<ChannelLog, Long> ends = new IdentityHashMap<>();
+        for (PendingFlush flush : batch) {
+            ends.merge(flush.log, flush.end, Math::max);
+        }
+        Map<ChannelLog, IOException> failures = new IdentityHashMap<>();
+        for (Map.Entry<ChannelLog, Long> entry : ends.entrySet()) {
+            ChannelLog log = entry.getKey();
+            try {
+                log.sync(entry.getValue());
+            } catch (IOException e) {
+                System.err.println("Failed to flush message log of channel " + log.getChannelId());
+                e.printStackTrace();
+                log.fail(e);
+                failures.put(log, e);
+            }
+        }
+        for (PendingFlush flush : batch) {
+            IOException failure = failures.get(flush.log);
+            if (failure == null) {
+                flush.future.complete(flush.message);
+            } else {
+                flush.future.completeExceptionally(new DatabaseException("Failed to flush message log", failure));
+            }
+        }
+    }
+
+    private void failAll(List<PendingFlush> batch, DatabaseException cause) {
+        for (PendingFlush flush : batch) {
+            flush.future.completeExceptionally(cause);
+        }
+    }
+
+    private static long forEach(Iterator<Message> messages, Consumer<Message> handler) throws DatabaseException {
+        AuthorDirectory authors = AuthorDirectory.getInstance();
+        long count = 0;
+        while (messages.hasNext()) {
+            Message message = messages.next();
+            message.setUserEmail(authors.resolve(message.getUserId()));
+            handler.accept(message);
+            count++;
+        }
+        return count;
+    }
+
+    private static Stream<Message> toStream(Iterator<Message> messages) {
+        AuthorDirectory authors = AuthorDirectory.getInstance();
+        Iterator<Message> resolved = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return messages.hasNext();
+            }
+
+            @Override
+            public Message next() {
+                Message message = messages.next();
+                try {
+                    message.setUserEmail(authors.resolve(message.getUserId()));
+                } catch (DatabaseException e) {
+                    throw new UncheckedDatabaseException(e);
+                }
+                return message;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resolved,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Merges channel logs newest first, decoding each in chunks from a snapshot of its size
+    private static Iterator<Message> merge(List<ChannelLog> logs, int fetchSize) {
+        int chunk = Math.max(1, fetchSize);
+        PriorityQueue<LogReader> heads = new PriorityQueue<>(Math.max(1, logs.size()),
+                (a, b) -> NEWEST_FIRST.compare(a.peek(), b.peek()));
+        for (ChannelLog log : logs) {
+            LogReader reader = new LogReader(log, chunk);
+            if (reader.hasNext()) {
+                heads.add(reader);
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Message next() {
+                LogReader reader = heads.poll();
+                if (reader == null) {
+                    throw new NoSuchElementException();
+                }
+                Message message = reader.next();
+                if (reader.hasNext()) {
+                    heads.add(reader);
+                }
+                return message;
+            }
+        };
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean matches(String content, List<String> words) {
+        List<String> contentWords = tokenize(content);
+        for (int i = 0; i < words.size(); i++) {
+            boolean prefix = i == words.size() - 1;
+            boolean found = false;
+            for (String contentWord : contentWords) {
+                if (matchesWord(contentWord, words.get(i), prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesWord(String contentWord, String word, boolean prefix) {
+        return prefix ? contentWord.startsWith(word) : contentWord.equals(word);
+    }
+
+    // Wraps matched words in highlight markers, trimmed to a window around the first match
+    private static String snippet(String content, List<String> words) {
+        StringBuilder snippet = new StringBuilder(content.length() + 8);
+        int firstMatch = -1;
+        int start = -1;
+        for (int i = 0; i <= content.length(); i++) {
+            boolean wordChar = i < content.length() && Character.isLetterOrDigit(content.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+                continue;
+            }
+            if (!wordChar && start >= 0) {
+                String word = content.substring(start, i);
+                if (isHighlighted(word.toLowerCase(Locale.ROOT), words)) {
+                    if (firstMatch < 0) {
+                        firstMatch = snippet.length();
+                    }
+                    snippet.append(SearchHit.HIGHLIGHT_START).append(word).append(SearchHit.HIGHLIGHT_END);
+                } else {
+                    snippet.append(word);
+                }
+                start = -1;
+            }
+            if (i < content.length() && !wordChar) {
+                snippet.append(content.charAt(i));
+            }
+        }
+        if (snippet.length() <= SNIPPET_CHARS) {
+            return snippet.toString();
+        }
+        int from = Math.max(0, Math.min(firstMatch - SNIPPET_CHARS / 4, snippet.length() - SNIPPET_CHARS));
+        int to = Math.min(snippet.length(), from + SNIPPET_CHARS);
+        // Never cut inside a highlighted word
+        while (from > 0 && insideHighlight(snippet, from)) {
+            from--;
+        }
+        while (to < snippet.length() && insideHighlight(snippet, to)) {
+            to++;
+        }
+        return (from > 0 ? "…" : "") + snippet.substring(from, to) + (to < snippet.length() ? "…" : "");
+    }
+
+    private static boolean isHighlighted(String word, List<String> words) {
+        for (int i = 0; i < words.size(); i++) {
+            if (matchesWord(word, words.get(i), i == words.size() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean insideHighlight(CharSequence text, int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            if (text.charAt(i) == SearchHit.HIGHLIGHT_END) {
+                return false;
+            }
+            if (text.charAt(i) == SearchHit.HIGHLIGHT_START) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Walks one channel log backwards from the durable size it had when the read started
+    private static class LogReader {
+        private final ChannelLog log;
+        private final int chunk;
+        private long position;
+        private List<Message> buffer = List.of();
+        private int index;
+
+        LogReader(ChannelLog log, int chunk) {
+            this.log = log;
+            this.chunk = chunk;
+            this.position = log.size();
+        }
+
+        boolean hasNext() {
+            if (index < buffer.size()) {
+                return true;
+            }
+            if (position == 0) {
+                return false;
+            }
+            buffer = log.readBackwards(position, chunk);
+            position -= buffer.size();
+            index = 0;
+            return !buffer.isEmpty();
+        }
+
+        Message peek() {
+            return buffer.get(index);
+        }
+
+        Message next() {
+            return buffer.get(index++);
+        }
+    }
+
+    private static class PendingFlush {
+        private final Message message;
+        private final ChannelLog log;
+        private final long end;
+        private final CompletableFuture<Message> future = new CompletableFuture<>();
+
+        PendingFlush(Message message, ChannelLog log, long end) {
+            this.message = message;
+            this.log = log;
+            this.end = end;
+        }
+    }
+}
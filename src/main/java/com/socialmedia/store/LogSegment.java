@@ -0,0 +1,238 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.model.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped, append-only file of a channel's message log.
+ * <pre>
+ * record:  payload length (int), CRC32 of payload (int),
+ *          payload: created_at (long), id (int), user_id (int), content UTF-8
+ * </pre>
+ * The file is preallocated and zero-filled, so a zero length marks the end of the log.
+ * Opening a segment scans it once to rebuild the in-memory offset index; a record that is cut
+ * short or fails its checksum is a torn tail from a crash. Wherever the scan stops, any
+ * non-zero bytes after it are zeroed, so a later append can never end up followed by a stale
+ * record that a future scan would pick up. Not thread-safe; {@link ChannelLog} guards access.
+ */
+final class LogSegment {
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int PAYLOAD_FIXED_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    // Compared against whole chunks of a segment's tail; never written, so safe to share
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(64 * 1024);
+
+    private final Path path;
+    private final int channelId;
+    private final long firstRecord;
+    private final FileChannel file;
+    private final MappedByteBuffer map;
+    private int writePosition;
+
+    // Offset index: file position, created_at and id of every record in append order
+    private int count;
+    private int[] positions = new int[256];
+    private long[] createdAts = new long[256];
+    private int[] ids = new int[256];
+
+    private LogSegment(Path path, int channelId, long firstRecord, FileChannel file, MappedByteBuffer map) {
+        this.path = path;
+        this.channelId = channelId;
+        this.firstRecord = firstRecord;
+        this.file = file;
+        this.map = map;
+    }
+
+    /**
+     * Opens or creates a segment file, recovering its index.
+     * @param path Segment file
+     * @param channelId Channel the records belong to
+     * @param firstRecord Channel-wide number of the first record in this file
+     * @param capacity Size to preallocate; existing larger files keep their size
+     * @return Open segment
+     * @throws IOException if the file cannot be mapped
+     */
+    static LogSegment open(Path path, int channelId, long firstRecord, int capacity) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = file.size() == 0;
+            long size = Math.max(file.size(), capacity);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large: " + path);
+            }
+            MappedByteBuffer map = file.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            LogSegment segment = new LogSegment(path, channelId, firstRecord, file, map);
+            // A new file is all zeros; rollover happens under the channel's write lock, so do not scan it
+            if (!created) {
+                segment.recover();
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the space a record takes in a segment.
+     * @param contentLength Content length in UTF-8 bytes
+     * @return Record size in bytes
+     */
+    static int recordBytes(int contentLength) {
+        return RECORD_HEADER_BYTES + PAYLOAD_FIXED_BYTES + contentLength;
+    }
+
+    Path getPath() { return path; }
+    long getFirstRecord() { return firstRecord; }
+    int getCount() { return count; }
+    long getCreatedAt(int index) { return createdAts[index]; }
+    int getId(int index) { return ids[index]; }
+
+    /**
+     * Appends a record at the end of the file.
+     * @param message Message with ID and creation time set
+     * @param content Content encoded as UTF-8
+     * @return false if the record does not fit; the segment is then full
+     */
+    boolean append(Message message, byte[] content) {
+        int payloadLength = PAYLOAD_FIXED_BYTES + content.length;
+        if (writePosition + recordBytes(content.length) > map.capacity()) {
+            return false;
+        }
+        int payload = writePosition + RECORD_HEADER_BYTES;
+        map.putLong(payload, message.getCreatedAtMillis());
+        map.putInt(payload + 8, message.getId());
+        map.putInt(payload + 12, message.getUserId());
+        map.put(payload + PAYLOAD_FIXED_BYTES, content);
+
+        CRC32 crc = new CRC32();
+        crc.update(map.slice(payload, payloadLength));
+        map.putInt(writePosition + 4, (int) crc.getValue());
+        // The length goes in last: until it is set the record reads as the end of the log
+        map.putInt(writePosition, payloadLength);
+
+        addToIndex(writePosition, message.getCreatedAtMillis(), message.getId());
+        writePosition = payload + payloadLength;
+        return true;
+    }
+
+    /**
+     * Decodes a record straight from the mapped file.
+     * @param index Record number within this segment
+     * @return Message without author email
+     */
+    Message read(int index) {
+        int position = positions[index];
+        int payloadLength = map.getInt(position);
+        ByteBuffer payload = map.slice(position + RECORD_HEADER_BYTES, payloadLength);
+
+        Message message = new Message();
+        message.setCreatedAtMillis(payload.getLong(0));
+        message.setId(payload.getInt(8));
+        message.setUserId(payload.getInt(12));
+        message.setChannelId(channelId);
+        byte[] content = new byte[payloadLength - PAYLOAD_FIXED_BYTES];
+        payload.get(PAYLOAD_FIXED_BYTES, content);
+        message.setContent(new String(content, StandardCharsets.UTF_8));
+        return message;
+    }
+
+    /**
+     * Flushes appended records to disk.
+     * @throws IOException if the flush fails
+     */
+    void force() throws IOException {
+        try {
+            map.force();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Discards the newest records, zeroing their bytes so a later scan cannot find them.
+     * @param records Number of records to keep
+     */
+    void truncate(int records) {
+        if (records >= count) {
+            return;
+        }
+        int position = positions[records];
+        clear(position, writePosition);
+        count = records;
+        writePosition = position;
+    }
+
+    void close() throws IOException {
+        file.close();
+    }
+
+    private void recover() {
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= map.capacity()) {
+            int payloadLength = map.getInt(position);
+            if (payloadLength == 0) {
+                break;
+            }
+            int payload = position + RECORD_HEADER_BYTES;
+            if (payloadLength < PAYLOAD_FIXED_BYTES || payloadLength > map.capacity() - payload) {
+                break;
+            }
+            crc.reset();
+            crc.update(map.slice(payload, payloadLength));
+            if ((int) crc.getValue() != map.getInt(position + 4)) {
+                break;
+            }
+            addToIndex(position, map.getLong(payload), map.getInt(payload + 8));
+            position = payload + payloadLength;
+        }
+        writePosition = position;
+
+        // A zero length is only the end if nothing follows it; a torn header can read as zero too
+        if (clear(position, map.capacity())) {
+            map.force();
+            System.err.println("Truncated torn tail of " + path + " at byte " + position + " after " + count + " records");
+        }
+    }
+
+    // Zeroes a byte range up to its last non-zero byte; returns whether anything was cleared
+    private boolean clear(int from, int to) {
+        int end = to;
+        // A mostly empty segment ends in megabytes of zeros, so skip them a chunk, then a word, at a time
+        while (end - ZEROS.capacity() >= from && map.slice(end - ZEROS.capacity(), ZEROS.capacity()).mismatch(ZEROS) < 0) {
+            end -= ZEROS.capacity();
+        }
+        while (end - Long.BYTES >= from && map.getLong(end - Long.BYTES) == 0) {
+            end -= Long.BYTES;
+        }
+        while (end > from && map.get(end - 1) == 0) {
+            end--;
+        }
+        for (int i = from; i < end; i++) {
+            map.put(i, (byte) 0);
+        }
+        return end > from;
+    }
+
+    private void addToIndex(int position, long createdAt, int id) {
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+            createdAts = Arrays.copyOf(createdAts, count * 2);
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        positions[count] = position;
+        createdAts[count] = createdAt;
+        ids[count] = id;
+        count++;
+    }
+}
@@ -0,0 +1,124 @@
+package main.java.com.socialmedia.store;
+
+import com.socialmedia.exception.DatabaseException;
+import com.socialmedia.exception.UncheckedDatabaseException;
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import main.java.com.socialmedia.model.MessagePage;
+import main.java.com.socialmedia.model.SearchCursor;
+import main.java.com.socialmedia.model.SearchResults;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage for live messages. Every listing is newest first, ordered by (created_at, id).
+ * Messages the archiver has moved out are no longer in the store; only
+ * {@code ChannelHistory} stitches them back onto channel and feed pages.
+ * Pick an implementation with {@link MessageStores#getDefault()}.
+ */
+public interface MessageStore {
+
+    /**
+     * Stores a new message and returns once it is durable.
+     * @param message Message to create
+     * @return Created message with ID
+     * @throws DatabaseException if the message cannot be stored
+     */
+    Message createMessage(Message message) throws DatabaseException;
+
+    /**
+     * Queues a message for storage without waiting for it to become durable.
+     * @param message Message to create
+     * @return Future completed with the message, ID set, once it is durable
+     * @throws DatabaseException if the store has been shut down
+     */
+    CompletableFuture<Message> createMessageAsync(Message message) throws DatabaseException;
+
+    /**
+     * Gets all messages for a channel.
+     * @param channelId Channel ID
+     * @return List of messages for the channel
+     * @throws DatabaseException if the messages cannot be read
+     */
+    List<Message> getMessagesForChannel(int channelId) throws DatabaseException;
+
+    /**
+     * Gets all messages for channels that a user is subscribed to.
+     * @param userId User ID
+     * @return List of messages from subscribed channels
+     * @throws DatabaseException if the messages cannot be read
+     */
+    List<Message> getMessagesForUser(int userId) throws DatabaseException;
+
+    /**
+     * Streams all messages for a channel. Close the stream when done.
+     * @param channelId Channel ID
+     * @param fetchSize Rows fetched per round trip, where the store reads in batches
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     * @throws DatabaseException if the read cannot be started
+     */
+    Stream<Message> streamMessagesForChannel(int channelId, int fetchSize) throws DatabaseException;
+
+    /**
+     * Streams all messages for channels that a user is subscribed to. Close the stream when done.
+     * @param userId User ID
+     * @param fetchSize Rows fetched per round trip, where the store reads in batches
+     * @return Stream of messages; consuming it may throw {@link UncheckedDatabaseException}
+     * @throws DatabaseException if the read cannot be started
+     */
+    Stream<Message> streamMessagesForUser(int userId, int fetchSize) throws DatabaseException;
+
+    /**
+     * Pushes every message for a channel to a callback as it is read.
+     * @param channelId Channel ID
+     * @param fetchSize Rows fetched per round trip, where the store reads in batches
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if the messages cannot be read
+     */
+    long forEachMessageForChannel(int channelId, int fetchSize, Consumer<Message> handler) throws DatabaseException;
+
+    /**
+     * Pushes every message for a user's subscribed channels to a callback as it is read.
+     * @param userId User ID
+     * @param fetchSize Rows fetched per round trip, where the store reads in batches
+     * @param handler Callback invoked once per message
+     * @return Number of messages read
+     * @throws DatabaseException if the messages cannot be read
+     */
+    long forEachMessageForUser(int userId, int fetchSize, Consumer<Message> handler) throws DatabaseException;
+
+    /**
+     * Gets the newest messages of a channel.
+     * @param channelId Channel ID
+     * @param limit Maximum number of messages
+     * @return Page of messages
+     * @throws DatabaseException if the messages cannot be read
+     */
+    MessagePage getLatestMessagesForChannel(int channelId, int limit) throws DatabaseException;
+
+    /**
+     * Gets the messages of a channel that are older than a cursor.
+     * @param channelId Channel ID
+     * @param before Cursor of the oldest message already loaded
+     * @param limit Maximum number of messages
+     * @return Page of messages
+     * @throws DatabaseException if the messages cannot be read
+     */
+    MessagePage getMessagesBeforeForChannel(int channelId, MessageCursor before, int limit) throws DatabaseException;
+
+    /**
+     * Searches message content. Every term must match a word; the last term also matches as a prefix.
+     * @param terms Search terms, already split on whitespace
+     * @param channelId Channel to search in, or null for all channels
+     * @param limit Maximum number of hits
+     * @param cursor Position to continue from, or null for the first page
+     * @return Hits in the store's relevance order
+     * @throws DatabaseException if the search fails
+     */
+    SearchResults searchMessages(List<String> terms, Integer channelId, int limit, SearchCursor cursor)
+            throws DatabaseException;
+}
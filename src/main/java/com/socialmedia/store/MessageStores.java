@@ -0,0 +1,50 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.dao.MessageDAO;
+
+/**
+ * Chooses the message store for this process with -Dsocialmedia.messages.store:
+ * {@code sqlite} (default) keeps messages in the database, {@code log} keeps them in
+ * append-only memory-mapped files. Messages are not migrated between stores.
+ */
+public final class MessageStores {
+    private static final String STORE = System.getProperty("socialmedia.messages.store", "sqlite");
+
+    private static MessageStore defaultStore;
+
+    private MessageStores() {
+    }
+
+    /**
+     * Gets the configured message store.
+     * @return Message store shared by the process
+     */
+    public static synchronized MessageStore getDefault() {
+        if (defaultStore == null) {
+            defaultStore = switch (STORE) {
+                case "sqlite" -> new MessageDAO();
+                case "log" -> LogMessageStore.getInstance();
+                default -> throw new IllegalStateException("Unknown message store: " + STORE);
+            };
+            System.out.println("Using " + STORE + " message store");
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Checks whether messages live in SQLite, which features built on SQL over the
+     * messages table (materialized timelines, archiving) require.
+     * @return true if the SQLite store is configured
+     */
+    public static boolean isSqlite() {
+        return STORE.equals("sqlite");
+    }
+
+    /**
+     * Checks whether the log-structured store is configured.
+     * @return true if messages live in log files
+     */
+    public static boolean isLog() {
+        return STORE.equals("log");
+    }
+}
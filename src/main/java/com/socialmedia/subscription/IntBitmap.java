@@ -0,0 +1,339 @@
+package main.java.com.socialmedia.subscription;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the style of a roaring bitmap. Values are split by
+ * their high 16 bits into containers; a container holding up to 4096 values is a sorted
+ * char array sized exactly to its contents, a denser one is a fixed 8 KB bit set. Small
+ * sets of nearby IDs therefore cost about two bytes per value. Key arrays are sized exactly,
+ * and a bitmap with a single container holds it directly, so a small set costs one object
+ * and one array. Not thread-safe; {@link SubscriptionGraph} guards access.
+ */
+public final class IntBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final char[] NO_KEYS = new char[0];
+    // Shared by every bitmap whose only container holds values below 65536; key arrays are never written in place
+    private static final char[] ZERO_KEY = new char[1];
+
+    // High 16 bits of each container's values, ascending; its length is the number of containers
+    private char[] keys = NO_KEYS;
+    // The only container (a char[] or a long[]) when there is one, otherwise an Object[] of them
+    private Object containers;
+    private int cardinality;
+
+    /**
+     * Builds a bitmap from ascending values in one pass.
+     * @param values Values, ascending, without duplicates
+     * @param from First index to use
+     * @param to Index after the last one to use
+     * @return New bitmap
+     */
+    public static IntBitmap fromSorted(int[] values, int from, int to) {
+        IntBitmap bitmap = new IntBitmap();
+        int start = from;
+        while (start < to) {
+            char key = highBits(values[start]);
+            int end = start + 1;
+            while (end < to && highBits(values[end]) == key) {
+                end++;
+            }
+            Object container;
+            if (end - start <= ARRAY_MAX) {
+                char[] array = new char[end - start];
+                for (int i = start; i < end; i++) {
+                    array[i - start] = (char) values[i];
+                }
+                container = array;
+            } else {
+                long[] bits = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    char low = (char) values[i];
+                    bits[low >>> 6] |= 1L << low;
+                }
+                container = bits;
+            }
+            bitmap.insertContainer(bitmap.keys.length, key, container);
+            bitmap.cardinality += end - start;
+            start = end;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds a value.
+     * @param value Non-negative value
+     * @return true if the value was not present
+     */
+    public boolean add(int value) {
+        checkValue(value);
+        char key = highBits(value);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            insertContainer(-index - 1, key, new char[] {low});
+            cardinality++;
+            return true;
+        }
+
+        if (container(index) instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (array.length == ARRAY_MAX) {
+                long[] bits = toBits(array);
+                bits[low >>> 6] |= 1L << low;
+                setContainer(index, bits);
+            } else {
+                int insertAt = -position - 1;
+                char[] grown = new char[array.length + 1];
+                System.arraycopy(array, 0, grown, 0, insertAt);
+                grown[insertAt] = low;
+                System.arraycopy(array, insertAt, grown, insertAt + 1, array.length - insertAt);
+                setContainer(index, grown);
+            }
+        } else {
+            long[] bits = (long[]) container(index);
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) != 0) {
+                return false;
+            }
+            bits[low >>> 6] |= mask;
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     * @param value Value to remove
+     * @return true if the value was present
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        char key = highBits(value);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return false;
+        }
+
+        if (container(index) instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position < 0) {
+                return false;
+            }
+            if (array.length == 1) {
+                removeContainer(index);
+            } else {
+                char[] shrunk = new char[array.length - 1];
+                System.arraycopy(array, 0, shrunk, 0, position);
+                System.arraycopy(array, position + 1, shrunk, position, array.length - position - 1);
+                setContainer(index, shrunk);
+            }
+        } else {
+            long[] bits = (long[]) container(index);
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                return false;
+            }
+            bits[low >>> 6] &= ~mask;
+            int remaining = bitCount(bits);
+            if (remaining <= ARRAY_MAX) {
+                setContainer(index, toArray(bits, remaining));
+            }
+        }
+        cardinality--;
+        return true;
+    }
+
+    /**
+     * Checks whether a value is present.
+     * @param value Value to look up
+     * @return true if present
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, highBits(value));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (container(index) instanceof char[] array) {
+            return Arrays.binarySearch(array, low) >= 0;
+        }
+        return (((long[]) container(index))[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Copies the values out.
+     * @return Values, ascending
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int[] next = {0};
+        forEach(value -> values[next[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Visits every value.
+     * @param action Callback invoked once per value, ascending
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            if (container(i) instanceof char[] array) {
+                for (char low : array) {
+                    action.accept(high | low);
+                }
+            } else {
+                long[] bits = (long[]) container(i);
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long remaining = bits[word];
+                    while (remaining != 0) {
+                        action.accept(high | (word << 6) | Long.numberOfTrailingZeros(remaining));
+                        remaining &= remaining - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap used by this bitmap, for logging.
+     * @return Approximate size in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 24;
+        if (keys.length > 1) {
+            bytes += 16 + 2L * keys.length + 16 + 4L * keys.length;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            bytes += container(i) instanceof char[] array ? 16 + 2L * array.length : 16 + 8L * BITMAP_WORDS;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "IntBitmap{cardinality=" + cardinality + ", containers=" + keys.length + '}';
+    }
+
+    private Object container(int index) {
+        return keys.length == 1 ? containers : ((Object[]) containers)[index];
+    }
+
+    private void setContainer(int index, Object container) {
+        if (keys.length == 1) {
+            containers = container;
+        } else {
+            ((Object[]) containers)[index] = container;
+        }
+    }
+
+    private void insertContainer(int index, char key, Object container) {
+        int size = keys.length;
+        if (size == 0) {
+            keys = key == 0 ? ZERO_KEY : new char[] {key};
+            containers = container;
+            return;
+        }
+        char[] grownKeys = new char[size + 1];
+        Object[] grown = new Object[size + 1];
+        for (int i = 0, j = 0; i <= size; i++) {
+            if (i == index) {
+                grownKeys[i] = key;
+                grown[i] = container;
+            } else {
+                grownKeys[i] = keys[j];
+                grown[i] = container(j);
+                j++;
+            }
+        }
+        keys = grownKeys;
+        containers = grown;
+    }
+
+    private void removeContainer(int index) {
+        int size = keys.length;
+        if (size == 1) {
+            keys = NO_KEYS;
+            containers = null;
+            return;
+        }
+        if (size == 2) {
+            int kept = 1 - index;
+            char key = keys[kept];
+            Object container = container(kept);
+            keys = key == 0 ? ZERO_KEY : new char[] {key};
+            containers = container;
+            return;
+        }
+        char[] shrunkKeys = new char[size - 1];
+        Object[] shrunk = new Object[size - 1];
+        for (int i = 0, j = 0; i < size; i++) {
+            if (i != index) {
+                shrunkKeys[j] = keys[i];
+                shrunk[j] = container(i);
+                j++;
+            }
+        }
+        keys = shrunkKeys;
+        containers = shrunk;
+    }
+
+    private static long[] toBits(char[] array) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (char low : array) {
+            bits[low >>> 6] |= 1L << low;
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int count) {
+        char[] array = new char[count];
+        int next = 0;
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                array[next++] = (char) ((word << 6) | Long.numberOfTrailingZeros(remaining));
+                remaining &= remaining - 1;
+            }
+        }
+        return array;
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative: " + value);
+        }
+    }
+}
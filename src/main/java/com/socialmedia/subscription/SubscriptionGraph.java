@@ -0,0 +1,291 @@
+package main.java.com.socialmedia.subscription;
+
+import main.java.com.socialmedia.dao.ChannelDAO;
+import com.socialmedia.exception.DatabaseException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Process-wide copy of the subscriptions table: a compressed bitmap of subscriber IDs per
+ * channel and one of channel IDs per user, indexed by ID. Loaded once at startup and updated
+ * by {@code ChannelService} on subscribe and unsubscribe, so membership checks, subscriber
+ * counts and fan-out targets never touch the database. Until it is loaded every query falls
+ * back to SQL. Subscriptions added by a bulk import appear after the next restart.
+ */
+public class SubscriptionGraph {
+    private static SubscriptionGraph instance;
+
+    private static final IntBitmap EMPTY = new IntBitmap();
+
+    private final ChannelDAO channelDAO;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IntBitmap[] subscribersByChannel = new IntBitmap[0];
+    private IntBitmap[] channelsByUser = new IntBitmap[0];
+    private long subscriptionCount;
+    private volatile boolean loaded;
+
+    private SubscriptionGraph() {
+        this.channelDAO = new ChannelDAO();
+    }
+
+    /**
+     * Gets the singleton instance of SubscriptionGraph.
+     * @return SubscriptionGraph instance
+     */
+    public static synchronized SubscriptionGraph getInstance() {
+        if (instance == null) {
+            instance = new SubscriptionGraph();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads every subscription if that has not happened yet. Updates made while loading
+     * wait for the load and are applied on top of it.
+     * @throws DatabaseException if database operation fails
+     */
+    public void ensureLoaded() throws DatabaseException {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            PairBuffer pairs = new PairBuffer();
+            channelDAO.forEachSubscription((userId, channelId) -> pairs.add(pack(channelId, userId)));
+            long[] packed = pairs.toSortedArray();
+            subscribersByChannel = build(packed);
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = pack((int) packed[i], (int) (packed[i] >>> 32));
+            }
+            Arrays.sort(packed);
+            channelsByUser = build(packed);
+            subscriptionCount = packed.length;
+            loaded = true;
+            System.out.println("Subscription graph loaded with " + subscriptionCount + " subscriptions in " +
+                    (System.nanoTime() - startedAt) / 1_000_000 + " ms, about " + sizeInBytes() / 1024 + " KB");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks if a user is subscribed to a channel.
+     * @param userId User ID
+     * @param channelId Channel ID
+     * @return true if user is subscribed
+     * @throws DatabaseException if the graph is not loaded and the query fails
+     */
+    public boolean isSubscribed(int userId, int channelId) throws DatabaseException {
+        if (!loaded) {
+            return channelDAO.isUserSubscribed(userId, channelId);
+        }
+        lock.readLock().lock();
+        try {
+            return get(channelsByUser, userId).contains(channelId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts a channel's subscribers.
+     * @param channelId Channel ID
+     * @return Number of subscribers
+     * @throws DatabaseException if the graph is not loaded and the query fails
+     */
+    public int getSubscriberCount(int channelId) throws DatabaseException {
+        if (!loaded) {
+            return channelDAO.getSubscriberIds(channelId).size();
+        }
+        lock.readLock().lock();
+        try {
+            return get(subscribersByChannel, channelId).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the IDs of a channel's subscribers, the fan-out targets of a post.
+     * @param channelId Channel ID
+     * @return User IDs, ascending
+     * @throws DatabaseException if the graph is not loaded and the query fails
+     */
+    public int[] getSubscriberIds(int channelId) throws DatabaseException {
+        if (!loaded) {
+            return toArray(channelDAO.getSubscriberIds(channelId));
+        }
+        lock.readLock().lock();
+        try {
+            return get(subscribersByChannel, channelId).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the IDs of the channels a user is subscribed to.
+     * @param userId User ID
+     * @return Channel IDs, ascending
+     * @throws DatabaseException if the graph is not loaded and the query fails
+     */
+    public int[] getChannelIds(int userId) throws DatabaseException {
+        if (!loaded) {
+            return toArray(channelDAO.getSubscribedChannelIds(userId));
+        }
+        lock.readLock().lock();
+        try {
+            return get(channelsByUser, userId).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a subscription after it has been committed. Does nothing before the graph is
+     * loaded, since the load reads the committed row.
+     * @param userId User ID
+     * @param channelId Channel ID
+     */
+    public void subscribe(int userId, int channelId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            subscribersByChannel = ensureSlot(subscribersByChannel, channelId);
+            channelsByUser = ensureSlot(channelsByUser, userId);
+            subscribersByChannel[channelId] = orNew(subscribersByChannel[channelId]);
+            channelsByUser[userId] = orNew(channelsByUser[userId]);
+            if (subscribersByChannel[channelId].add(userId)) {
+                channelsByUser[userId].add(channelId);
+                subscriptionCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a subscription after the delete has been committed.
+     * @param userId User ID
+     * @param channelId Channel ID
+     */
+    public void unsubscribe(int userId, int channelId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (get(subscribersByChannel, channelId).remove(userId)) {
+                get(channelsByUser, userId).remove(channelId);
+                subscriptionCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates the heap used by the graph, for logging.
+     * @return Approximate size in bytes
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return sizeInBytes(subscribersByChannel) + sizeInBytes(channelsByUser);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Packed pairs sorted by high then low half become one bitmap of low halves per high half
+    private static IntBitmap[] build(long[] packed) {
+        if (packed.length == 0) {
+            return new IntBitmap[0];
+        }
+        IntBitmap[] bitmaps = new IntBitmap[(int) (packed[packed.length - 1] >>> 32) + 1];
+        int[] values = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            values[i] = (int) packed[i];
+        }
+        int start = 0;
+        while (start < packed.length) {
+            int id = (int) (packed[start] >>> 32);
+            int end = start + 1;
+            while (end < packed.length && (int) (packed[end] >>> 32) == id) {
+                end++;
+            }
+            bitmaps[id] = IntBitmap.fromSorted(values, start, end);
+            start = end;
+        }
+        return bitmaps;
+    }
+
+    private static IntBitmap get(IntBitmap[] bitmaps, int id) {
+        IntBitmap bitmap = id >= 0 && id < bitmaps.length ? bitmaps[id] : null;
+        return bitmap != null ? bitmap : EMPTY;
+    }
+
+    private static IntBitmap orNew(IntBitmap bitmap) {
+        return bitmap != null ? bitmap : new IntBitmap();
+    }
+
+    private static IntBitmap[] ensureSlot(IntBitmap[] bitmaps, int id) {
+        if (id < bitmaps.length) {
+            return bitmaps;
+        }
+        return Arrays.copyOf(bitmaps, Math.max(id + 1, bitmaps.length + bitmaps.length / 2));
+    }
+
+    private static long sizeInBytes(IntBitmap[] bitmaps) {
+        long bytes = 16 + 4L * bitmaps.length;
+        for (IntBitmap bitmap : bitmaps) {
+            if (bitmap != null) {
+                bytes += bitmap.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static class PairBuffer {
+        private long[] pairs = new long[1024];
+        private int size;
+
+        void add(long pair) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = pair;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(pairs, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
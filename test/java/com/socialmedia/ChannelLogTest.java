@@ -0,0 +1,72 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.model.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger ids = new AtomicInteger(1);
+
+    @Test
+    void readsStopAtTheDurableWatermark() throws IOException {
+        ChannelLog log = ChannelLog.open(7, dir, SEGMENT_BYTES);
+        long end = 0;
+        for (int i = 0; i < 3; i++) {
+            end = log.append(message(), ids);
+        }
+        assertEquals(0, log.size());
+        assertTrue(log.readBackwards(Long.MAX_VALUE, 10).isEmpty());
+
+        log.sync(end);
+        log.append(message(), ids);
+        assertEquals(3, log.size());
+        List<Message> messages = log.readBackwards(log.positionBefore(null), 10);
+        assertEquals(3, messages.size());
+        assertEquals(3, messages.get(0).getId());
+        log.close();
+    }
+
+    @Test
+    void failedLogDropsUnflushedRecordsAndRefusesAppends() throws IOException {
+        ChannelLog log = ChannelLog.open(7, dir, SEGMENT_BYTES);
+        long durable = 0;
+        for (int i = 0; i < 2; i++) {
+            durable = log.append(message(), ids);
+        }
+        log.sync(durable);
+        // Enough unflushed records to roll into a second segment
+        long appended = durable;
+        while (appended < 200) {
+            appended = log.append(message(), ids);
+        }
+        long end = appended;
+
+        log.fail(new IOException("disk full"));
+        assertThrows(IOException.class, () -> log.append(message(), ids));
+        assertThrows(IOException.class, () -> log.sync(end + 1));
+        assertEquals(2, log.readBackwards(Long.MAX_VALUE, 10).size());
+        log.close();
+
+        ChannelLog reopened = ChannelLog.open(7, dir, SEGMENT_BYTES);
+        assertEquals(2, reopened.size());
+        assertEquals(2, reopened.getMaxId());
+        reopened.close();
+    }
+
+    private static Message message() {
+        return new Message(7, 3, "hello from the channel log");
+    }
+}
@@ -0,0 +1,110 @@
+package main.java.com.socialmedia.database;
+
+import com.socialmedia.exception.DatabaseException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+
+    private ConnectionFactory connectionFactory;
+    private ConnectionPool pool;
+    private final List<Connection> physicalConnections = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.createConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.prepareStatement(anyString(), anyInt()))
+                    .thenAnswer(prepare -> mock(PreparedStatement.class));
+            physicalConnections.add(connection);
+            return connection;
+        });
+        pool = new ConnectionPool("test", connectionFactory, 2, 100, 0, 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void borrow_reusesReturnedConnection() throws Exception {
+        try (Connection conn = pool.borrow()) {
+            assertNotNull(conn);
+        }
+        try (Connection conn = pool.borrow()) {
+            assertNotNull(conn);
+        }
+
+        verify(connectionFactory, times(1)).createConnection();
+        assertEquals(2, pool.getStats().getBorrowCount());
+        assertEquals(1, pool.getStats().getIdleConnections());
+    }
+
+    @Test
+    void borrow_whenExhausted_timesOut() throws Exception {
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThrows(DatabaseException.class, () -> pool.borrow());
+        assertEquals(1, pool.getStats().getTimeoutCount());
+        assertEquals(2, pool.getStats().getActiveConnections());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void borrow_discardsInvalidIdleConnection() throws Exception {
+        pool.borrow().close();
+        when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+
+        try (Connection next = pool.borrow()) {
+            assertNotNull(next);
+        }
+
+        verify(connectionFactory, times(2)).createConnection();
+        assertEquals(1, pool.getStats().getDiscardedCount());
+    }
+
+    @Test
+    void close_twice_returnsConnectionOnce() throws Exception {
+        Connection conn = pool.borrow();
+        conn.close();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertEquals(0, pool.getStats().getActiveConnections());
+        assertEquals(1, pool.getStats().getIdleConnections());
+    }
+
+    @Test
+    void prepareStatement_reusesCachedStatementAcrossBorrows() throws Exception {
+        String sql = "SELECT id FROM users WHERE id = ?";
+        try (Connection conn = pool.borrow();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, 1);
+        }
+        try (Connection conn = pool.borrow();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, 2);
+        }
+
+        verify(physicalConnections.get(0), times(1)).prepareStatement(eq(sql), anyInt());
+        assertEquals(1, pool.getStats().getStatementCacheHits());
+        assertEquals(1, pool.getStats().getStatementCacheMisses());
+    }
+}
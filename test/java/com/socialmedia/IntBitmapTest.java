@@ -0,0 +1,92 @@
+package main.java.com.socialmedia.subscription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBitmapTest {
+
+    @Test
+    void addRemoveAndContains() {
+        IntBitmap bitmap = new IntBitmap();
+
+        assertTrue(bitmap.add(5));
+        assertFalse(bitmap.add(5));
+        assertTrue(bitmap.add(70000));
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(6));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(5));
+        assertFalse(bitmap.remove(5));
+        assertFalse(bitmap.contains(5));
+        assertArrayEquals(new int[] {70000}, bitmap.toArray());
+    }
+
+    @Test
+    void denseContainerConvertsBothWays() {
+        IntBitmap bitmap = new IntBitmap();
+        for (int i = 0; i < 5000; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(5000, bitmap.cardinality());
+        assertTrue(bitmap.contains(9998));
+        assertFalse(bitmap.contains(9999));
+
+        for (int i = 0; i < 2000; i++) {
+            bitmap.remove(i * 2);
+        }
+        assertEquals(3000, bitmap.cardinality());
+        assertFalse(bitmap.contains(0));
+        assertTrue(bitmap.contains(4000));
+        assertTrue(bitmap.sizeInBytes() < 8192, "a sparse container is stored as an array again");
+    }
+
+    @Test
+    void matchesSetUnderRandomOperations() {
+        Random random = new Random(42);
+        IntBitmap bitmap = new IntBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200000; i++) {
+            int value = random.nextInt(300000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), bitmap.toArray());
+    }
+
+    @Test
+    void fromSortedMatchesIncrementalAdds() {
+        int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 7;
+        }
+        IntBitmap built = IntBitmap.fromSorted(values, 100, 9000);
+
+        assertEquals(8900, built.cardinality());
+        assertFalse(built.contains(values[99]));
+        assertTrue(built.contains(values[100]));
+        assertTrue(built.contains(values[8999]));
+        assertFalse(built.contains(values[9000]));
+        assertTrue(built.add(1));
+        assertEquals(1, built.toArray()[0]);
+    }
+
+    @Test
+    void negativeValuesAreRejected() {
+        IntBitmap bitmap = new IntBitmap();
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.remove(-1));
+    }
+}
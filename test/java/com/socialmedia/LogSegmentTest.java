@@ -0,0 +1,130 @@
+package main.java.com.socialmedia.store;
+
+import main.java.com.socialmedia.model.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSegmentTest {
+
+    private static final int CAPACITY = 4096;
+    // Every test message has 9 bytes of content
+    private static final int RECORD_BYTES = LogSegment.recordBytes(9);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cleanReopenKeepsEveryRecord() throws IOException {
+        Path path = write(5);
+
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(5, segment.getCount());
+        for (int i = 0; i < 5; i++) {
+            Message message = segment.read(i);
+            assertEquals(i + 1, message.getId());
+            assertEquals(1000L + i, message.getCreatedAtMillis());
+            assertEquals("message " + (i + 1), message.getContent());
+            assertEquals(7, message.getChannelId());
+        }
+        segment.close();
+    }
+
+    @Test
+    void corruptedChecksumTruncatesFromThatRecord() throws IOException {
+        Path path = write(5);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long contentByte = 3L * RECORD_BYTES - 1;
+            file.seek(contentByte);
+            int original = file.read();
+            file.seek(contentByte);
+            file.write(original ^ 0xFF);
+        }
+
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(2, segment.getCount());
+        segment.close();
+        assertZeroFrom(path, 2 * RECORD_BYTES);
+    }
+
+    @Test
+    void lengthPastCapacityTruncatesFromThatRecord() throws IOException {
+        Path path = write(5);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(3L * RECORD_BYTES);
+            file.writeInt(CAPACITY);
+        }
+
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(3, segment.getCount());
+        segment.close();
+        assertZeroFrom(path, 3 * RECORD_BYTES);
+    }
+
+    @Test
+    void staleRecordsAfterZeroLengthAreNotResurrected() throws IOException {
+        Path path = write(5);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(RECORD_BYTES);
+            file.writeInt(0);
+        }
+
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(1, segment.getCount());
+        // Same size as the record it replaces, so it ends exactly where the stale third record starts
+        assertTrue(segment.append(message(6), "message 6".getBytes(StandardCharsets.UTF_8)));
+        segment.force();
+        segment.close();
+
+        segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(2, segment.getCount());
+        assertEquals(6, segment.read(1).getId());
+        segment.close();
+    }
+
+    @Test
+    void truncateDiscardsNewestRecords() throws IOException {
+        Path path = write(5);
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        segment.truncate(2);
+        assertEquals(2, segment.getCount());
+        segment.force();
+        segment.close();
+
+        segment = LogSegment.open(path, 7, 0, CAPACITY);
+        assertEquals(2, segment.getCount());
+        segment.close();
+    }
+
+    private Path write(int count) throws IOException {
+        Path path = dir.resolve("00000000000000000000.log");
+        LogSegment segment = LogSegment.open(path, 7, 0, CAPACITY);
+        for (int id = 1; id <= count; id++) {
+            assertTrue(segment.append(message(id), ("message " + id).getBytes(StandardCharsets.UTF_8)));
+        }
+        segment.force();
+        segment.close();
+        return path;
+    }
+
+    private static Message message(int id) {
+        Message message = new Message(7, 3, "message " + id);
+        message.setId(id);
+        message.setCreatedAtMillis(1000L + id - 1);
+        return message;
+    }
+
+    private static void assertZeroFrom(Path path, int position) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        for (int i = position; i < bytes.length; i++) {
+            assertTrue(bytes[i] == 0, "stale byte at " + i);
+        }
+    }
+}
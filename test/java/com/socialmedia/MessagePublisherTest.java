@@ -0,0 +1,204 @@
+package main.java.com.socialmedia.observer;
+
+import main.java.com.socialmedia.model.Message;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePublisherTest {
+
+    private final MessagePublisher publisher = new MessagePublisher();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        publisher.clearSubscribers();
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpPosterOrOtherChannels() throws Exception {
+        CountDownLatch otherChannel = new CountDownLatch(1);
+        List<Message> received = new CopyOnWriteArrayList<>();
+        publisher.subscribe(message -> awaitRelease(), 1);
+        publisher.subscribe(message -> {
+            received.add(message);
+            otherChannel.countDown();
+        }, 2);
+
+        long startedAt = System.nanoTime();
+        publisher.publishMessage(message(1, 1));
+        publisher.publishMessage(message(2, 2));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1000, "publishing does not wait for delivery");
+        assertTrue(otherChannel.await(5, TimeUnit.SECONDS));
+        assertEquals(1, received.size());
+        assertEquals(2, received.get(0).getId());
+    }
+
+    @Test
+    void dropOldestKeepsNewestMessages() throws Exception {
+        CountDownLatch last = new CountDownLatch(1);
+        int total = MessageDispatcher.QUEUE_SIZE + 10;
+        publisher.subscribe(message -> {
+            awaitRelease();
+            if (message.getId() == total) {
+                last.countDown();
+            }
+        }, 1, OverflowPolicy.DROP_OLDEST);
+
+        for (int id = 1; id <= total; id++) {
+            publisher.publishMessage(message(id, 1));
+        }
+        release.countDown();
+
+        assertTrue(last.await(5, TimeUnit.SECONDS));
+        // The counters move just after the callback returns
+        waitFor(() -> {
+            DispatchStats stats = publisher.getDispatchStats().get(0);
+            return stats.getDelivered() + stats.getDropped() == total;
+        });
+        assertTrue(publisher.getDispatchStats().get(0).getDropped() >= 9);
+    }
+
+    @Test
+    void disconnectPolicyUnsubscribesOnOverflow() throws Exception {
+        CountDownLatch disconnected = new CountDownLatch(1);
+        publisher.subscribe(new MessageSubscriber() {
+            @Override
+            public void onMessageReceived(Message message) {
+                awaitRelease();
+            }
+
+            @Override
+            public void onDisconnected(String reason) {
+                disconnected.countDown();
+            }
+        }, 1, OverflowPolicy.DISCONNECT);
+
+        for (int id = 1; id <= MessageDispatcher.QUEUE_SIZE + 2; id++) {
+            publisher.publishMessage(message(id, 1));
+        }
+        release.countDown();
+
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test
+    void flowSubscriberOnlyReceivesWhatItRequested() throws Exception {
+        List<Message> received = new CopyOnWriteArrayList<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        new MessageFlowPublisher(publisher, 1, OverflowPolicy.BLOCK).subscribe(new Flow.Subscriber<Message>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(2);
+            }
+
+            @Override
+            public void onNext(Message message) {
+                received.add(message);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail("unexpected error " + throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        for (int id = 1; id <= 5; id++) {
+            publisher.publishMessage(message(id, 1));
+        }
+        waitFor(() -> received.size() == 2);
+        Thread.sleep(100);
+        assertEquals(2, received.size());
+
+        subscription[0].request(3);
+        waitFor(() -> received.size() == 5);
+        assertEquals(5, received.get(4).getId());
+        subscription[0].cancel();
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test
+    void invalidRequestIsSignalledAfterDeliveryInProgress() throws Exception {
+        List<Object> signals = new CopyOnWriteArrayList<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        CountDownLatch delivering = new CountDownLatch(1);
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        new MessageFlowPublisher(publisher, 1, OverflowPolicy.DROP_OLDEST).subscribe(new Flow.Subscriber<Message>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(10);
+            }
+
+            @Override
+            public void onNext(Message message) {
+                delivering.countDown();
+                awaitRelease();
+                signals.add(message.getId());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+                failed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        publisher.publishMessage(message(1, 1));
+        publisher.publishMessage(message(2, 1));
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        subscription[0].request(0);
+        Thread.sleep(100);
+        assertEquals(0, signals.size());
+
+        release.countDown();
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, signals.size());
+        assertEquals(1, signals.get(0));
+        assertTrue(signals.get(1) instanceof IllegalArgumentException);
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    private static Message message(int id, int channelId) {
+        Message message = new Message(channelId, 1, "message " + id);
+        message.setId(id);
+        return message;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package main.java.com.socialmedia.archive;
+
+import main.java.com.socialmedia.model.Message;
+import main.java.com.socialmedia.model.MessageCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readAllReturnsMessagesAsWritten() throws IOException {
+        List<Message> messages = messages(500);
+        Path path = dir.resolve("7.seg");
+        MessageSegment.write(path, 7, messages);
+
+        MessageSegment segment = MessageSegment.open(path);
+        List<Message> read = segment.readAll();
+
+        assertEquals(7, segment.getChannelId());
+        assertEquals(500, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(messages.get(i).getId(), read.get(i).getId());
+            assertEquals(messages.get(i).getCreatedAtMillis(), read.get(i).getCreatedAtMillis());
+            assertEquals(messages.get(i).getContent(), read.get(i).getContent());
+            assertEquals(7, read.get(i).getChannelId());
+        }
+    }
+
+    @Test
+    void readBeforeStartsStrictlyAfterTheCursor() throws IOException {
+        List<Message> messages = messages(500);
+        Path path = dir.resolve("7.seg");
+        MessageSegment.write(path, 7, messages);
+        MessageSegment segment = MessageSegment.open(path);
+
+        // Cursors in every block, including timestamp ties broken by ID
+        for (int start = 0; start < messages.size(); start += 37) {
+            List<Message> page = segment.readBefore(MessageCursor.of(messages.get(start)), 50);
+            int expected = Math.min(50, messages.size() - start - 1);
+            assertEquals(expected, page.size());
+            for (int i = 0; i < page.size(); i++) {
+                assertEquals(messages.get(start + 1 + i).getId(), page.get(i).getId());
+            }
+        }
+        assertTrue(segment.readBefore(MessageCursor.of(messages.get(messages.size() - 1)), 10).isEmpty());
+    }
+
+    @Test
+    void corruptBlockIsReported() throws IOException {
+        Path path = dir.resolve("7.seg");
+        MessageSegment.write(path, 7, messages(100));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(20);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        MessageSegment segment = MessageSegment.open(path);
+        assertThrows(IOException.class, segment::readAll);
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = dir.resolve("7.seg");
+        MessageSegment.write(path, 7, messages(100));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThrows(IOException.class, () -> MessageSegment.open(path));
+    }
+
+    // Newest first, two messages per millisecond so IDs break ties
+    private static List<Message> messages(int count) {
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = count; i > 0; i--) {
+            Message message = new Message(7, i % 5 + 1, "message " + i + " éè");
+            message.setId(i);
+            message.setCreatedAtMillis(1_700_000_000_000L + i / 2);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
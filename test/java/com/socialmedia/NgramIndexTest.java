@@ -0,0 +1,79 @@
+package main.java.com.socialmedia.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NgramIndexTest {
+
+    private final NgramIndex index = new NgramIndex();
+
+    @Test
+    void partiallyTypedWordMatchesAsPrefix() {
+        index.put(1, "Alice Smith");
+        index.put(2, "Bob Jones");
+        index.put(3, "alice.jones@example.com");
+
+        assertArrayEquals(new int[] {1, 3}, index.search("ali", 10));
+        assertArrayEquals(new int[] {2}, index.search("b", 10));
+        // Both match at a word start; the shorter text is the closer match
+        assertArrayEquals(new int[] {2, 3}, index.search("jon", 10));
+    }
+
+    @Test
+    void smallTyposInLongerQueriesStillMatch() {
+        index.put(1, "Engineering Team");
+        index.put(2, "Marketing");
+
+        assertArrayEquals(new int[] {1}, index.search("enginering", 10));
+        assertArrayEquals(new int[] {2}, index.search("marketnig", 10));
+        assertEquals(0, index.search("zzzz", 10).length);
+    }
+
+    @Test
+    void prefixMatchesRankAheadOfWordAndSubstringMatches() {
+        index.put(1, "telephoto lenses");
+        index.put(2, "bird photography");
+        index.put(3, "photography");
+
+        assertArrayEquals(new int[] {3, 2, 1}, index.search("photo", 10));
+        assertArrayEquals(new int[] {3, 2}, index.search("photo", 2));
+    }
+
+    @Test
+    void putReplacesPreviousText() {
+        index.put(1, "alpha channel");
+        index.put(2, "alpha release");
+        index.put(1, "beta alpha channel");
+        index.put(1, "beta alpha channel");
+
+        assertEquals(2, index.size());
+        assertEquals("beta alpha channel", index.getText(1));
+        assertArrayEquals(new int[] {2, 1}, index.search("alpha", 10));
+        assertArrayEquals(new int[] {1}, index.search("beta", 10));
+        assertArrayEquals(new int[] {1}, index.search("channel", 10));
+    }
+
+    @Test
+    void removedEntriesAreNotFoundAfterCompaction() {
+        for (int id = 1; id <= 100; id++) {
+            index.put(id, "channel " + id);
+        }
+        assertEquals(10, index.search("channel", 10).length);
+
+        for (int id = 1; id <= 80; id++) {
+            index.remove(id);
+        }
+        index.put(101, "channel 101");
+
+        assertEquals(21, index.size());
+        assertNull(index.getText(5));
+        int[] all = index.search("channel", 50);
+        assertEquals(21, all.length);
+        for (int id : all) {
+            assertTrue(id > 80, "removed entry " + id + " found");
+        }
+        assertArrayEquals(new int[] {95}, index.search("channel 95", 1));
+        assertArrayEquals(new int[] {101}, index.search("channel 101", 1));
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.com.socialmedia.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    @Test
+    void csv_readsQuotedFieldsWithCommasQuotesAndNewlines() throws Exception {
+        String csv = "Email,Content\r\n" +
+                "a@x.com,\"hello, \"\"world\"\"\"\n" +
+                "b@x.com,\"line one\nline two\"\n";
+
+        try (CsvRecordReader reader = new CsvRecordReader(new BufferedReader(new StringReader(csv)))) {
+            Map<String, String> first = reader.next();
+            assertEquals("a@x.com", first.get("email"));
+            assertEquals("hello, \"world\"", first.get("content"));
+
+            Map<String, String> second = reader.next();
+            assertEquals("line one\nline two", second.get("content"));
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void csv_missingTrailingFieldsAreNull() throws Exception {
+        try (CsvRecordReader reader = new CsvRecordReader(new BufferedReader(new StringReader("name,description\nnews\n")))) {
+            Map<String, String> record = reader.next();
+            assertEquals("news", record.get("name"));
+            assertNull(record.get("description"));
+        }
+    }
+
+    @Test
+    void jsonl_readsFlatObjects() throws Exception {
+        String jsonl = "{\"email\": \"a@x.com\", \"content\": \"tab\\there \\u00e9\", \"count\": 3, \"extra\": null}\n" +
+                "\n" +
+                "{}\n";
+
+        try (JsonLinesRecordReader reader = new JsonLinesRecordReader(new BufferedReader(new StringReader(jsonl)))) {
+            Map<String, String> first = reader.next();
+            assertEquals("a@x.com", first.get("email"));
+            assertEquals("tab\there \u00e9", first.get("content"));
+            assertEquals("3", first.get("count"));
+            assertTrue(first.containsKey("extra"));
+            assertNull(first.get("extra"));
+
+            assertTrue(reader.next().isEmpty());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void jsonl_rejectsNestedValues() {
+        JsonLinesRecordReader reader = new JsonLinesRecordReader(
+                new BufferedReader(new StringReader("{\"tags\": [\"a\"]}\n")));
+
+        assertThrows(IOException.class, reader::next);
+    }
+}
@@ -0,0 +1,69 @@
+package main.java.com.socialmedia.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void getReturnsPutValueAndCountsHitsAndMisses() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>("test", 100);
+
+        assertNull(cache.get(1));
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void sizeNeverExceedsMaximum() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>("test", 50);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(50, cache.size());
+        assertEquals(950, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveAScan() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>("test", 100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+
+        // One-off keys should not displace the hot set
+        for (int i = 1000; i < 3000; i++) {
+            cache.put(i, i);
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "hot entries retained: " + survivors);
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10);
+        cache.put("a", "1");
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}